@@ -0,0 +1,267 @@
+package BoardActions;
+
+import java.util.HashMap;
+
+import BoardRepresentation.Board;
+import BoardRepresentation.SimpleThermsBoard;
+import Demonstrators.SimpleThermometersAI;
+import Utilities.Triple;
+
+/** This class numbers every possible action for one domain and one board size, so an action can be passed around
+ *    as a single int (its id) instead of as a Triple or a string.  Ids are dense, from 0 to getNumActions()-1, and are
+ *    in the same order as the values of the action attribute in WEKA (see FeatureSchema.java, which takes its action
+ *    values from here), so an id is also the action's WEKA class index.
+ *
+ *  Simple Thermometers ids (for an n x n board):
+ *    0 to n-1: fill(0) to fill(n-1)
+ *    n to 2n-1: empty(0) to empty(n-1)
+ *    2n: move()
+ *    2n+1: clear()
+ *
+ *  Complex Thermometers ids (for an n x n board), with the tiles in each group going along the rows:
+ *    0 to n*n-1: undo(row,col)
+ *    n*n to 2n*n-1: markFull(row,col)
+ *    2n*n to 3n*n-1: markEmpty(row,col)
+ *
+ *  Going between ids and moves is just arithmetic or an array lookup, so it never allocates.  Catalogs never change
+ *    once they are made, and the same catalog is handed back for the same domain and size, so they are safe to share
+ *    between threads.
+ *
+ * @author Skularach
+ *
+ */
+public class ActionCatalog
+{
+	//Catalogs made so far, indexed by board size.  Replaced (never changed) when a bigger size is asked for,
+	//  so they can be read without locking.
+	private static volatile ActionCatalog[] simpleCatalogs = new ActionCatalog[0];
+	private static volatile ActionCatalog[] complexCatalogs = new ActionCatalog[0];
+
+	//'S' for Simple Thermometers, 'C' for Complex Thermometers
+	private final char domain;
+
+	//Width/height of the boards this catalog is for
+	private final int boardSize;
+
+	//The move and the WEKA action value for each id
+	private final Triple[] moves;
+	private final String[] names;
+
+	//The id of each WEKA action value
+	private final HashMap<String, Integer> idsByName = new HashMap<String, Integer>();
+
+	/** Get the catalog for a domain and board size, making it the first time it is asked for.
+	 *
+	 * @param domain 'S' for Simple Thermometers, 'C' for Complex Thermometers
+	 * @param boardSize The width/height of the boards
+	 * @return The (shared) catalog
+	 */
+	public static ActionCatalog getCatalog(char domain, int boardSize)
+	{
+		ActionCatalog[] catalogs = domain == 'S' ? simpleCatalogs : complexCatalogs;
+		if(boardSize < catalogs.length && catalogs[boardSize] != null)
+			return catalogs[boardSize];
+		return makeCatalog(domain, boardSize);
+	}
+
+	/** Get the catalog for the domain and size of a board
+	 *
+	 * @param board The board
+	 * @return The (shared) catalog
+	 */
+	public static ActionCatalog getCatalog(Board board)
+	{
+		return getCatalog(board instanceof SimpleThermsBoard ? 'S' : 'C', board.getSize());
+	}
+
+	/** Make the catalog for a domain and board size if no other thread has yet, and store it
+	 *
+	 * @param domain 'S' for Simple Thermometers, 'C' for Complex Thermometers
+	 * @param boardSize The width/height of the boards
+	 * @return The (shared) catalog
+	 */
+	private static synchronized ActionCatalog makeCatalog(char domain, int boardSize)
+	{
+		ActionCatalog[] catalogs = domain == 'S' ? simpleCatalogs : complexCatalogs;
+		if(boardSize < catalogs.length && catalogs[boardSize] != null)
+			return catalogs[boardSize];
+
+		//Copy the array rather than changing it, since other threads may be reading it
+		ActionCatalog[] newCatalogs = new ActionCatalog[Math.max(catalogs.length, boardSize + 1)];
+		System.arraycopy(catalogs, 0, newCatalogs, 0, catalogs.length);
+		ActionCatalog catalog = new ActionCatalog(domain, boardSize);
+		newCatalogs[boardSize] = catalog;
+
+		if(domain == 'S')
+			simpleCatalogs = newCatalogs;
+		else
+			complexCatalogs = newCatalogs;
+		return catalog;
+	}
+
+	/** Constructor.  Lists every action for a domain and board size.
+	 *
+	 * @param domainIn 'S' for Simple Thermometers, 'C' for Complex Thermometers
+	 * @param boardSizeIn The width/height of the boards
+	 */
+	private ActionCatalog(char domainIn, int boardSizeIn)
+	{
+		domain = domainIn;
+		boardSize = boardSizeIn;
+
+		if(domain == 'S')
+		{
+			moves = new Triple[2 * boardSize + 2];
+			names = new String[moves.length];
+			for(int i = 0; i < boardSize; i++)
+			{
+				moves[i] = SimpleThermometersAI.fillMove(i);
+				names[i] = "fill(" + i + ")";
+				moves[boardSize + i] = SimpleThermometersAI.emptyMove(i);
+				names[boardSize + i] = "empty(" + i + ")";
+			}
+			moves[2 * boardSize] = SimpleThermometersAI.MOVE;
+			names[2 * boardSize] = "move()";
+			moves[2 * boardSize + 1] = SimpleThermometersAI.CLEAR;
+			names[2 * boardSize + 1] = "clear()";
+		}
+		else
+		{
+			int numTiles = boardSize * boardSize;
+			moves = new Triple[3 * numTiles];
+			names = new String[moves.length];
+			for(int i = 0; i < boardSize; i++)
+				for(int j = 0; j < boardSize; j++)
+				{
+					int tile = i * boardSize + j;
+					moves[tile] = new Triple(i, j, 0);
+					names[tile] = "undo(" + i + "," + j + ")";
+					moves[numTiles + tile] = new Triple(i, j, 1);
+					names[numTiles + tile] = "markFull(" + i + "," + j + ")";
+					moves[2 * numTiles + tile] = new Triple(i, j, -1);
+					names[2 * numTiles + tile] = "markEmpty(" + i + "," + j + ")";
+				}
+		}
+
+		for(int id = 0; id < names.length; id++)
+			idsByName.put(names[id], id);
+	}
+
+	/** Get the move for an id.  The Triple is shared, so it must not be changed (Triples can't be anyway).
+	 *
+	 * @param id The id of the action
+	 * @return The move, in the same form the demonstrators return moves in
+	 */
+	public Triple getMove(int id)
+	{
+		return moves[id];
+	}
+
+	/** Get the id of a move, in the form the demonstrators return moves in
+	 *
+	 * @param move The move
+	 * @return The id of the move
+	 * @throws IllegalArgumentException If the move isn't one of this catalog's actions
+	 */
+	public int getId(Triple move)
+	{
+		int id = -1;
+		if(domain == 'S')
+		{
+			if(move.getFirst() == 'f')
+				id = move.getSecond();
+			else if(move.getFirst() == 'e')
+				id = boardSize + move.getSecond();
+			else if(move.getFirst() == 'm')
+				id = 2 * boardSize;
+			else if(move.getFirst() == 'c')
+				id = 2 * boardSize + 1;
+
+			//A position off the end of the line would otherwise land on a different action's id
+			if((move.getFirst() == 'f' || move.getFirst() == 'e') && (move.getSecond() < 0 || move.getSecond() >= boardSize))
+				id = -1;
+		}
+		else if(move.getFirst() >= 0 && move.getFirst() < boardSize && move.getSecond() >= 0 && move.getSecond() < boardSize
+				&& move.getThird() >= -1 && move.getThird() <= 1)
+		{
+			//undo (0) comes first, then markFull (1), then markEmpty (-1)
+			int group = move.getThird() == -1 ? 2 : move.getThird();
+			id = group * boardSize * boardSize + move.getFirst() * boardSize + move.getSecond();
+		}
+
+		if(id < 0 || id >= moves.length)
+			throw new IllegalArgumentException("Move (" + move.getFirst() + "," + move.getSecond() + "," + move.getThird() + ") is not a " + (domain == 'S' ? "Simple" : "Complex")
+					+ " Thermometers action for a " + boardSize + "x" + boardSize + " board");
+		return id;
+	}
+
+	/** Get the WEKA action value for an id
+	 *
+	 * @param id The id of the action
+	 * @return The action as a string, e.g. "fill(2)" or "markFull(1,3)"
+	 */
+	public String getName(int id)
+	{
+		return names[id];
+	}
+
+	/** Get the id for a WEKA action value
+	 *
+	 * @param name The action as a string, e.g. "fill(2)" or "markFull(1,3)"
+	 * @return The id of the action, or -1 if it isn't one of this catalog's actions
+	 */
+	public int getId(String name)
+	{
+		Integer id = idsByName.get(name);
+		return id == null ? -1 : id;
+	}
+
+	/** Get the id of the action whose WEKA class index is given.  Ids are class indices, so this just checks the index
+	 *    and casts it, but it keeps code that goes from a prediction to a move from relying on that.
+	 *
+	 * @param classIndex The class index, as returned by a WEKA classifier
+	 * @return The id of the action
+	 * @throws IllegalArgumentException If the index isn't a valid action
+	 */
+	public int getIdForClassIndex(double classIndex)
+	{
+		int id = (int) classIndex;
+		if(id < 0 || id >= moves.length || id != classIndex)
+			throw new IllegalArgumentException("Action index " + classIndex + " returned by prediction is invalid");
+		return id;
+	}
+
+	/** Get the WEKA class index of an action
+	 *
+	 * @param id The id of the action
+	 * @return The class index
+	 */
+	public int getClassIndex(int id)
+	{
+		return id;
+	}
+
+	/** Getter for the number of actions
+	 *
+	 * @return The number of actions (and WEKA action values)
+	 */
+	public int getNumActions() {
+		return moves.length;
+	}
+
+	/** Getter for the domain of this catalog
+	 *
+	 * @return 'S' for Simple Thermometers, 'C' for Complex Thermometers
+	 */
+	public char getDomain() {
+		return domain;
+	}
+
+	/** Getter for the board size of this catalog
+	 *
+	 * @return The width/height of the boards this catalog is for
+	 */
+	public int getBoardSize() {
+		return boardSize;
+	}
+}
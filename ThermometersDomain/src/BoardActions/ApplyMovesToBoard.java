@@ -23,15 +23,23 @@ public class ApplyMovesToBoard
 	*   */
 	public static void applyMove(Board board, Triple move)
 	{
+		//Mark where the move starts in the board's undo journal, so it can be undone with Board.undoMoves
+		board.markMoveStart();
+		
 		if(board instanceof SimpleThermsBoard)
 			applyMoveAsPair((SimpleThermsBoard)board, move);
 		else
 			applyMoveAsTriple((ComplexThermsBoard)board, move);
+	}
 	
-		//Its very important to put this somewhere it is called
-		//   Every time a value on the board grid is changed,
-		//   Because it updates data relative to the thermometers
-		board.updateThermData();
+	/** Applies a move given by its id in the board's ActionCatalog, such as a class index predicted by WEKA.
+	 *    Looking the move up is just an array lookup, so this is as fast as applying the move itself.
+	 * @param board The board on which to apply the move
+	 * @param actionId The id of the move to apply to the board
+	 */
+	public static void applyMove(Board board, int actionId)
+	{
+		applyMove(board, ActionCatalog.getCatalog(board).getMove(actionId));
 	}
 	
 	/** Takes in a Simple Thermometers board and a move,
@@ -46,9 +54,9 @@ public class ApplyMovesToBoard
 		{
 			//Empty (set to -1) the relevant location in the current row/column
 			if(board.lookingAtRows)
-				board.grid.get(board.rowIndex).set(move.getSecond(), -1);
+				board.setTile(board.rowIndex, move.getSecond(), -1);
 			else //if(!RowOrColumn.lookingAtRows)
-				board.grid.get(move.getSecond()).set(board.colIndex, -1);
+				board.setTile(move.getSecond(), board.colIndex, -1);
 		}
 		
 		//If the move is to fill a tile
@@ -56,9 +64,9 @@ public class ApplyMovesToBoard
 		{
 			//Fill (set to 1) the relevant location in the current row/column
 			if(board.lookingAtRows)
-				board.grid.get(board.rowIndex).set(move.getSecond(), 1);
+				board.setTile(board.rowIndex, move.getSecond(), 1);
 			else //if(!RowOrColumn.lookingAtRows)
-				board.grid.get(move.getSecond()).set(board.colIndex, 1);
+				board.setTile(move.getSecond(), board.colIndex, 1);
 		}
 		
 		//If the move is to move to the next row/column
@@ -76,12 +84,11 @@ public class ApplyMovesToBoard
 				//Clear the row
 				for(int i = 0; i < board.grid.size(); i++)
 				{
-					board.grid.get(board.rowIndex).set(i,0);
+					board.setTile(board.rowIndex, i, 0);
 				}
 				
 				//Update board info to look at first column
-				board.lookingAtRows = false;
-				board.colIndex = 0;
+				board.setCursor(false, board.rowIndex, 0);
 			}
 			
 			else 
@@ -89,20 +96,14 @@ public class ApplyMovesToBoard
 				//Clear the column
 				for(int i = 0; i < board.grid.size(); i++)
 				{
-					board.grid.get(i).set(board.colIndex,0);
+					board.setTile(i, board.colIndex, 0);
 				}
 				
 				//Update board info to look at first row
-				board.lookingAtRows = true;
-				board.rowIndex = 0;
+				board.setCursor(true, 0, board.colIndex);
 			}
 					
 		}
-		
-		//Update the thermometer information on the board.  This is probably called
-		//   way too often but its vital it gets updated when a tile changes,
-		//   so better too often than not often enough.
-		board.updateThermData();
 	}
 	
 	/** Takes in a Complex Thermometers board and a move,
@@ -115,6 +116,6 @@ public class ApplyMovesToBoard
 		//The first item in triple determines whether to mark a tile as
 		//   full, empty, or unknown.  The second and third items determine
 		//   the location on the grid of the affected tile.
-		board.grid.get(rule.getFirst()).set(rule.getSecond(), rule.getThird());
+		board.setTile(rule.getFirst(), rule.getSecond(), rule.getThird());
 	}
 }
\ No newline at end of file
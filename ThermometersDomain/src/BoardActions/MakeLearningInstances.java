@@ -1,16 +1,19 @@
 package BoardActions;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
+import weka.core.Attribute;
 import weka.core.DenseInstance;
 import weka.core.Instance;
 import Utilities.Quadruple;
 import Utilities.Triple;
-import WEKA.Classification;
-import WEKA.InstanceCreation;
+import WEKA.FeatureSchema;
 import BoardRepresentation.Board;
 import BoardRepresentation.ComplexThermsBoard;
 import BoardRepresentation.SimpleThermsBoard;
+import BoardRepresentation.PieceCodes;
+import BoardRepresentation.ThermometerPiece;
 import FactsExtraction.RuleBasedBoardFacts;
 import javafx.util.Pair;
 
@@ -24,63 +27,81 @@ import javafx.util.Pair;
  */
 public class MakeLearningInstances
 {
-	//Indices for Complex Thermometer features- precalculated for ease of understanding
-	public final static int wholeColumnRulesStartIndex = Board.BOARDSIZE * Board.BOARDSIZE;
-	public final static int complicatedColRulesStartIndex = wholeColumnRulesStartIndex + 2 * Board.BOARDSIZE;
-	public final static int remainingColRulesIndex = complicatedColRulesStartIndex + Board.BOARDSIZE * Board.BOARDSIZE*2;
-	public final static int startingRowIndex = remainingColRulesIndex + Board.BOARDSIZE * Board.BOARDSIZE * 2;
-	public final static int complicatedRowRulesStartIndex = startingRowIndex + 2 * Board.BOARDSIZE;
-	public final static int remainingRowRulesIndex = complicatedRowRulesStartIndex + Board.BOARDSIZE * Board.BOARDSIZE*2;
-		
-	
+	//The value WEKA uses for a missing value, which is what the action is left as since it isn't known yet
+	private static final double MISSING = Double.NaN;
 	
 	/**General case.  Determines whether the passed in board is a Simple or Complex board,
-	*   and calls the appropriate instance-creation method.
+	*   and calls the appropriate instance-creation method.  The features come from the FeatureSchema
+	*   for the board's own size, so boards of different sizes can be turned into instances side by side.
 	*  @param board The board from which to create the instance
 	*   */
 	public static Instance getInstance(Board board) {
-		Instance instance;
+		FeatureSchema schema = getSchema(board);
+		double[] values = new double[schema.numAttributes()];
+		getFeatureValues(board, values);
 		
+		//WEKA keeps the array as the instance's values, so it must not be reused
+		Instance instance = new DenseInstance(1.0, values);
+		if(board instanceof SimpleThermsBoard)
+			instance.setDataset(schema.getHeader());
+		return instance;
+	}
+	
+	/** Works out the value of every feature of a board, as WEKA stores them in an instance: the index of the value for
+	*   nominal features, and the number itself for numeric ones.  The action (the last value) is set to missing.
+	*   This is what getInstance puts in its instances, but it can fill the same array over and over, for code that
+	*   stores the features somewhere other than in WEKA instances.
+	*  @param board The board from which to work out the features
+	*  @param values The array to fill in, with one entry per attribute in the schema for the board (see getSchema)
+	*   */
+	public static void getFeatureValues(Board board, double[] values) {
 		//Use instanceof to see whether we are dealing with a simple or complex board,
-		//    and call the appropriate instance creation method.
+		//    and call the appropriate feature method.
 		if(board instanceof SimpleThermsBoard)
-			instance = createSimpleThermsInstance((SimpleThermsBoard)board);
+			getSimpleThermsValues((SimpleThermsBoard)board, FeatureSchema.getSchema('S', board.getSize()), values);
 		else
-			instance = createInstanceComplexTherms((ComplexThermsBoard)board);
-		return instance;
+			getComplexThermsValues((ComplexThermsBoard)board, FeatureSchema.getSchema('C', board.getSize()), values);
+		values[values.length - 1] = MISSING;
+	}
+	
+	/** Gets the feature schema for a board's domain and size
+	*  @param board The board
+	*  @return The schema its instances use
+	*   */
+	public static FeatureSchema getSchema(Board board) {
+		return FeatureSchema.getSchema(board instanceof SimpleThermsBoard ? 'S' : 'C', board.getSize());
 	}
 	
-	/** Creates a learning instance for simple thermometers boards.  The features are:
+	/** Works out the features of a simple thermometers board.  The features are:
 	*  0-4: Whether each tile is full, empty, or unknown
 	*  5-9: Whether each tile has a relevant thermometer piece (if we are looking at rows, a vertical thermometer is irrelevant.  Likewise with columns and horizontal.
 	*  10: The number of tiles (total) that should be filled in the row/column
 	*  11-13: The current number of filled, empty, and blank tiles, in that order
 	*  14: The action taken (this will be left unknown by this method, since it is not yet known)
 	*  
-	*  @param board The board from which to create the instance
+	*  (These are for a 5x5 board; see FeatureSchema for other sizes.)
+	*  
+	*  @param board The board from which to work out the features
+	*  @param schema The features for the board's size
+	*  @param values The array to fill in
 	*   */
-	private static Instance createSimpleThermsInstance(SimpleThermsBoard board)
+	private static void getSimpleThermsValues(SimpleThermsBoard board, FeatureSchema schema, double[] values)
 	{
-		//Initialize instance
-		Instance anInstance = new DenseInstance(InstanceCreation.numWEKAattributes);
-		anInstance.setDataset(Classification.globalInstanceDatabase);
+		int size = schema.getBoardSize();
 		
 		//Set all Therm Piece features to the default of "NO", for "no relevant thermometer piece on this tile"
-		try{
-			for(int i = 0; i < board.grid.size(); i++)
-				anInstance.setValue(InstanceCreation.WEKAattributes.get(Board.BOARDSIZE + i),"NO");
-		}catch(Exception e)
-			{e.printStackTrace();}
+		Attribute pieceAttribute = schema.getAttribute(size);
+		double noPiece = pieceAttribute.indexOfValue("NO");
+		for(int i = 0; i < board.grid.size(); i++)
+			values[size + i] = noPiece;
 			
 		//Rows and columns handled separately, which is the usual case for Simple Thermometers
 		if(!board.lookingAtRows)
 		{
-			//Update the thermometer data with the newest tile values, just in case it hasn't already been done
-			board.updateThermData();
-			
 			//Set the fill for each tile to whatever the fill currently is for that file.
+			//The fill values are "-1", "0" and "1", in that order, so the index of a fill's value is one more than the fill.
 			for(int i = 0; i < board.grid.size(); i++)
-					anInstance.setValue(InstanceCreation.WEKAattributes.get(0+i), board.grid.get(i).get(board.colIndex) + "");
+					values[0+i] = board.grid.get(i, board.colIndex) + 1;
 			
 			//For each thermometer in the column
 			for(int j = 0; j < board.colTherms.get(board.colIndex).size(); j++)
@@ -88,53 +109,32 @@ public class MakeLearningInstances
 				//for each piece in that thermometer
 				for(int k = 0; k < board.colTherms.get(board.colIndex).get(j).size(); k++)
 				{
-					//Get the string code for that piece. Details on the string codes can be found in BoardFileIO.java
-					int location = board.colTherms.get(board.colIndex).get(j).get(k).getXPos();
-					String code = board.stringGrid[board.colTherms.get(board.colIndex).get(j).get(k).getXPos()][board.colTherms.get(board.colIndex).get(j).get(k).getYPos()];
-					
-					//This framework treats rows and columns the same, so replace column-only code values with their row equivalents for consistency.
-					code = code.replace('D', 'R');
-					code = code.replace('U', 'L');
-					code = code.replace('V', 'H');
-					
-					//The last letter in each 3 letter code is the "true fill" of the tile (the fill it will have when the board is solved)
-					//   This is information the learner should not have, so we remove it.
-					code = code.substring(0,code.length() - 1);
-					anInstance.setValue(InstanceCreation.WEKAattributes.get(Board.BOARDSIZE + location), code);
+					//Get the feature value for that piece. Details on the codes can be found in BoardFileIO.java and PieceCodes.java
+					//This framework treats rows and columns the same, so column-only codes are given as their row equivalents for consistency.
+					//The "true fill" of the tile (the fill it will have when the board is solved) is information the learner should not have,
+					//   so it is left off.
+					ThermometerPiece piece = board.colTherms.get(board.colIndex).get(j).get(k);
+					int location = piece.getXPos();
+					String code = PieceCodes.lineFeature(board.getPiece(piece.getXPos(), piece.getYPos()), true);
+					values[size + location] = pieceAttribute.indexOfValue(code);
 				}	
 				
 			}
 			
 			//Set the next feature as the number of filled tiles the column should have when the board is solved
-			anInstance.setValue(InstanceCreation.WEKAattributes.get(Board.BOARDSIZE * 2), board.colCounts.get(board.colIndex));
+			values[size * 2] = board.colCounts.get(board.colIndex);
 			
-			//Set the next 3 features as the current number of filled, blank, and empty tiles in the row
-			int numBlank = 0;
-			int numFilled = 0;
-			int numEmpty = 0;
-			for(int i = 0; i < board.grid.size(); i++)
-			{
-				if(board.grid.get(i).get(board.colIndex) == 1)
-					numFilled++;
-				else if(board.grid.get(i).get(board.colIndex)== 0)
-					numBlank++;
-				else
-					numEmpty++;
-			}	
-			
-			anInstance.setValue(InstanceCreation.WEKAattributes.get(Board.BOARDSIZE * 2 + 1), numFilled);
-			anInstance.setValue(InstanceCreation.WEKAattributes.get(Board.BOARDSIZE * 2 + 2), numEmpty);
-			anInstance.setValue(InstanceCreation.WEKAattributes.get(Board.BOARDSIZE * 2 + 3), numBlank);
+			//Set the next 3 features as the current number of filled, empty, and blank tiles in the column
+			values[size * 2 + 1] = board.countInCol(board.colIndex, 1);
+			values[size * 2 + 2] = board.countInCol(board.colIndex, -1);
+			values[size * 2 + 3] = board.countInCol(board.colIndex, 0);
 		}
 		
 		else//(RowOrColumn.lookingAtRows)
 		{
-			//Update the thermometer data with the newest tile values, just in case it hasn't already been done
-			board.updateThermData();
-			
 			//Set the fill for each tile to whatever the fill currently is for that file.
 			for(int i = 0; i < board.grid.size(); i++)
-					anInstance.setValue(InstanceCreation.WEKAattributes.get(0+i), board.grid.get(board.rowIndex).get(i)+"");
+					values[0+i] = board.grid.get(board.rowIndex, i) + 1;
 			
 			//For each thermometer in the row
 			for(int j = 0; j < board.rowTherms.get(board.rowIndex).size(); j++)
@@ -142,113 +142,98 @@ public class MakeLearningInstances
 				//For each piece of the thermometer
 				for(int k = 0; k < board.rowTherms.get(board.rowIndex).get(j).size(); k++)
 				{
-					//Get the string code for that piece. Details on the string codes can be found in BoardFileIO.java
-					int location = board.rowTherms.get(board.rowIndex).get(j).get(k).getYPos();
-					String code = board.stringGrid[board.rowTherms.get(board.rowIndex).get(j).get(k).getXPos()][board.rowTherms.get(board.rowIndex).get(j).get(k).getYPos()];
-					
-
-					//The last letter in each 3 letter code is the "true fill" of the tile (the fill it will have when the board is solved)
-					//   This is information the learner should not have, so we remove it.
-					code = code.substring(0,code.length() - 1);
-					anInstance.setValue(InstanceCreation.WEKAattributes.get(Board.BOARDSIZE + location), code);
+					//Get the feature value for that piece. Details on the codes can be found in BoardFileIO.java and PieceCodes.java
+					//The "true fill" of the tile (the fill it will have when the board is solved) is information the learner should not have,
+					//   so it is left off.
+					ThermometerPiece piece = board.rowTherms.get(board.rowIndex).get(j).get(k);
+					int location = piece.getYPos();
+					String code = PieceCodes.lineFeature(board.getPiece(piece.getXPos(), piece.getYPos()), false);
+					values[size + location] = pieceAttribute.indexOfValue(code);
 				}	
 			}
 			
-			//Set the next feature as the number of filled tiles the column should have when the board is solved
-			anInstance.setValue(InstanceCreation.WEKAattributes.get(Board.BOARDSIZE * 2), board.rowCounts.get(board.rowIndex));
-			
-			//Set the next 3 features as the current number of filled, blank, and empty tiles in the row
-			int numBlank = 0;
-			int numFilled = 0;
-			int numEmpty = 0;
-			for(int i = 0; i < board.grid.size(); i++)
-			{
-				if(board.grid.get(board.rowIndex).get(i) == 1)
-					numFilled++;
-				else if(board.grid.get(board.rowIndex).get(i)== 0)
-					numBlank++;
-				else
-					numEmpty++;
-			}	
+			//Set the next feature as the number of filled tiles the row should have when the board is solved
+			values[size * 2] = board.rowCounts.get(board.rowIndex);
 			
-			anInstance.setValue(InstanceCreation.WEKAattributes.get(Board.BOARDSIZE * 2 + 1), numFilled);
-			anInstance.setValue(InstanceCreation.WEKAattributes.get(Board.BOARDSIZE * 2 + 2), numEmpty);
-			anInstance.setValue(InstanceCreation.WEKAattributes.get(Board.BOARDSIZE * 2 + 3), numBlank);
+			//Set the next 3 features as the current number of filled, empty, and blank tiles in the row
+			values[size * 2 + 1] = board.countInRow(board.rowIndex, 1);
+			values[size * 2 + 2] = board.countInRow(board.rowIndex, -1);
+			values[size * 2 + 3] = board.countInRow(board.rowIndex, 0);
 		}
-		return anInstance;	
 	}
 	
 	
-	/** Creates a learning instance for simple thermometers boards.  
+	/** Works out the features of a complex thermometers board.  
  	*  There are 6 rules used to play the game, and the features correspond to which of those rules apply where.  
 	*  For more information, please refer to RuleBasedBoardFacts.java
 	*  
-	*  @param board The board from which to create the instance
+	*  @param board The board from which to work out the features
+	*  @param schema The features for the board's size
+	*  @param values The array to fill in
 	*   */
-	private static Instance createInstanceComplexTherms(ComplexThermsBoard board)
+	private static void getComplexThermsValues(ComplexThermsBoard board, FeatureSchema schema, double[] values)
 	{
-		//Initialize instance
-		Instance anInstance = new DenseInstance(InstanceCreation.numWEKAattributes);
+		int size = schema.getBoardSize();
+		
+		//Indices of the nominal values used below
+		double notBlank = schema.getAttribute(0).indexOfValue("NotBlank");
+		double blank = schema.getAttribute(0).indexOfValue("Blank");
+		double yes = schema.getAttribute(schema.wholeColumnRulesStartIndex).indexOfValue("yes");
+		double no = schema.getAttribute(schema.wholeColumnRulesStartIndex).indexOfValue("no");
+		double negOne = schema.getAttribute(schema.complicatedColRulesStartIndex).indexOfValue("-1");
 		
 		//Set default values for features
-		for(int i = 0; i < Board.BOARDSIZE * Board.BOARDSIZE; i++)
-			anInstance.setValue(InstanceCreation.WEKAattributes.get(i), "NotBlank");
-		for(int i = wholeColumnRulesStartIndex; i < wholeColumnRulesStartIndex + Board.BOARDSIZE * 2; i++)
-			anInstance.setValue(InstanceCreation.WEKAattributes.get(i), "no");
-		for(int i = complicatedColRulesStartIndex; i < complicatedColRulesStartIndex + Board.BOARDSIZE * Board.BOARDSIZE * 2; i++)
-			anInstance.setValue(InstanceCreation.WEKAattributes.get(i), "-1");
-		for(int i = remainingColRulesIndex; i < remainingColRulesIndex + Board.BOARDSIZE * Board.BOARDSIZE * 2; i++)
-			anInstance.setValue(InstanceCreation.WEKAattributes.get(i), "no");
-		for(int i = startingRowIndex; i < startingRowIndex + Board.BOARDSIZE * 2; i++)
-			anInstance.setValue(InstanceCreation.WEKAattributes.get(i), "no");
-		for(int i = complicatedRowRulesStartIndex; i < complicatedRowRulesStartIndex + Board.BOARDSIZE * Board.BOARDSIZE * 2; i++)
-			anInstance.setValue(InstanceCreation.WEKAattributes.get(i), "-1");
-		for(int i = remainingRowRulesIndex; i < remainingRowRulesIndex + Board.BOARDSIZE * Board.BOARDSIZE * 2; i++)
-			anInstance.setValue(InstanceCreation.WEKAattributes.get(i), "no");
+		Arrays.fill(values, 0, size * size, notBlank);
+		Arrays.fill(values, schema.wholeColumnRulesStartIndex, schema.wholeColumnRulesStartIndex + size * 2, no);
+		Arrays.fill(values, schema.complicatedColRulesStartIndex, schema.complicatedColRulesStartIndex + size * size * 2, negOne);
+		Arrays.fill(values, schema.remainingColRulesIndex, schema.remainingColRulesIndex + size * size * 2, no);
+		Arrays.fill(values, schema.startingRowIndex, schema.startingRowIndex + size * 2, no);
+		Arrays.fill(values, schema.complicatedRowRulesStartIndex, schema.complicatedRowRulesStartIndex + size * size * 2, negOne);
+		Arrays.fill(values, schema.remainingRowRulesIndex, schema.remainingRowRulesIndex + size * size * 2, no);
 			
 
 		//grid binary features (blanks only!)
 		for(int i = 0; i < board.grid.size(); i++)
-			for(int j = 0; j < board.grid.get(0).size(); j++)
-				if(board.grid.get(i).get(j) == 0)
-					anInstance.setValue(InstanceCreation.WEKAattributes.get(j* Board.BOARDSIZE+i), "Blank");
+			for(int j = 0; j < board.grid.size(); j++)
+				if(board.grid.get(i,j) == 0)
+					values[j* size+i] = blank;
 
 		//Rule 1
-		ArrayList<Pair<Character, Integer>> ruleFacts = RuleBasedBoardFacts.restFilledRuleFacts(board.grid, board.rowCounts, board.colCounts);
+		ArrayList<Pair<Character, Integer>> ruleFacts = RuleBasedBoardFacts.restFilledRuleFacts(board, board.rowCounts, board.colCounts);
 
 		for(int i = 0; i < ruleFacts.size(); i++)
 		{		
 			if(ruleFacts.get(i).getKey() == 'c')
 			{
-				anInstance.setValue(InstanceCreation.WEKAattributes.get(wholeColumnRulesStartIndex +  ruleFacts.get(i).getValue()), "yes");
+				values[schema.wholeColumnRulesStartIndex +  ruleFacts.get(i).getValue()] = yes;
 			}
 			
 			else if(ruleFacts.get(i).getKey() == 'r')
 			{
-				anInstance.setValue(InstanceCreation.WEKAattributes.get(startingRowIndex + ruleFacts.get(i).getValue()), "yes");
+				values[schema.startingRowIndex + ruleFacts.get(i).getValue()] = yes;
 			}
 		}
 		
 		
 		//Rule 2
-		ruleFacts = RuleBasedBoardFacts.restEmptyRuleFacts(board.grid, board.rowCounts, board.colCounts);
+		ruleFacts = RuleBasedBoardFacts.restEmptyRuleFacts(board, board.rowCounts, board.colCounts);
 		
 		for(int i = 0; i < ruleFacts.size(); i++)
 		{
 			if(ruleFacts.get(i).getKey() == 'c')
 			{
-				anInstance.setValue(InstanceCreation.WEKAattributes.get(wholeColumnRulesStartIndex + Board.BOARDSIZE + ruleFacts.get(i).getValue()), "yes");
+				values[schema.wholeColumnRulesStartIndex + size + ruleFacts.get(i).getValue()] = yes;
 			}
 			 
 			else if(ruleFacts.get(i).getKey() == 'r')
 			{
-				anInstance.setValue(InstanceCreation.WEKAattributes.get(startingRowIndex + Board.BOARDSIZE + ruleFacts.get(i).getValue()), "yes");
+				values[schema.startingRowIndex + size + ruleFacts.get(i).getValue()] = yes;
 			}
 		
 		}
 		
 		//Rule 3
-		ArrayList<Triple> ruleTriples = RuleBasedBoardFacts.restThermEmptyRuleFacts(board.grid, board.rowCounts, board.colCounts, board.rowTherms, board.colTherms);
+		ArrayList<Triple> ruleTriples = RuleBasedBoardFacts.restThermEmptyRuleFacts(board, board.rowCounts, board.colCounts, board.rowTherms, board.colTherms);
 		
 		for(int i = 0; i < ruleTriples.size(); i++)
 		{
@@ -256,61 +241,60 @@ public class MakeLearningInstances
 			if(ruleTriples.get(i).getFirst() == 'c')
 			{
 				
-				anInstance.setValue(InstanceCreation.WEKAattributes.get(remainingColRulesIndex + Board.BOARDSIZE * Board.BOARDSIZE + ruleTriples.get(i).getSecond() * Board.BOARDSIZE + ruleTriples.get(i).getThird()), "yes");
+				values[schema.remainingColRulesIndex + size * size + ruleTriples.get(i).getSecond() * size + ruleTriples.get(i).getThird()] = yes;
 			}
 			else if(ruleTriples.get(i).getFirst() == 'r')
 			{	
-				anInstance.setValue(InstanceCreation.WEKAattributes.get(remainingRowRulesIndex + Board.BOARDSIZE * Board.BOARDSIZE + ruleTriples.get(i).getSecond() * Board.BOARDSIZE + ruleTriples.get(i).getThird()), "yes");
+				values[schema.remainingRowRulesIndex + size * size + ruleTriples.get(i).getSecond() * size + ruleTriples.get(i).getThird()] = yes;
 			}
 		
 		}
 		
 		//Rule 4
-		ruleTriples = RuleBasedBoardFacts.restThermFilledRuleFacts(board.grid, board.rowCounts, board.colCounts, board.rowTherms, board.colTherms);
+		ruleTriples = RuleBasedBoardFacts.restThermFilledRuleFacts(board, board.rowCounts, board.colCounts, board.rowTherms, board.colTherms);
 		
 		for(int i = 0; i < ruleTriples.size(); i++)
 		{
 			if(ruleTriples.get(i).getFirst() == 'c')
 			{
-				anInstance.setValue(InstanceCreation.WEKAattributes.get(remainingColRulesIndex + ruleTriples.get(i).getSecond() * Board.BOARDSIZE + ruleTriples.get(i).getThird()), "yes");
+				values[schema.remainingColRulesIndex + ruleTriples.get(i).getSecond() * size + ruleTriples.get(i).getThird()] = yes;
 			}
 			else if(ruleTriples.get(i).getFirst() == 'r')
 			{
-				anInstance.setValue(InstanceCreation.WEKAattributes.get(remainingRowRulesIndex + ruleTriples.get(i).getSecond() * Board.BOARDSIZE + ruleTriples.get(i).getThird()), "yes");
+				values[schema.remainingRowRulesIndex + ruleTriples.get(i).getSecond() * size + ruleTriples.get(i).getThird()] = yes;
 			}
 		}
 		
 		//Rule 5
-		ArrayList<Quadruple> ruleQuads = RuleBasedBoardFacts.thermTooBigRuleFacts(board.grid, board.rowCounts, board.colCounts, board.rowTherms, board.colTherms);
+		//The number of tiles is stored as the value itself (as WEKA does when it is given a number rather than a string)
+		ArrayList<Quadruple> ruleQuads = RuleBasedBoardFacts.thermTooBigRuleFacts(board, board.rowCounts, board.colCounts, board.rowTherms, board.colTherms);
 		
 		for(int i = 0; i < ruleQuads.size(); i++)
 		{
 			if(ruleQuads.get(i).getFirst() == 'c')
 			{
-				anInstance.setValue(InstanceCreation.WEKAattributes.get(complicatedColRulesStartIndex + ruleQuads.get(i).getSecond() * Board.BOARDSIZE + ruleQuads.get(i).getThird()),ruleQuads.get(i).getFourth() );
+				values[schema.complicatedColRulesStartIndex + ruleQuads.get(i).getSecond() * size + ruleQuads.get(i).getThird()] = ruleQuads.get(i).getFourth();
 			}
 			else if(ruleQuads.get(i).getFirst() == 'r')
 			{			
-				anInstance.setValue(InstanceCreation.WEKAattributes.get(complicatedRowRulesStartIndex + ruleQuads.get(i).getSecond() * Board.BOARDSIZE + ruleQuads.get(i).getThird()),ruleQuads.get(i).getFourth() );
+				values[schema.complicatedRowRulesStartIndex + ruleQuads.get(i).getSecond() * size + ruleQuads.get(i).getThird()] = ruleQuads.get(i).getFourth();
 			}
 		}
 		
 		//Rule 6
-		ruleQuads = RuleBasedBoardFacts.partiallyFillThermRuleFacts(board.grid, board.rowCounts, board.colCounts, board.rowTherms, board.colTherms);
+		ruleQuads = RuleBasedBoardFacts.partiallyFillThermRuleFacts(board, board.rowCounts, board.colCounts, board.rowTherms, board.colTherms);
 		
 		for(int i = 0; i < ruleQuads.size(); i++)
 		{
 			if(ruleQuads.get(i).getFirst() == 'c')
 			{
-				anInstance.setValue(InstanceCreation.WEKAattributes.get(complicatedColRulesStartIndex + Board.BOARDSIZE * Board.BOARDSIZE + ruleQuads.get(i).getSecond() * Board.BOARDSIZE + ruleQuads.get(i).getThird()),ruleQuads.get(i).getFourth());
+				values[schema.complicatedColRulesStartIndex + size * size + ruleQuads.get(i).getSecond() * size + ruleQuads.get(i).getThird()] = ruleQuads.get(i).getFourth();
 			}
 			else if(ruleQuads.get(i).getFirst() == 'r')
 			{
 				
-				anInstance.setValue(InstanceCreation.WEKAattributes.get(complicatedRowRulesStartIndex + Board.BOARDSIZE * Board.BOARDSIZE + ruleQuads.get(i).getSecond() * Board.BOARDSIZE + ruleQuads.get(i).getThird()),ruleQuads.get(i).getFourth());
+				values[schema.complicatedRowRulesStartIndex + size * size + ruleQuads.get(i).getSecond() * size + ruleQuads.get(i).getThird()] = ruleQuads.get(i).getFourth();
 			}
 		}
-		
-		return anInstance;
 	}
-}
\ No newline at end of file
+}
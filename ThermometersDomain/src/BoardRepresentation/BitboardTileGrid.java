@@ -0,0 +1,160 @@
+package BoardRepresentation;
+
+/** Tile storage for a board packed into two 64 bit masks: one with a bit set for every filled tile
+ *    and one with a bit set for every empty tile.  A tile with neither bit set is unknown.
+ *    The tile at (row, col) lives at bit row * size + col, so this only works for boards
+ *    with at most 64 tiles (8x8 or smaller), which covers both the 3x3 and 5x5 boards provided.
+ *
+ *    Counting the tiles in a row or column is then a mask and a bitCount instead of a loop,
+ *    and comparing two grids is comparing two pairs of longs.
+ *
+ * @author Skularach
+ *
+ */
+public class BitboardTileGrid extends TileGrid
+{
+	//Row and column masks for every board size that fits, precomputed once.
+	//  ROWMASKS[size][i] has a bit set for every tile in row i of a size x size board.
+	private static final long[][] ROWMASKS = new long[9][];
+	private static final long[][] COLMASKS = new long[9][];
+	static
+	{
+		for(int size = 1; size < ROWMASKS.length; size++)
+		{
+			ROWMASKS[size] = new long[size];
+			COLMASKS[size] = new long[size];
+			for(int i = 0; i < size; i++)
+				for(int j = 0; j < size; j++)
+				{
+					ROWMASKS[size][i] |= 1L << (i * size + j);
+					COLMASKS[size][j] |= 1L << (i * size + j);
+				}
+		}
+	}
+
+	private final int size;
+	private final long[] rowMasks;
+	private final long[] colMasks;
+
+	//One bit per tile: set in filled if the tile is filled, set in empty if the tile is empty
+	private long filled = 0;
+	private long empty = 0;
+
+	/** Constructor.  Creates a size x size grid with every tile set to unknown (0)
+	 *
+	 * @param size The width/height of the grid.  Must satisfy fits(size).
+	 */
+	public BitboardTileGrid(int size)
+	{
+		if(!fits(size))
+			throw new IllegalArgumentException("A " + size + "x" + size + " board does not fit in a bitboard");
+		this.size = size;
+		rowMasks = ROWMASKS[size];
+		colMasks = COLMASKS[size];
+	}
+
+	/** Check whether a board of the given size can be stored as a bitboard
+	 *
+	 * @param size The width/height of the board
+	 * @return True if all of the tiles fit in a single long
+	 */
+	public static boolean fits(int size)
+	{
+		return size > 0 && size < ROWMASKS.length;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int get(int row, int col) {
+		long bit = 1L << (row * size + col);
+		if((filled & bit) != 0)
+			return 1;
+		if((empty & bit) != 0)
+			return -1;
+		return 0;
+	}
+
+	@Override
+	void set(int row, int col, int value) {
+		long bit = 1L << (row * size + col);
+		filled &= ~bit;
+		empty &= ~bit;
+		if(value == 1)
+			filled |= bit;
+		else if(value == -1)
+			empty |= bit;
+	}
+
+	@Override
+	public int countInRow(int row, int value) {
+		return countInMask(rowMasks[row], value);
+	}
+
+	@Override
+	public int countInCol(int col, int value) {
+		return countInMask(colMasks[col], value);
+	}
+
+	/** Count the tiles under a mask that have the given fill
+	 *
+	 * @param mask The tiles to look at
+	 * @param value The fill to count (1, -1 or 0)
+	 * @return The number of tiles under the mask with that fill
+	 */
+	private int countInMask(long mask, int value)
+	{
+		if(value == 1)
+			return Long.bitCount(filled & mask);
+		if(value == -1)
+			return Long.bitCount(empty & mask);
+		return Long.bitCount(mask & ~(filled | empty));
+	}
+
+	@Override
+	public boolean sameTiles(TileGrid other) {
+		if(other instanceof BitboardTileGrid)
+		{
+			BitboardTileGrid otherBits = (BitboardTileGrid) other;
+			return filled == otherBits.filled && empty == otherBits.empty;
+		}
+		return super.sameTiles(other);
+	}
+
+	/** Getter for the mask of filled tiles
+	 *
+	 * @return A mask with bit (row * size + col) set for every filled tile
+	 */
+	public long getFilledMask() {
+		return filled;
+	}
+
+	/** Getter for the mask of empty tiles
+	 *
+	 * @return A mask with bit (row * size + col) set for every empty tile
+	 */
+	public long getEmptyMask() {
+		return empty;
+	}
+
+	/** Getter for the mask covering a whole row
+	 *
+	 * @param row The row
+	 * @return A mask with a bit set for every tile in the row
+	 */
+	public long getRowMask(int row) {
+		return rowMasks[row];
+	}
+
+	/** Getter for the mask covering a whole column
+	 *
+	 * @param col The column
+	 * @return A mask with a bit set for every tile in the column
+	 */
+	public long getColMask(int col) {
+		return colMasks[col];
+	}
+}
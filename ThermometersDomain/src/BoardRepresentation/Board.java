@@ -1,10 +1,11 @@
 package BoardRepresentation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**  This is the main class used to represent a Thermometers board.
  *   It stores the current state of each tile, the "correct" grid that has all of the correct fills (which is never placed into the learning instances),
- *   the location and fill of all the thermometers, and some constants
+ *   the location of all the thermometers, and some constants
  * 
  * @author Brandon Packard
  *
@@ -13,28 +14,77 @@ public abstract class Board
 {
 	//Constant values: All boards used in my own work were 5x5.
 	// 168,000 5x5 boards and 624 3x3 boards are provided (3x3 boards are much more limited in the possible configurations).
+	// Each board knows its own size (getSize()); DEFAULTBOARDSIZE is only which corpus to use when none is asked for.
 	// MaxTrainingMoves and MaxValidationMoves are used to advance learning/validation along when the learner is stuck,
 	//    via explicitly limiting how many moves are allowed to be made on each board before it has to stop being solved.
-	public static int BOARDSIZE = 5;
+	public final static int DEFAULTBOARDSIZE = 5;
 	public final static int MaxTrainingMoves = 100;
 	public final static int MaxValidationMoves = 100;
 	
+	//Whether new boards store their tiles as bitmasks (see BitboardTileGrid and LineMaskTileGrid) when they are small enough to fit.
+	//  Boards that are too big, or all boards when this is false, fall back to lists (see ListTileGrid).
+	public static boolean useBitboardTiles = true;
+	
+	//The parts of the board that come from the puzzle file and never change.  Shared between every board made
+	//  from the same puzzle, so none of it (or any of the fields below that are taken from it) should be modified.
+	public BoardLayout layout;
+	
 	//Row and column constraints for the grid
-	public ArrayList<Integer> rowCounts = new ArrayList<Integer>();
-	public ArrayList<Integer> colCounts = new ArrayList<Integer>();;
+	public ArrayList<Integer> rowCounts;
+	public ArrayList<Integer> colCounts;
+	
+	//Current values of the tiles on the board.  Read from it freely; outside of this package the grid
+	//  can't be written, so every tile change goes through setTile.
+	//  This is the only part of the board that belongs to this board alone.
+	public final TileGrid grid;
+	
+	//Running counts of filled and empty tiles in each row and column, and of tiles that don't match the solution.
+	//  Kept up to date by setTile so nothing has to rescan a line to count it.
+	private int[] rowFilled;
+	private int[] rowEmpty;
+	private int[] colFilled;
+	private int[] colEmpty;
+	private int numMismatched;
+	
+	//Which rows and columns have changed, so anything worked out from a line only needs redoing when it changes
+	//  (see getLineVersion and LineChangeTracker).  numChanges counts every tile change ever made to the board.
+	private long[] lineVersions;
+	private long numChanges = 0;
 	
-	//Current values of the tiles on the board
-	public ArrayList<ArrayList<Integer>> grid;
+	//Zobrist hash of the tile fills (see ZobristKeys), kept up to date by setTile
+	private long[] zobristKeys;
+	private long tileHash;
 	
-	//String representation of the thermometers on the grid (this is what is read in from the file)
-	public String[][] stringGrid;
+	//Hash of the fills of each row and column (rows first), kept up to date by setTile (see getLineHash)
+	private long[] lineHashes;
 	
-	//Thermometers data for each row and column
-	public ArrayList<ArrayList<ArrayList<ThermometerPiece>>> rowTherms = new ArrayList<ArrayList<ArrayList<ThermometerPiece>>>();
-	public ArrayList<ArrayList<ArrayList<ThermometerPiece>>> colTherms = new ArrayList<ArrayList<ArrayList<ThermometerPiece>>>();
+	//Undo journal: every tile change (and cursor change, for Simple boards) made since the journal was enabled or
+	//  last cleared, with a marker at the start of each move.  Null until enableJournal (or snapshot) is called, so
+	//  boards that never undo anything don't record anything.  Each entry is packed into one int,
+	//  with the kind of entry in the lowest 2 bits:
+	//    JOURNAL_TILE: (tile index << 4) | ((old fill + 1) << 2), where tile index is row * size + col
+	//    JOURNAL_CURSOR: see SimpleThermsBoard.setCursor
+	//    JOURNAL_MOVE: nothing else
+	protected static final int JOURNAL_TILE = 0;
+	protected static final int JOURNAL_CURSOR = 1;
+	protected static final int JOURNAL_MOVE = 2;
+	private int[] journal = null;
+	private int journalLength = 0;
+	
+	//Keeps the reward up to date as tiles change.  Only created once something asks for it.
+	private RewardTracker rewardTracker = null;
+	
+	//Code byte for every piece on the grid (see PieceCodes.java).  Use getStringGrid() for the string codes, for printing.
+	public byte[][] pieceGrid;
+	
+	//Layout of the thermometers on the board, and the thermometers for each row and column taken from it.
+	//  These never change; the fill of each piece comes from getTile(piece).
+	public ThermometerTopology thermTopology;
+	public ArrayList<ArrayList<ArrayList<ThermometerPiece>>> rowTherms;
+	public ArrayList<ArrayList<ArrayList<ThermometerPiece>>> colTherms;
 	
 	//Correct values for all tiles on the board -- Only used for verification, never for learning.
-	public ArrayList<ArrayList<Integer>> solutionGrid;
+	public final TileGrid solutionGrid;
 	
 	/** Constructor.  Takes in a new board represented as a 2D array of strings and creates 
 	 * a usable board instance corresponding to those strings.
@@ -43,201 +93,345 @@ public abstract class Board
 	 */
 	public Board(String[][] stringGridIn)
 	{
-		//Store parameter in data member
-		stringGrid = stringGridIn;
-		
-		//Initialize all grid squares to 0 for unknown,
-		//   Set all solutionGrid squares to the correct fills for those tiles in a solved board
-		grid = new ArrayList<ArrayList<Integer>>();
-		solutionGrid = new ArrayList<ArrayList<Integer>>();
-		for(int i = 0; i < stringGrid.length; i++)
-		{
-			grid.add(new ArrayList<Integer>());
-			solutionGrid.add(new ArrayList<Integer>());
-			for(int j = 0; j < stringGrid[0].length; j++)
-			{
-				if(stringGrid[i][j].endsWith("E"))
-					solutionGrid.get(i).add(-1);
-				else
-					solutionGrid.get(i).add(1);
-				
-				grid.get(i).add(0);
-			}
-		}
-		
-		//Get the how-many-tiles-must-be-filled constraints for each row
-		rowCounts.clear();
-		for(int i = 0; i < stringGrid.length; i++)
-		{
-			int count = 0;
-			for(int j = 0; j < stringGrid[0].length; j++)
-			{
-				//The last character in the string for a tile determines the "correct" fill -- F stands for filled
-				if(stringGrid[i][j].endsWith("F"))
-					count++;
-			}
-			rowCounts.add(count);
-		}
+		this(new BoardLayout(stringGridIn));
+	}
+	
+	/** Constructor.  Creates a blank board for a puzzle whose layout has already been worked out.
+	 *    The layout is shared, not copied, so many boards can be made from the same one cheaply.
+	 * 
+	 * @param layoutIn  The layout of the puzzle, most likely from BoardFileIO.loadLayoutByNumber
+	 */
+	public Board(BoardLayout layoutIn)
+	{
+		//Everything that never changes comes straight from the shared layout
+		layout = layoutIn;
+		pieceGrid = layout.getPieceGrid();
+		solutionGrid = layout.getSolutionGrid();
+		rowCounts = layout.getRowCounts();
+		colCounts = layout.getColCounts();
+		thermTopology = layout.getThermTopology();
+		rowTherms = thermTopology.getRowTherms();
+		colTherms = thermTopology.getColTherms();
 		
-		//Get the how-many-tiles-must-be-filled constraints for each column
-		colCounts.clear();
-		for(int i = 0; i < stringGrid[0].length; i++)
-		{
-			int count = 0;
-			for(int j = 0; j < stringGrid.length; j++)
-			{
-				//The last character in the string for a tile determines the "correct" fill -- F stands for filled
-				if(stringGrid[j][i].endsWith("F"))
-					count++;
-			}
-			colCounts.add(count);
-		}
+		//Initialize all grid squares to 0 for unknown.  No tile is filled or empty yet,
+		//  and every tile is wrong since no solved tile is ever unknown.
+		int size = layout.getSize();
+		grid = TileGrid.create(size);
+		rowFilled = new int[size];
+		rowEmpty = new int[size];
+		colFilled = new int[size];
+		colEmpty = new int[size];
+		numMismatched = size * size;
+		lineVersions = new long[2 * size];
 		
+		//A blank board hashes to 0
+		zobristKeys = ZobristKeys.forSize(size);
+		tileHash = 0;
+		lineHashes = new long[2 * size];
+	}
+	
+	
+	/** Getter for the width/height of this board (boards are always square)
+	 * 
+	 * @return The number of rows (and columns) on the board
+	 */
+	public int getSize() {
+		return layout.getSize();
+	}
+
+	/** Getter for the code byte of a piece on the board
+	 *
+	 * @param row The row of the piece
+	 * @param col The column of the piece
+	 * @return The code byte (see PieceCodes.java)
+	 */
+	public byte getPiece(int row, int col) {
+		return pieceGrid[row][col];
+	}
+
+	/** Getter for the string codes of the board (see BoardFileIO.java).  Only meant for printing;
+	 *    use getPiece or pieceGrid for anything else.
+	 *
+	 * @return The 2D array of string codes.  Do not modify.
+	 */
+	public String[][] getStringGrid() {
+		return layout.getStringGrid();
+	}
 
-		//Create the initial version of the thermometer data for the grid. Note that this
-		//   must be called every time a tile is updated from here on out.
-		updateThermData();
+	/** Get the current fill of a tile on the board
+	 * 
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 * @return 1 for filled, -1 for empty, 0 for unknown
+	 */
+	public int getTile(int row, int col) {
+		return grid.get(row, col);
 	}
 	
+	/** Get the current fill of the tile under a piece of a thermometer
+	 * 
+	 * @param piece The thermometer piece (or any other piece of the board)
+	 * @return 1 for filled, -1 for empty, 0 for unknown
+	 */
+	public int getTile(BoardPiece piece) {
+		return grid.get(piece.getXPos(), piece.getYPos());
+	}
 	
-	/** This function updates the information for the thermometers on the board based on the fill
-	 *   of the tiles in the grid.  It is VITAL that this function is called every time a tile's fill
-	 *   is updated, to keep the Thermometer information in sync with the newest tile fills.
+	/** Set the fill of a tile on the board.  Every change to a tile should go through here.
+	 * 
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 * @param value 1 for filled, -1 for empty, 0 for unknown
 	 */
-	public void updateThermData()
-	{
-		//Clear all thermometer information
-		rowTherms.clear();
-		colTherms.clear();
+	public void setTile(int row, int col, int value) {
+		int oldValue = grid.get(row, col);
+		if(oldValue == value)
+			return;
 		
-		//For each row...
-		for(int i = 0; i < stringGrid.length; i++)
+		//Remember the old fill so the change can be undone
+		recordInJournal((((row * grid.size()) + col) << 4) | ((oldValue + 1) << 2) | JOURNAL_TILE);
+		changeTile(row, col, oldValue, value);
+	}
+	
+	/** Changes a tile and updates everything that is kept up to date from the tiles.  Does not touch the journal.
+	 * 
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 * @param oldValue The fill the tile has now
+	 * @param value The fill to change it to
+	 */
+	private void changeTile(int row, int col, int oldValue, int value) {
+		grid.set(row, col, value);
+		
+		//Take the old fill out of the counts and put the new one in
+		if(oldValue == 1)
 		{
-			//... Make a list of thermometers in that row from left to right.
-			rowTherms.add(new ArrayList<ArrayList<ThermometerPiece>>());
-			
-			//When we see a code starting in BR, we know we have spotted a left-to-right row thermometer,
-			//  so add all of the information for the thermometer to the list.  For more information on 
-			//  string codes, please refer to BoardFileIO.java
-			boolean makingTherm = false;
-			for(int j = 0; j < stringGrid[0].length; j++)
-			{
-				if(stringGrid[i][j].startsWith("BR"))
-				{
-					rowTherms.get(i).add(new ArrayList<ThermometerPiece>());
-					rowTherms.get(i).get(rowTherms.get(i).size()-1).add(new ThermometerPiece(i,j,grid.get(i).get(j)));
-					makingTherm = true;
-				}
-				
-				else if(makingTherm && stringGrid[i][j].startsWith("TH"))
-				{
-					rowTherms.get(i).get(rowTherms.get(i).size()-1).add(new ThermometerPiece(i,j,grid.get(i).get(j)));
-				}
-				
-				else if(makingTherm &&stringGrid[i][j].startsWith("CL"))
-				{
-					rowTherms.get(i).get(rowTherms.get(i).size()-1).add(new ThermometerPiece(i,j,grid.get(i).get(j)));
-					makingTherm = false;
-				}	
-			}	
+			rowFilled[row]--;
+			colFilled[col]--;
 		}
-		
-		
-		
-		//For each row, make a list of right-to-left thermometers in that row.
-		for(int i = 0; i < stringGrid.length; i++)
+		else if(oldValue == -1)
 		{
-			//When we see a code starting in BL, we know we have spotted a right-to-left row thermometer,
-			//  so add all of the information for the thermometer to the list.  For more information on 
-			//  string codes, please refer to BoardFileIO.java
-			boolean makingTherm = false;
-			for(int j = stringGrid[0].length-1; j >= 0; j--)
-			{
-				if(stringGrid[i][j].startsWith("BL"))
-				{
-					rowTherms.get(i).add(new ArrayList<ThermometerPiece>());
-					rowTherms.get(i).get(rowTherms.get(i).size()-1).add(new ThermometerPiece(i,j,grid.get(i).get(j)));
-					makingTherm = true;
-				}
-				
-				else if(makingTherm && stringGrid[i][j].startsWith("TH"))
-				{
-					rowTherms.get(i).get(rowTherms.get(i).size()-1).add(new ThermometerPiece(i,j,grid.get(i).get(j)));
-				}
-				
-				else if(makingTherm &&stringGrid[i][j].startsWith("CR"))
-				{
-					rowTherms.get(i).get(rowTherms.get(i).size()-1).add(new ThermometerPiece(i,j,grid.get(i).get(j)));
-					makingTherm = false;
-				}	
-			}
+			rowEmpty[row]--;
+			colEmpty[col]--;
+		}
+		if(value == 1)
+		{
+			rowFilled[row]++;
+			colFilled[col]++;
+		}
+		else if(value == -1)
+		{
+			rowEmpty[row]++;
+			colEmpty[col]++;
 		}
 		
+		int size = grid.size();
+		numChanges++;
+		lineVersions[row] = numChanges;
+		lineVersions[size + col] = numChanges;
 		
+		tileHash ^= ZobristKeys.tileKey(zobristKeys, size, row, col, oldValue);
+		tileHash ^= ZobristKeys.tileKey(zobristKeys, size, row, col, value);
+		lineHashes[row] ^= ZobristKeys.linePositionKey(zobristKeys, size, col, oldValue) ^ ZobristKeys.linePositionKey(zobristKeys, size, col, value);
+		lineHashes[size + col] ^= ZobristKeys.linePositionKey(zobristKeys, size, row, oldValue) ^ ZobristKeys.linePositionKey(zobristKeys, size, row, value);
 		
+		int correctValue = solutionGrid.get(row, col);
+		if(oldValue == correctValue)
+			numMismatched++;
+		else if(value == correctValue)
+			numMismatched--;
 		
-		
-		
-		
-		//Same for columns: Once for top-to-bottom, once for bottom-to-top
-		for(int i = 0; i < stringGrid[0].length; i++)
+		if(rewardTracker != null)
+			rewardTracker.tileChanged(row, col);
+	}
+	
+	/** Start recording changes in the undo journal, so they can be undone with undoMoves or restore.  Nothing made
+	 *    before this can be undone.  Does nothing if the journal is already on.
+	 */
+	public void enableJournal() {
+		if(journal == null)
+			journal = new int[64];
+	}
+	
+	/** Getter for whether changes are being recorded in the undo journal
+	 * 
+	 * @return True once enableJournal (or snapshot) has been called
+	 */
+	public boolean isJournalEnabled() {
+		return journal != null;
+	}
+	
+	/** Marks the start of a move in the undo journal, so undoMoves knows where each move begins.
+	 *    Called by ApplyMovesToBoard.applyMove before it changes anything.  Does nothing if the journal is off.
+	 */
+	public void markMoveStart() {
+		recordInJournal(JOURNAL_MOVE);
+	}
+	
+	/** Take a snapshot of the current state of the board.  The snapshot is just a position in the undo journal,
+	 *    so it costs nothing, but it only stays valid until the board is restored to an earlier snapshot
+	 *    or the journal is cleared.  Turns the journal on if it isn't already.
+	 * 
+	 * @return A token to pass to restore
+	 */
+	public int snapshot() {
+		enableJournal();
+		return journalLength;
+	}
+	
+	/** Put the board back into the state it was in when a snapshot was taken, by undoing every change made since.
+	 *    Takes time proportional to the number of changes undone, and allocates nothing.
+	 * 
+	 * @param token The token returned by snapshot
+	 */
+	public void restore(int token) {
+		if(token < 0 || token > journalLength)
+			throw new IllegalArgumentException("Snapshot " + token + " is no longer valid for this board");
+		while(journalLength > token)
+			undoJournalEntry(journal[--journalLength]);
+	}
+	
+	/** Undo the last few moves made through ApplyMovesToBoard.applyMove.  Only moves made while the journal was on
+	 *    (see enableJournal) can be undone.
+	 * 
+	 * @param numMoves How many moves to undo
+	 * @return How many moves were actually undone (fewer if the journal runs out first, and 0 if it is off)
+	 */
+	public int undoMoves(int numMoves) {
+		int undone = 0;
+		while(undone < numMoves && journalLength > 0)
 		{
-			colTherms.add(new ArrayList<ArrayList<ThermometerPiece>>());
-
-			//When we see a code starting in BD, we know we have spotted a top-to-bottom column thermometer,
-			//  so add all of the information for the thermometer to the list.  For more information on 
-			//  string codes, please refer to BoardFileIO.java
-			boolean makingTherm = false;
-			for(int j = 0; j < stringGrid.length; j++)
-			{
-				if(stringGrid[j][i].startsWith("BD"))
-				{
-					colTherms.get(i).add(new ArrayList<ThermometerPiece>());
-					colTherms.get(i).get(colTherms.get(i).size()-1).add(new ThermometerPiece(j,i,grid.get(j).get(i)));
-					makingTherm = true;
-				}
-				
-				else if(makingTherm && stringGrid[j][i].startsWith("TV"))
-				{
-					colTherms.get(i).get(colTherms.get(i).size()-1).add(new ThermometerPiece(j,i,grid.get(j).get(i)));
-				}
-				
-				else if(makingTherm &&stringGrid[j][i].startsWith("CU"))
-				{
-					colTherms.get(i).get(colTherms.get(i).size()-1).add(new ThermometerPiece(j,i,grid.get(j).get(i)));
-					makingTherm = false;
-				}
-			}			
+			int entry = journal[--journalLength];
+			if((entry & 3) == JOURNAL_MOVE)
+				undone++;
+			else
+				undoJournalEntry(entry);
 		}
+		return undone;
+	}
+	
+	/** Forget everything in the undo journal.  Long-running code that never restores should call this now and then
+	 *    so the journal doesn't keep growing.  Any snapshots taken before this can no longer be restored.
+	 */
+	public void clearJournal() {
+		journalLength = 0;
+	}
+	
+	/** Add an entry to the end of the undo journal, growing it if needed.  Does nothing if the journal is off.
+	 * 
+	 * @param entry The packed journal entry
+	 */
+	protected void recordInJournal(int entry) {
+		if(journal == null)
+			return;
+		if(journalLength == journal.length)
+			journal = Arrays.copyOf(journal, journal.length * 2);
+		journal[journalLength++] = entry;
+	}
 	
-		//Columns bottom-to-top
-		for(int i = 0; i < stringGrid[0].length; i++)
+	/** Undo a single journal entry
+	 * 
+	 * @param entry The packed journal entry
+	 */
+	private void undoJournalEntry(int entry) {
+		int kind = entry & 3;
+		if(kind == JOURNAL_TILE)
 		{
-			//When we see a code starting in BU, we know we have spotted a bottom-to-top column thermometer,
-			//  so add all of the information for the thermometer to the list.  For more information on 
-			//  string codes, please refer to BoardFileIO.java
-			boolean makingTherm = false;
-			for(int j = stringGrid.length - 1; j >= 0; j--)
-			{
-				if(stringGrid[j][i].startsWith("BU"))
-				{
-					colTherms.get(i).add(new ArrayList<ThermometerPiece>());
-					colTherms.get(i).get(colTherms.get(i).size()-1).add(new ThermometerPiece(j,i,grid.get(j).get(i)));
-					makingTherm = true;
-				}
-				
-				else if(makingTherm && stringGrid[j][i].startsWith("TV"))
-				{
-					colTherms.get(i).get(colTherms.get(i).size()-1).add(new ThermometerPiece(j,i,grid.get(j).get(i)));
-				}
-				
-				else if(makingTherm &&stringGrid[j][i].startsWith("CD"))
-				{
-					colTherms.get(i).get(colTherms.get(i).size()-1).add(new ThermometerPiece(j,i,grid.get(j).get(i)));
-					makingTherm = false;
-				}
-			}	
+			int size = grid.size();
+			int tile = entry >>> 4;
+			int row = tile / size;
+			int col = tile % size;
+			changeTile(row, col, grid.get(row, col), ((entry >>> 2) & 3) - 1);
 		}
+		else if(kind == JOURNAL_CURSOR)
+			undoCursorChange(entry);
+	}
+	
+	/** Undo a cursor change recorded in the journal.  Only Simple boards have a cursor, so this does nothing here.
+	 * 
+	 * @param entry The packed journal entry
+	 */
+	protected void undoCursorChange(int entry) {
+	}
+	
+	/** Get the reward tracker for this board, creating it the first time.  From then on
+	 *    it is kept up to date with every change made through setTile.
+	 * 
+	 * @return The reward tracker attached to this board
+	 */
+	public RewardTracker getRewardTracker() {
+		if(rewardTracker == null)
+			rewardTracker = new RewardTracker(this);
+		return rewardTracker;
+	}
+	
+	/** Get how many tiles in a row currently have the given fill.  Constant time.
+	 * 
+	 * @param row The row to count in
+	 * @param value The fill to count (1 for filled, -1 for empty, 0 for unknown)
+	 * @return The number of tiles in the row with that fill
+	 */
+	public int countInRow(int row, int value) {
+		if(value == 1)
+			return rowFilled[row];
+		if(value == -1)
+			return rowEmpty[row];
+		return grid.size() - rowFilled[row] - rowEmpty[row];
+	}
+	
+	/** Get how many tiles in a column currently have the given fill.  Constant time.
+	 * 
+	 * @param col The column to count in
+	 * @param value The fill to count (1 for filled, -1 for empty, 0 for unknown)
+	 * @return The number of tiles in the column with that fill
+	 */
+	public int countInCol(int col, int value) {
+		if(value == 1)
+			return colFilled[col];
+		if(value == -1)
+			return colEmpty[col];
+		return grid.size() - colFilled[col] - colEmpty[col];
+	}
+	
+	/** Get the version of a row or column: a number that changes every time any tile in it changes (including
+	 *    changes undone through the journal), and stays the same otherwise.  Anything worked out from the tiles of a
+	 *    line and the thermometers along it can be kept until the line's version changes.  Constant time.
+	 * 
+	 * @param line The line: rows are lines 0 to size-1, and columns are lines size to 2*size-1
+	 * @return The version of the line.  0 means no tile in it has ever changed.
+	 */
+	public long getLineVersion(int line) {
+		return lineVersions[line];
+	}
+	
+	/** Get a 64 bit hash of the fills of a row or column.  Only the fills and where they are along the line count,
+	 *    so a row and a column (of this board or any other board of the same size) with the same fills in the same
+	 *    places have the same hash.  Constant time, since setTile keeps it up to date.
+	 * 
+	 * @param line The line: rows are lines 0 to size-1, and columns are lines size to 2*size-1
+	 * @return The hash of the line's fills.  A line with no known tiles hashes to 0.
+	 */
+	public long getLineHash(int line) {
+		return lineHashes[line];
+	}
+	
+	/** Get how many tiles on the board are currently unknown.  Takes time proportional to the width of the board.
+	 * 
+	 * @return The number of unknown tiles
+	 */
+	public int getNumBlank() {
+		int blanks = 0;
+		for(int i = 0; i < rowFilled.length; i++)
+			blanks += rowFilled.length - rowFilled[i] - rowEmpty[i];
+		return blanks;
+	}
+	
+	/** Get how many tiles on the board do not currently match the solution (unknown tiles included)
+	 * 
+	 * @return The number of tiles that are not yet correct
+	 */
+	public int getNumMismatched() {
+		return numMismatched;
 	}
 	
 	/** Check to see if the board has been successfully solved
@@ -245,21 +439,59 @@ public abstract class Board
 	 * @return True for a solved board, and false for one that is not fully solved.
 	 */
 	public boolean isSolved() {
-		//The grid and solution grid are always the same size, so just check that all of the corresponding
-		//  tiles match.
-		for(int i = 0; i < grid.size(); i++)
-			for(int j = 0; j < grid.size(); j++)
-				if(grid.get(i).get(j) != solutionGrid.get(i).get(j))
-				{
-					return false;
-				}
-		return true;
+		//setTile keeps track of how many tiles don't match the solution, so the board is solved when there are none.
+		return numMismatched == 0;
+	}
+	
+	/** Get a 64 bit hash of the current state of the board.  Two boards in the same state always have the
+	 *    same hash, and boards in different states almost never do.  Constant time, since setTile keeps it up to date.
+	 *    The hash only covers the state, not which puzzle the board is for; equals checks both.
+	 * 
+	 * @return The Zobrist hash of the board state
+	 */
+	public long getStateHash() {
+		return tileHash;
+	}
+	
+	/** Getter for the Zobrist keys for this board's size, for subclasses that hash in more state
+	 * 
+	 * @return The keys from ZobristKeys.forSize
+	 */
+	protected long[] getZobristKeys() {
+		return zobristKeys;
+	}
+	
+	/** Two boards are equal if they are the same kind of board, for the same puzzle, and in the same state.
+	 *    Boards change as moves are made, so a board used as a key in a map or set must not be changed afterwards.
+	 * 
+	 * @param other The object to compare to
+	 * @return True if other is a board of the same kind for the same puzzle in the same state
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if(this == other)
+			return true;
+		if(other == null || other.getClass() != getClass())
+			return false;
+		
+		//Check the hashes first, since they almost always differ for different states
+		Board otherBoard = (Board) other;
+		return getStateHash() == otherBoard.getStateHash()
+				&& layout.equals(otherBoard.layout)
+				&& grid.sameTiles(otherBoard.grid);
+	}
+	
+	@Override
+	public int hashCode() {
+		long hash = getStateHash();
+		return (int)(hash ^ (hash >>> 32));
 	}
 	
 	/**  This function simply prints the string representation of the Thermometers board structure.
 	 * Used exclusively for debugging/visualization.
 	 */
 	public void printStringGrid() {
+		String[][] stringGrid = getStringGrid();
 		for(int i = 0; i < stringGrid.length; i++)
 		{
 			for(int j = 0; j < stringGrid.length; j++)
@@ -273,6 +505,7 @@ public abstract class Board
 	 * Used exclusively for debugging/visualization.
 	 */
 	public void printStringGridWithConstraints() {
+		String[][] stringGrid = getStringGrid();
 		System.out.print("   ");
 		
 		for(int i = 0; i < stringGrid.length; i++)
@@ -295,10 +528,10 @@ public abstract class Board
 		for(int i = 0; i < grid.size(); i++)
 		{
 			for(int j = 0; j < grid.size(); j++)
-				if(grid.get(i).get(j) == -1)
-					System.out.print(grid.get(i).get(j) + ",");
+				if(grid.get(i,j) == -1)
+					System.out.print(grid.get(i,j) + ",");
 				else
-					System.out.print(" " + grid.get(i).get(j) + ",");
+					System.out.print(" " + grid.get(i,j) + ",");
 			System.out.println();
 		}
 	}
@@ -310,10 +543,10 @@ public abstract class Board
 		for(int i = 0; i < solutionGrid.size(); i++)
 		{
 			for(int j = 0; j < solutionGrid.size(); j++)
-				if(solutionGrid.get(i).get(j) == -1)
-					System.out.print(solutionGrid.get(i).get(j) + ",");
+				if(solutionGrid.get(i,j) == -1)
+					System.out.print(solutionGrid.get(i,j) + ",");
 				else
-					System.out.print(" " + solutionGrid.get(i).get(j) + ",");
+					System.out.print(" " + solutionGrid.get(i,j) + ",");
 			System.out.println();
 		}
 	}
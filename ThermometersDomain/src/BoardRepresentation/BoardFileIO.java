@@ -1,11 +1,15 @@
 package BoardRepresentation;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Random;
+import java.util.SplittableRandom;
 
 
 
@@ -39,8 +43,12 @@ import java.util.Random;
  *
  */
 public class BoardFileIO{
-	//Will hold a list of all board numbers (0-167999 but then randomly shuffled)
-	public static ArrayList<Integer> boardNums;
+	//Shuffled order of all board numbers (0-167999): boardNums.get(i) is the ith board in the shuffled order.
+	//  Worked out on demand rather than stored (see BoardPermutation.java).
+	//  This and the two levels below are for the default (5x5) boards; every size has its own (see getBoardNumbering).
+	//  They are set for the 168,000 boards included with the domain by getboardNumList, and changed to match the boards
+	//  actually on disk if there is a different number of them, the first time the default boards' numbering is needed.
+	public static BoardPermutation boardNums;
 	
 	//Random used to select boards
 	public static Random levelRand = new Random(12535);
@@ -53,18 +61,144 @@ public class BoardFileIO{
 	public static int maxTrainingLevel = 159999;
 	public static int startingValidationLevel = 160000;
 	
+	//One board in every VALIDATIONSHARE is saved for validation, which is the 8k out of 168k above
+	private static final int VALIDATIONSHARE = 21;
 	
-	/** This method loads in the board specified by boardNum from a file.
+	//Seed that the shuffled order of every board size is worked out from, drawn by getboardNumList
+	private static long numberingSeed;
+	private static boolean numberingSeeded = false;
+	
+	//The shuffled order and training/validation split for each board size, worked out the first time it is asked for
+	private static final Map<Integer, BoardNumbering> numberings = new HashMap<Integer, BoardNumbering>();
+	
+	/** The shuffled order of the boards of one size, and which places in it are for training and which for validation.
+	 *    Training boards are the first maxTrainingLevel places in the order and validation boards the places from
+	 *    startingValidationLevel on, just like the static fields above for the default boards.
+	 */
+	public static class BoardNumbering
+	{
+		//The width/height of the boards
+		public final int boardSize;
+		
+		//How many boards of this size there are
+		public final int numBoards;
+		
+		//Shuffled order of the board numbers
+		public final BoardPermutation order;
+		
+		//The maximum # allowed to use for training, and the first validation board
+		public final int maxTrainingLevel;
+		public final int startingValidationLevel;
+		
+		/** Constructor.  Sets aside the last one in every VALIDATIONSHARE places for validation.
+		 * 
+		 * @param boardSizeIn The width/height of the boards
+		 * @param numBoardsIn How many boards of this size there are
+		 * @param seed Seed for the shuffle
+		 */
+		BoardNumbering(int boardSizeIn, int numBoardsIn, long seed)
+		{
+			boardSize = boardSizeIn;
+			numBoards = numBoardsIn;
+			order = new BoardPermutation(numBoards, seed);
+			startingValidationLevel = numBoards - numBoards / VALIDATIONSHARE;
+			maxTrainingLevel = Math.max(1, startingValidationLevel - 1);
+		}
+		
+		/** Pick a random training board
+		 * 
+		 * @param rand The generator to draw from, or null for levelRand
+		 * @return The board number
+		 */
+		public int drawTrainingBoardNum(SplittableRandom rand)
+		{
+			int randIndex = rand == null ? levelRand.nextInt(maxTrainingLevel) : rand.nextInt(maxTrainingLevel);
+			return order.get(randIndex);
+		}
+	}
+	
+	//Layouts that have already been loaded, so that every board made from the same puzzle shares one layout.
+	//  Keyed by board size and board number.  Once it holds maxCachedLayouts layouts, the one used least 
+	//  recently is dropped to make room.
+	public static int maxCachedLayouts = 10000;
+	private static final Map<Long, BoardLayout> layoutCache = new LinkedHashMap<Long, BoardLayout>(16, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, BoardLayout> eldest)
+		{
+			return size() > maxCachedLayouts;
+		}
+	};
+	
+	//Whether to load puzzles from the packed binary corpus for their size (see PuzzleCorpus.java) when there is one.
+	//  If this is false, or there is no corpus file, or the puzzle isn't in it, the text files are read instead.
+	public static boolean useBinaryCorpus = true;
+	
+	//The corpus for each board size, opened the first time a puzzle of that size is loaded.  Sizes with no
+	//  usable corpus file are stored as null so we don't look for the file again.
+	private static final Map<Integer, PuzzleCorpus> corpora = new HashMap<Integer, PuzzleCorpus>();
+	
+	//Buffer each thread reads puzzle files into, kept between calls so reading a file doesn't allocate one
+	private static final ThreadLocal<byte[]> readBuffers = new ThreadLocal<byte[]>()
+	{
+		@Override
+		protected byte[] initialValue()
+		{
+			return new byte[4096];
+		}
+	};
+	
+	
+	/** This method loads in the board specified by boardNum from a file, out of the default (5x5) boards.
 	 * 
 	 * @param boardNum Which board to load.
 	 * @return The string representation of the board structure.
 	 */
 	public static String[][] loadInBoardbyNumber(int boardNum) 
+	{
+		return loadInBoardbyNumber(Board.DEFAULTBOARDSIZE, boardNum);
+	}
+	
+	/** This method loads in the board specified by boardNum from a file, out of the boards of the given size.
+	 * 
+	 * @param boardSize The width/height of the boards to load from (for example 5 for the 5x5 boards).
+	 * @param boardNum Which board to load.
+	 * @return The string representation of the board structure.
+	 */
+	public static String[][] loadInBoardbyNumber(int boardSize, int boardNum) 
+	{
+		PuzzleCorpus corpus = getCorpus(boardSize);
+		if(corpus != null && corpus.contains(boardNum))
+			return PieceCodes.decode(corpus.getPieceGrid(boardNum));
+		return loadTextBoardByNumber(boardSize, boardNum);
+	}
+	
+	/** This method loads in the board specified by boardNum from its text file, out of the boards of the given size.
+	 *    Unlike loadInBoardbyNumber, this never uses the binary corpus.
+	 * 
+	 * @param boardSize The width/height of the boards to load from (for example 5 for the 5x5 boards).
+	 * @param boardNum Which board to load.
+	 * @return The string representation of the board structure.
+	 */
+	public static String[][] loadTextBoardByNumber(int boardSize, int boardNum) 
+	{
+		return readGridFromFile(getPuzzleFile(boardSize, boardNum));
+	}
+	
+	/** This method gets the file that the board specified by boardNum is stored in, out of the boards of the given size.
+	 * 
+	 * @param boardSize The width/height of the boards (for example 5 for the 5x5 boards).
+	 * @param boardNum Which board.
+	 * @return The text file for the board (which may not exist).
+	 */
+	public static File getPuzzleFile(int boardSize, int boardNum) 
 	{		
 		//5x5 Boards are stored at the program's working directory /Puzzles/5x5/Puzzle#########.txt
 		//Initial String Setup
 		String pwd = System.getProperty("user.dir");
-		pwd += "/Puzzles/" + Board.BOARDSIZE+ "x" + Board.BOARDSIZE + "/Puzzle000";
+		pwd += "/Puzzles/" + boardSize + "x" + boardSize + "/Puzzle000";
 		
 		//Add the appropriate number of 0s to make every file name have exactly 9 numbers
 		String loadString;
@@ -83,57 +217,296 @@ public class BoardFileIO{
 		
 		//Add the two parts of the strong and create a file based on it.
 		pwd += loadString + ".txt";
-		File file = new File(pwd);
-		
-		//Read in the file from the file object and return what it returns
-		return readGridFromFile(file);
+		return new File(pwd);
+	}
+	
+	/** This method loads in the code bytes (see PieceCodes.java) of the board specified by boardNum, out of the boards
+	 *    of the given size.  Uses the binary corpus if there is one, and the text file otherwise.  Nothing is cached,
+	 *    so this is the one to use for passes over a whole corpus.
+	 * 
+	 * @param boardSize The width/height of the boards to load from (for example 5 for the 5x5 boards).
+	 * @param boardNum Which board to load.
+	 * @return The code bytes of the board, in a new array.
+	 */
+	public static byte[][] loadPieceGridByNumber(int boardSize, int boardNum)
+	{
+		//The corpus already holds code bytes, so there is nothing to parse
+		PuzzleCorpus corpus = getCorpus(boardSize);
+		if(corpus != null && corpus.contains(boardNum))
+			return corpus.getPieceGrid(boardNum);
+		return readPieceGridFromFile(getPuzzleFile(boardSize, boardNum));
+	}
+	
+	/** This method gets the layout of the board specified by boardNum, out of the default (5x5) boards.
+	 * 
+	 * @param boardNum Which board to load.
+	 * @return The (shared) layout of the board.
+	 */
+	public static BoardLayout loadLayoutByNumber(int boardNum)
+	{
+		return loadLayoutByNumber(Board.DEFAULTBOARDSIZE, boardNum);
+	}
+	
+	/** This method gets the layout of the board specified by boardNum.  The first time a board is asked for,
+	 *    it is loaded from its file; after that the same layout is handed back without touching the disk,
+	 *    so every board created for that puzzle shares it.  Safe to call from several threads at once,
+	 *    including for different board sizes.
+	 * 
+	 * @param boardSize The width/height of the boards to load from (for example 5 for the 5x5 boards).
+	 * @param boardNum Which board to load.
+	 * @return The (shared) layout of the board.
+	 */
+	public static BoardLayout loadLayoutByNumber(int boardSize, int boardNum)
+	{
+		Long key = ((long) boardSize << 32) | boardNum;
+		synchronized(layoutCache)
+		{
+			BoardLayout layout = layoutCache.get(key);
+			if(layout != null)
+				return layout;
+		}
 		
+		//Load outside the lock, so one slow file doesn't hold everyone else up.  If two threads load the
+		//  same board at once, whichever gets back first wins and the other's copy is thrown away.
+		BoardLayout layout = new BoardLayout(loadPieceGridByNumber(boardSize, boardNum));
+		synchronized(layoutCache)
+		{
+			BoardLayout existing = layoutCache.get(key);
+			if(existing != null)
+				return existing;
+			layoutCache.put(key, layout);
+		}
+		return layout;
+	}
+	
+	/** Get the binary corpus for a board size, opening it the first time it is asked for.
+	 * 
+	 * @param boardSize The width/height of the boards
+	 * @return The corpus, or null if useBinaryCorpus is off or there is no usable corpus file for that size
+	 */
+	public static PuzzleCorpus getCorpus(int boardSize)
+	{
+		if(!useBinaryCorpus)
+			return null;
+		synchronized(corpora)
+		{
+			if(corpora.containsKey(boardSize))
+				return corpora.get(boardSize);
+			
+			PuzzleCorpus corpus = null;
+			File file = PuzzleCorpus.defaultFile(boardSize);
+			if(file.exists())
+			{
+				try
+				{
+					corpus = new PuzzleCorpus(file);
+				}
+				catch(IOException e)
+				{
+					System.err.println("Could not open " + file + ", reading text puzzles instead: " + e.getMessage());
+				}
+			}
+			corpora.put(boardSize, corpus);
+			return corpus;
+		}
+	}
+	
+	/** Forget every corpus that has been opened (or found missing), so the next load looks for the files again.
+	 *    Needed after packing a new corpus in a program that has already loaded puzzles.
+	 */
+	public static void resetCorpora()
+	{
+		synchronized(corpora)
+		{
+			corpora.clear();
+		}
+	}
+	
+	/** Getter for the total number of boards stored on disk for the default (5x5) boards
+	 * 
+	 * @return The number of boards
+	 */
+	public static int getTotalNumBoards()
+	{
+		return totalNumBoards;
+	}
+	
+	/** Count the boards of one size: the number of puzzles in the corpus for that size if there is one,
+	 *    and the number of puzzle files in its directory otherwise.
+	 * 
+	 * @param boardSize The width/height of the boards
+	 * @return The number of boards, which may be 0
+	 */
+	public static int getNumBoards(int boardSize)
+	{
+		PuzzleCorpus corpus = getCorpus(boardSize);
+		if(corpus != null)
+			return corpus.getNumPuzzles();
+		return getNumTextBoards(boardSize);
+	}
+	
+	/** Count the text puzzle files of one size, ignoring any corpus
+	 * 
+	 * @param boardSize The width/height of the boards
+	 * @return The number of puzzle files in the directory for that size, which may be 0
+	 */
+	public static int getNumTextBoards(int boardSize)
+	{
+		//Puzzle files are named Puzzle followed by 9 digits (see getPuzzleFile)
+		String[] names = getPuzzleFile(boardSize, 0).getParentFile().list();
+		int count = 0;
+		if(names != null)
+			for(String name : names)
+				if(name.length() == 19 && name.startsWith("Puzzle") && name.endsWith(".txt"))
+					count++;
+		return count;
 	}
 	
 	/** This method reads in a blank Thermometers board from the file object passed into it.
 	 * 
 	 * @param file The file object containing the path to the file on disk that we want to read.
 	 * @return A 2D String array which contains the structure of a Thermometers board
+	 * @throws PuzzleFormatException If the file can't be read or isn't a valid puzzle
 	 */
 	public static String[][] readGridFromFile(File file)
 	{
-		//Get board size based on the first line
-		// ASSUMES ALL BOARDS ARE SQUARE
-		// For example, if the first line is:
-		//   BRF THF THF THE CLE
-		//   then the board is 5x5
-		//  
-		try(BufferedReader testReader = new BufferedReader(new FileReader(file)))
+		return PieceCodes.decode(readPieceGridFromFile(file));
+	}
+	
+	/** This method reads in a blank Thermometers board from the file object passed into it, as code bytes
+	 *    (see PieceCodes.java).  The file is read in one go into a buffer that is reused by every call on the
+	 *    same thread, and the codes are decoded straight out of that buffer without making any Strings.
+	 * 
+	 * @param file The file object containing the path to the file on disk that we want to read.
+	 * @return The code bytes for the board, in a new array
+	 * @throws PuzzleFormatException If the file can't be read or isn't a valid puzzle
+	 */
+	public static byte[][] readPieceGridFromFile(File file)
+	{
+		byte[] buffer = readBuffers.get();
+		int length = 0;
+		try(FileInputStream in = new FileInputStream(file))
 		{
-			String line =  testReader.readLine();
-			Board.BOARDSIZE = line.split(" ").length;
+			while(true)
+			{
+				//Puzzle files are tiny, so this only ever happens for very big boards
+				if(length == buffer.length)
+				{
+					buffer = Arrays.copyOf(buffer, buffer.length * 2);
+					readBuffers.set(buffer);
+				}
+				int read = in.read(buffer, length, buffer.length - length);
+				if(read < 0)
+					break;
+				length += read;
+			}
 		}
-		catch(Exception e){System.out.println("Error getting board size");}
-		
-		//Initialize the stringGrid representation to the appropriate boardsize
-		String[][] returnGrid = new String[Board.BOARDSIZE][Board.BOARDSIZE];
-		
-		//Now read in and store all of the codes
-		try(BufferedReader reader = new BufferedReader(new FileReader(file)))
+		catch(IOException e)
 		{
-			int rowIndex = 0;
-			String currentLine;
-			while ((currentLine = reader.readLine()) != null)
+			throw new PuzzleFormatException(file, 0, "could not be read", e);
+		}
+		return parsePieceGrid(buffer, length, file);
+	}
+	
+	/** This method decodes the text of a puzzle file.  Each line is one row of the board, with the 3 character
+	 *    codes for its tiles separated by spaces.  The board size comes from the number of codes on the first line
+	 *    (ASSUMES ALL BOARDS ARE SQUARE); for example, if the first line is:
+	 *       BRF THF THF THE CLE
+	 *    then the board is 5x5.  Blank lines are only allowed after the last row.
+	 * 
+	 * @param text The text of the file
+	 * @param length How many bytes of text there are
+	 * @param file The file the text came from, for error messages
+	 * @return The code bytes for the board
+	 * @throws PuzzleFormatException If the text isn't a valid puzzle
+	 */
+	private static byte[][] parsePieceGrid(byte[] text, int length, File file)
+	{
+		byte[][] pieceGrid = null;
+		int size = 0;
+		int row = 0;
+		int lineNumber = 0;
+		int pos = 0;
+		while(pos < length)
+		{
+			lineNumber++;
+			int lineEnd = pos;
+			while(lineEnd < length && text[lineEnd] != '\n')
+				lineEnd++;
+			int end = lineEnd;
+			if(end > pos && text[end - 1] == '\r')
+				end--;
+			
+			int numCodes = countCodes(text, pos, end);
+			if(numCodes == 0)
 			{
-				String[] splitLine = currentLine.split(" ");
-				
-				for(int j = 0; j < splitLine.length; j++)
+				//Blank lines are fine at the end of the file, but not in the middle of the board
+				if(pieceGrid == null || row < size)
+					throw new PuzzleFormatException(file, lineNumber, "blank line where row " + row + " should be");
+			}
+			else
+			{
+				//The first line tells us the size of the board
+				if(pieceGrid == null)
 				{
-				//	if(splitLine[j].charAt(0) != '-')
-						returnGrid[rowIndex][j] = splitLine[j];
+					size = numCodes;
+					pieceGrid = new byte[size][size];
 				}
+				if(row == size)
+					throw new PuzzleFormatException(file, lineNumber, "more than " + size + " rows");
+				if(numCodes != size)
+					throw new PuzzleFormatException(file, lineNumber, numCodes + " codes, expected " + size);
 				
-				rowIndex++;
+				//Decode each code on the line
+				int col = 0;
+				int i = pos;
+				while(col < size)
+				{
+					while(text[i] == ' ' || text[i] == '\t')
+						i++;
+					int start = i;
+					while(i < end && text[i] != ' ' && text[i] != '\t')
+						i++;
+					int code = -1;
+					if(i - start == 3)
+						code = PieceCodes.parse((char) text[start], (char) text[start + 1], (char) text[start + 2]);
+					if(code == -1)
+						throw new PuzzleFormatException(file, lineNumber, "\"" + new String(text, start, i - start, StandardCharsets.ISO_8859_1)
+								+ "\" is not a valid piece code (code " + (col + 1) + ")");
+					pieceGrid[row][col] = (byte) code;
+					col++;
+				}
+				row++;
 			}
+			pos = lineEnd + 1;
 		}
-		catch(Exception e){System.err.println("Error reading in file");};
 		
-		return returnGrid;
+		if(pieceGrid == null)
+			throw new PuzzleFormatException(file, 0, "is empty");
+		if(row < size)
+			throw new PuzzleFormatException(file, lineNumber, "only " + row + " rows, expected " + size);
+		return pieceGrid;
+	}
+	
+	/** Counts the codes (runs of characters other than spaces and tabs) in part of a line
+	 * 
+	 * @param text The text
+	 * @param start Where to start counting
+	 * @param end Where to stop counting (exclusive)
+	 * @return The number of codes
+	 */
+	private static int countCodes(byte[] text, int start, int end)
+	{
+		int count = 0;
+		boolean inCode = false;
+		for(int i = start; i < end; i++)
+		{
+			boolean space = text[i] == ' ' || text[i] == '\t';
+			if(!space && !inCode)
+				count++;
+			inCode = !space;
+		}
+		return count;
 	}
 	
 	/**  This method selects and reads in a random grid from the list,
@@ -148,27 +521,87 @@ public class BoardFileIO{
 		// So this way we can shuffle them up which feels more random (and also gives
 		// a larger variety in the validation boards)
 		int randIndex = levelRand.nextInt(max);
-		return loadInBoardbyNumber(boardNums.get(randIndex));
+		return loadInBoardbyNumber(getBoardNumbering(Board.DEFAULTBOARDSIZE).order.get(randIndex));
 	}
 	
 	
-	/** This method creates a list of board numbers to select from later.
+	/** This method sets up the shuffled order of board numbers to select from later.
 	 * This exists because boards that are sequential on disk, with the
 	 * boards included with this domain, tend to be very similar, so this 
 	 * shuffles them up.  It adds more variety, especially to the validation 
 	 * levels since those are taken sequentially.
 	 * 
+	 * The order is a BoardPermutation, so nothing is stored or shuffled up front,
+	 * no matter how many boards there are.  Training boards are still the first 
+	 * maxTrainingLevel places in the order and validation boards the places from
+	 * startingValidationLevel on.
+	 * 
+	 * Only one seed is drawn here, and nothing is read from disk.  The order for each
+	 * board size is worked out from it the first time that size is asked for (see 
+	 * getBoardNumbering).  boardNums is set to the order of the 168,000 default boards
+	 * included with the domain.
+	 * 
 	 */
 	public static void getboardNumList()
 	{
-		//Create a list from 0 to totalNumBoards-1
-		boardNums = new ArrayList<Integer>();
-		for(int i = 0; i < totalNumBoards; i++)
-			boardNums.add(i);
-		
-		//Randomly shuffle the list.  Note this currently uses the same
+		//Seed the shuffle.  Note this currently uses the same
 		// random generator as the level selection itself.
-		Collections.shuffle(boardNums, levelRand);
+		synchronized(numberings)
+		{
+			numberingSeed = levelRand.nextLong();
+			numberingSeeded = true;
+			numberings.clear();
+			setDefaultNumbering(new BoardNumbering(Board.DEFAULTBOARDSIZE, totalNumBoards, numberingSeed));
+		}
+	}
+	
+	/** Point boardNums, maxTrainingLevel and startingValidationLevel at a numbering of the default boards
+	 * 
+	 * @param numbering The numbering
+	 */
+	private static void setDefaultNumbering(BoardNumbering numbering)
+	{
+		boardNums = numbering.order;
+		maxTrainingLevel = numbering.maxTrainingLevel;
+		startingValidationLevel = numbering.startingValidationLevel;
+	}
+	
+	/** Get the shuffled order and training/validation split of the boards of one size, working it out the first
+	 *    time it is asked for.  The number of boards comes from getNumBoards; if there are no default (5x5) boards on
+	 *    disk, the 168,000 included with the domain are assumed, as they always have been.
+	 *    getboardNumList() must have been called first.
+	 * 
+	 * @param boardSize The width/height of the boards
+	 * @return The (shared) numbering
+	 * @throws IllegalStateException If getboardNumList() hasn't been called, or there are no boards of that size
+	 */
+	public static BoardNumbering getBoardNumbering(int boardSize)
+	{
+		synchronized(numberings)
+		{
+			if(!numberingSeeded)
+				throw new IllegalStateException("BoardFileIO.getboardNumList() must be called before picking boards");
+			
+			BoardNumbering numbering = numberings.get(boardSize);
+			if(numbering == null)
+			{
+				int numBoards = getNumBoards(boardSize);
+				if(numBoards == 0 && boardSize == Board.DEFAULTBOARDSIZE)
+					numBoards = totalNumBoards;
+				if(numBoards == 0)
+					throw new IllegalStateException("There are no " + boardSize + "x" + boardSize + " boards to pick from");
+				
+				//The default boards use the seed as it is, so they come out in the same order as they always have
+				long seed = numberingSeed ^ ((long) (boardSize - Board.DEFAULTBOARDSIZE) * 0xD1B54A32D192ED03L);
+				numbering = new BoardNumbering(boardSize, numBoards, seed);
+				numberings.put(boardSize, numbering);
+				
+				//Keep the static fields for the default boards in step with the boards that are actually there
+				if(boardSize == Board.DEFAULTBOARDSIZE && numBoards != totalNumBoards)
+					setDefaultNumbering(numbering);
+			}
+			return numbering;
+		}
 	}
 
 	/**  This method is the same as SelectRandomGrid, but with the 
@@ -178,7 +611,36 @@ public class BoardFileIO{
 	 * @return A 2D String array representing the structure of the loaded in Thermometers board.
 	 */
 	public static String[][] selectRandomTrainingGrid() {
-		int randIndex = levelRand.nextInt(maxTrainingLevel);
-		return loadInBoardbyNumber(boardNums.get(randIndex));
+		return loadInBoardbyNumber(getBoardNumbering(Board.DEFAULTBOARDSIZE).drawTrainingBoardNum(null));
+	}
+	
+	/**  This method is the same as selectRandomTrainingGrid, but returns the shared layout
+	 *     of the board instead of its strings.
+	 * 
+	 * @return The layout of a random training board.
+	 */
+	public static BoardLayout selectRandomTrainingLayout() {
+		return selectRandomTrainingLayout(Board.DEFAULTBOARDSIZE);
+	}
+	
+	/**  This method is the same as selectRandomTrainingLayout, but picks from the training boards of the given size.
+	 * 
+	 * @param boardSize The width/height of the boards to pick from.
+	 * @return The layout of a random training board.
+	 */
+	public static BoardLayout selectRandomTrainingLayout(int boardSize) {
+		return selectRandomTrainingLayout(boardSize, null);
+	}
+	
+	/**  This method is the same as selectRandomTrainingLayout, but draws from the given generator instead of levelRand.
+	 *     Give each worker or episode its own stream (see RandomStreams.java) so that which boards it gets doesn't
+	 *     depend on what any other thread is doing.
+	 * 
+	 * @param boardSize The width/height of the boards to pick from.
+	 * @param rand The generator to draw from, or null for levelRand.
+	 * @return The layout of a random training board.
+	 */
+	public static BoardLayout selectRandomTrainingLayout(int boardSize, SplittableRandom rand) {
+		return loadLayoutByNumber(boardSize, getBoardNumbering(boardSize).drawTrainingBoardNum(rand));
 	}
-}
\ No newline at end of file
+}
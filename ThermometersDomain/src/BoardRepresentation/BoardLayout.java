@@ -0,0 +1,200 @@
+package BoardRepresentation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/** This class holds everything about a Thermometers board that comes from the puzzle file and never changes
+ *    while the board is being solved: the piece codes, the solution, the row and column constraints and
+ *    the thermometer topology.
+ *    
+ *    A layout is built once per puzzle and then shared by every Board made from that puzzle, so a Board itself
+ *    only has to store the current fill of its tiles.  Nothing in a layout should ever be modified after it is
+ *    created; BoardFileIO.loadLayoutByNumber hands the same layout out to everyone who asks for a given puzzle.
+ * 
+ * @author Skularach
+ *
+ */
+public class BoardLayout
+{
+	//Width/height of the board (boards are always square)
+	private final int size;
+	
+	//Code byte for every piece on the grid (see PieceCodes.java), decoded once from the strings read in from the file
+	private final byte[][] pieceGrid;
+	
+	//String representation of the thermometers on the grid.  Only made if something asks for it (for printing).
+	private volatile String[][] stringGrid = null;
+	
+	//Correct values for all tiles on the board -- Only used for verification, never for learning.
+	private final TileGrid solutionGrid;
+	
+	//Row and column constraints for the grid
+	private final ArrayList<Integer> rowCounts = new ArrayList<Integer>();
+	private final ArrayList<Integer> colCounts = new ArrayList<Integer>();
+	
+	//Layout of the thermometers on the board
+	private final ThermometerTopology thermTopology;
+	
+	//Hash of the piece codes, and a 64 bit one (see getFingerprint).  Worked out up front, so a layout shared
+	//  between threads never hands out a half-written value.
+	private final int hash;
+	private final long fingerprint;
+	
+	/** Constructor.  Takes in a board represented as a 2D array of strings and works out everything
+	 *    about it that does not depend on the current fill of the tiles.
+	 * 
+	 * @param stringGridIn  The 2D array of strings, most likely read in from a file.
+	 */
+	public BoardLayout(String[][] stringGridIn)
+	{
+		this(PieceCodes.encode(stringGridIn));
+	}
+	
+	/** Constructor.  Takes in a board represented as a 2D array of piece codes (see PieceCodes.java) and works
+	 *    out everything about it that does not depend on the current fill of the tiles.
+	 * 
+	 * @param pieceGridIn  The 2D array of code bytes.  Kept, not copied, so do not modify it afterwards.
+	 */
+	public BoardLayout(byte[][] pieceGridIn)
+	{
+		pieceGrid = pieceGridIn;
+		size = pieceGrid.length;
+		
+		//Set all solutionGrid squares to the correct fills for those tiles in a solved board,
+		//  and count how many tiles must be filled in each row and column while we're at it
+		solutionGrid = TileGrid.create(size);
+		int[] rowFilled = new int[size];
+		int[] colFilled = new int[size];
+		for(int i = 0; i < size; i++)
+		{
+			for(int j = 0; j < size; j++)
+			{
+				if(PieceCodes.isFilledInSolution(pieceGrid[i][j]))
+				{
+					solutionGrid.set(i, j, 1);
+					rowFilled[i]++;
+					colFilled[j]++;
+				}
+				else
+					solutionGrid.set(i, j, -1);
+			}
+		}
+		
+		//Store the how-many-tiles-must-be-filled constraints for each row and column
+		for(int i = 0; i < size; i++)
+		{
+			rowCounts.add(rowFilled[i]);
+			colCounts.add(colFilled[i]);
+		}
+		
+		//Parse the thermometers once.  Their layout never changes, and their fill is read from each board's grid.
+		thermTopology = new ThermometerTopology(pieceGrid);
+		
+		hash = Arrays.deepHashCode(pieceGrid);
+		
+		//FNV-1a over every piece code, row by row, then the board size
+		long h = 0xCBF29CE484222325L;
+		for(byte[] row : pieceGrid)
+			for(byte code : row)
+				h = (h ^ (code & 0xFF)) * 0x100000001B3L;
+		fingerprint = (h ^ size) * 0x100000001B3L;
+	}
+	
+	/** Getter for the width/height of the board
+	 * 
+	 * @return The number of rows (and columns) on the board
+	 */
+	public int getSize() {
+		return size;
+	}
+	
+	/** Getter for the code bytes of the board
+	 * 
+	 * @return The 2D array of code bytes (see PieceCodes.java).  Do not modify.
+	 */
+	public byte[][] getPieceGrid() {
+		return pieceGrid;
+	}
+	
+	/** Getter for the code byte of a single piece
+	 * 
+	 * @param row The row of the piece
+	 * @param col The column of the piece
+	 * @return The code byte (see PieceCodes.java)
+	 */
+	public byte getPiece(int row, int col) {
+		return pieceGrid[row][col];
+	}
+	
+	/** Getter for the string codes of the board.  These are made from the code bytes the first time they are asked for,
+	 *    and are only meant for printing; nothing that runs while solving a board should need them.
+	 * 
+	 * @return The 2D array of string codes.  Do not modify.
+	 */
+	public String[][] getStringGrid() {
+		if(stringGrid == null)
+			stringGrid = PieceCodes.decode(pieceGrid);
+		return stringGrid;
+	}
+	
+	/** Getter for the correct fill of every tile
+	 * 
+	 * @return The solved grid.  Do not modify.
+	 */
+	public TileGrid getSolutionGrid() {
+		return solutionGrid;
+	}
+	
+	/** Getter for the number of tiles that must be filled in each row
+	 * 
+	 * @return The row constraints.  Do not modify.
+	 */
+	public ArrayList<Integer> getRowCounts() {
+		return rowCounts;
+	}
+	
+	/** Getter for the number of tiles that must be filled in each column
+	 * 
+	 * @return The column constraints.  Do not modify.
+	 */
+	public ArrayList<Integer> getColCounts() {
+		return colCounts;
+	}
+	
+	/** Getter for the layout of the thermometers on the board
+	 * 
+	 * @return The thermometer topology
+	 */
+	public ThermometerTopology getThermTopology() {
+		return thermTopology;
+	}
+	
+	/** Two layouts are equal if they are for the same puzzle, which is the case exactly when their piece codes match.
+	 * 
+	 * @param other The object to compare to
+	 * @return True if other is a layout with the same piece codes
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if(this == other)
+			return true;
+		if(!(other instanceof BoardLayout))
+			return false;
+		BoardLayout otherLayout = (BoardLayout) other;
+		return hashCode() == otherLayout.hashCode() && Arrays.deepEquals(pieceGrid, otherLayout.pieceGrid);
+	}
+	
+	/** Get a 64 bit hash of the piece codes, for telling puzzles apart where hashCode's 32 bits are too few,
+	 *    such as in keys that also cover the state of a board.  The same puzzle always gets the same fingerprint.
+	 * 
+	 * @return The fingerprint of the puzzle
+	 */
+	public long getFingerprint() {
+		return fingerprint;
+	}
+	
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+}
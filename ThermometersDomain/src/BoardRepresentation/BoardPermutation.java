@@ -0,0 +1,148 @@
+package BoardRepresentation;
+
+/** A seeded shuffle of the numbers 0 to size-1 that is worked out one number at a time, instead of being stored.
+ *
+ *    get(i) runs i through a small Feistel network over the smallest even number of bits that can hold size-1.
+ *    That is a one-to-one mapping over all numbers of that many bits, so if the result is size or more it is simply
+ *    run through the network again ("cycle walking") until it lands in range.  Every number in range comes out
+ *    exactly once, the same seed always gives the same shuffle, and nothing but the round keys is stored, however
+ *    large size is.
+ *
+ * @author Skularach
+ *
+ */
+public class BoardPermutation
+{
+	//Number of Feistel rounds.  More rounds mix better; six is plenty for picking boards.
+	private static final int NUMROUNDS = 6;
+
+	private final int size;
+	private final int halfBits;
+	private final int halfMask;
+	private final long[] roundKeys = new long[NUMROUNDS];
+
+	/** Constructor.
+	 *
+	 * @param size How many numbers to shuffle (must be at least 1)
+	 * @param seed Seed for the shuffle
+	 */
+	public BoardPermutation(int size, long seed)
+	{
+		if(size < 1)
+			throw new IllegalArgumentException("Can't shuffle " + size + " numbers");
+		this.size = size;
+
+		//Bits needed to hold size-1, rounded up to an even number (and at least 2) so the two halves are the same width
+		int bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, size - 1));
+		bits = Math.max(2, bits + (bits & 1));
+		halfBits = bits / 2;
+		halfMask = (1 << halfBits) - 1;
+
+		long key = seed;
+		for(int i = 0; i < NUMROUNDS; i++)
+		{
+			key += 0x9E3779B97F4A7C15L;
+			roundKeys[i] = mix64(key);
+		}
+	}
+
+	/** Getter for how many numbers are shuffled
+	 *
+	 * @return The size of the permutation
+	 */
+	public int size() {
+		return size;
+	}
+
+	/** Get the number in a given place of the shuffle
+	 *
+	 * @param index The place, from 0 to size-1
+	 * @return The number in that place, from 0 to size-1
+	 */
+	public int get(int index)
+	{
+		if(index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index " + index + " is not between 0 and " + (size - 1));
+		int value = index;
+		//Compared unsigned, since with 32 bits the network can give numbers with the top bit set
+		do
+			value = encrypt(value);
+		while(Integer.compareUnsigned(value, size) >= 0);
+		return value;
+	}
+
+	/** Find where a number is in the shuffle (the inverse of get)
+	 *
+	 * @param value The number, from 0 to size-1
+	 * @return The place it is in, so that get(indexOf(value)) == value
+	 */
+	public int indexOf(int value)
+	{
+		if(value < 0 || value >= size)
+			throw new IndexOutOfBoundsException("Value " + value + " is not between 0 and " + (size - 1));
+		int index = value;
+		do
+			index = decrypt(index);
+		while(Integer.compareUnsigned(index, size) >= 0);
+		return index;
+	}
+
+	/** Run a number forwards through the Feistel network
+	 *
+	 * @param value A number of 2 * halfBits bits
+	 * @return Another number of 2 * halfBits bits
+	 */
+	private int encrypt(int value)
+	{
+		int left = value >>> halfBits;
+		int right = value & halfMask;
+		for(int i = 0; i < NUMROUNDS; i++)
+		{
+			int newRight = left ^ round(right, i);
+			left = right;
+			right = newRight;
+		}
+		return (left << halfBits) | right;
+	}
+
+	/** Run a number backwards through the Feistel network
+	 *
+	 * @param value A number of 2 * halfBits bits
+	 * @return The number that encrypt turns into value
+	 */
+	private int decrypt(int value)
+	{
+		int left = value >>> halfBits;
+		int right = value & halfMask;
+		for(int i = NUMROUNDS - 1; i >= 0; i--)
+		{
+			int newLeft = right ^ round(left, i);
+			right = left;
+			left = newLeft;
+		}
+		return (left << halfBits) | right;
+	}
+
+	/** The Feistel round function
+	 *
+	 * @param half Half of the number being shuffled
+	 * @param round Which round this is
+	 * @return halfBits bits worked out from the half and the round key
+	 */
+	private int round(int half, int round)
+	{
+		return (int) mix64(half ^ roundKeys[round]) & halfMask;
+	}
+
+	/** Scramble the bits of a long (the finishing step of the SplitMix64 generator)
+	 *
+	 * @param z The value to scramble
+	 * @return The scrambled value
+	 */
+	private static long mix64(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
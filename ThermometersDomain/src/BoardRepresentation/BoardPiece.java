@@ -1,7 +1,8 @@
 package BoardRepresentation;
 
 /** This class simply represents a tile on the board,
- *    with helper methods for location on the grid (x and y) and fill status.
+ *    with helper methods for location on the grid (x and y).
+ *    The fill of the tile lives on the board itself (Board.getTile).
  *
  * @author Brandon Packard
  */
@@ -9,21 +10,18 @@ public class BoardPiece
 {
 	private int xPos;
 	private int yPos;
-	private int fillStatus;
 	
 	/** Constructor for the BoardPiece class.
-	 *   Takes in the position of the tile on the board and its fill, and 
-	 *   makes a BoardPiece object to store it all.
+	 *   Takes in the position of the tile on the board and
+	 *   makes a BoardPiece object to store it.
 	 *   
 	 * @param xIn  The x location of the tile on the board
 	 * @param yIn  The y location of the tile on the board
-	 * @param statusIn  The fill status of the tile.
 	 */
-	BoardPiece(int xIn, int yIn, int statusIn)
+	BoardPiece(int xIn, int yIn)
 	{
 		xPos = xIn;
 		yPos = yIn;
-		fillStatus = statusIn;
 	}
 	
 	/** Getter for the x position of the tile on the board
@@ -41,12 +39,4 @@ public class BoardPiece
 	public int getYPos() {
 		return yPos;
 	}
-
-	/** Getter for the fill status position of the tile on the board
-	 * 
-	 * @return The fill status position of the tile on the board
-	 */
-	public int getFillStatus() {
-		return fillStatus;
-	}	
-}
\ No newline at end of file
+}
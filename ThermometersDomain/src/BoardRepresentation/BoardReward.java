@@ -1,8 +1,10 @@
 package BoardRepresentation;
 
+import Utilities.Triple;
+
 
 /**
- * This library contains all of the (currently 1) functions 
+ * This library contains all of the functions 
  *  to get rewards from boards.
  * @author Brandon Packard
  *
@@ -21,157 +23,26 @@ public class BoardReward{
 	 *  and 10 for making sure each thermometer has a "valid" fill (any mercury in it
 	 *     is filled from the bulb outwards)       
 	 * 
+	 *  The board keeps a RewardTracker that updates the count of satisfied constraints as tiles change,
+	 *  so after the first call this does not need to recheck the whole board.
+	 * 
 	 * @param board The board for which to get the reward from.
 	 * @return
 	 */
 	public static float getReward(Board board)
 	{
-		int constraintsMet = 0;
-		int totalConstraints = 0;
-		
-		//Count the number of row constraints satisfied
-		for(int i = 0; i < board.grid.size(); i++)
-		{
-			int filledCount = 0;
-			int emptyCount = 0;
-			for(int j = 0; j < board.grid.get(i).size();j++)
-			{
-				if(board.grid.get(i).get(j) == 1)
-					filledCount++;
-				else if(board.grid.get(i).get(j) == -1)
-					emptyCount++;
-				
-				
-			}
-			
-			//If the number of filled tiles matches the row constraint
-			if(filledCount == board.rowCounts.get(i) && emptyCount == board.grid.size() - filledCount)
-				constraintsMet++;
-			totalConstraints++;
-		}
-		
-		//Count the number of column constraints satisfied
-		for(int i = 0; i < board.grid.get(0).size(); i++)
-		{
-			int filledCount = 0;
-			int emptyCount = 0;
-			for(int j = 0; j < board.grid.size();j++)
-			{
-				if(board.grid.get(j).get(i) == 1)
-					filledCount++;
-				else if(board.grid.get(j).get(i) == -1)
-					emptyCount++;
-				
-				
-			}
-			
-			//If the number of filled tiles matches the column constraint
-			if(filledCount == board.colCounts.get(i) && emptyCount == board.grid.size() - filledCount)
-				constraintsMet++;
-			totalConstraints++;
-		}
-		
-		//For each row
-		for(int i = 0; i < board.rowTherms.size();i++)
-		{
-			//For each thermometer in that row
-			for(int j = 0; j < board.rowTherms.get(i).size(); j++)
-			{
-				boolean validTherm = true;
-				boolean fillSolid = false;
-				
-				//If the bulb is filled, set that we current have a solidly-filled thermometer (filled from the bulb up with no gaps)
-				if(board.rowTherms.get(i).get(j).get(0).getFillStatus() == 1)
-					fillSolid = true;
-				
-				//For each piece past the bulb
-				for(int k = 1; k < board.rowTherms.get(i).get(j).size(); k++)
-				{
-					//If part of the thermometer is unknown, automatically flag the constraint as not met.
-					//  If the thermometer hasn't been completely filled in, we can't determine if it's been filled correctly.
-					if(board.rowTherms.get(i).get(j).get(k).getFillStatus() == 0)
-					{
-						validTherm = false;
-						break;
-					}
-					
-					//If this piece of the thermometer is filled, and the fill was previously broken,
-					//  its an invalid setup
-					//   Example:
-					//  Filled Empty Filled can never be a valid thermometer
-					if(board.rowTherms.get(i).get(j).get(k).getFillStatus() == 1)
-					{
-						if(!fillSolid)
-						{
-							validTherm = false;
-							break;
-						}
-					}
-					
-					//If the current thermometer piece is empty, mark that we no longer have a solid fill
-					if(board.rowTherms.get(i).get(j).get(k).getFillStatus() == -1)
-					{
-						fillSolid = false;
-					}
-				}
-				
-				if(validTherm)
-					constraintsMet++;
-				totalConstraints++;
-			}
-		}
-		
-		//For each column
-		for(int i = 0; i < board.colTherms.size();i++)
-		{
-			//For each thermometer in that row
-			for(int j = 0; j < board.colTherms.get(i).size(); j++)
-			{
-				boolean validTherm = true;
-				boolean fillSolid = false;
-				
-				//If the bulb is filled, set that we current have a solidly-filled thermometer (filled from the bulb up with no gaps)
-				if(board.colTherms.get(i).get(j).get(0).getFillStatus() == 1)
-					fillSolid = true;
-				
-				//For each piece past the bulb
-				for(int k = 1; k < board.colTherms.get(i).get(j).size(); k++)
-				{
-					//If part of the thermometer is unknown, automatically flag the constraint as not met.
-					//  If the thermometer hasn't been completely filled in, we can't determine if it's been filled correctly.
-					if(board.colTherms.get(i).get(j).get(k).getFillStatus() == 0)
-					{
-						validTherm = false;
-						break;
-					}
-					
-					//If this piece of the thermometer is filled, and the fill was previously broken,
-					//  its an invalid setup
-					//   Example:
-					//  Filled Empty Filled can never be a valid thermometer
-					if(board.colTherms.get(i).get(j).get(k).getFillStatus() == 1)
-					{
-						if(!fillSolid)
-						{
-							validTherm = false;
-							break;
-						}
-					}
-					
-					//If the current thermometer piece is empty, mark that we no longer have a solid fill
-					if(board.colTherms.get(i).get(j).get(k).getFillStatus() == -1)
-					{
-						fillSolid = false;
-					}
-				}
-				
-				if(validTherm)
-					constraintsMet++;
-				totalConstraints++;
-			}
-		}
-		
-		//Return the proportion of constraints satisfied, converted to a percentage
-		return 100 * (constraintsMet / (totalConstraints * 1.0f));			
+		return board.getRewardTracker().getReward();
+	}
+	
+	/** This method gets how much the reward of a board would change if a move were made on it,
+	 *    without making the move.
+	 * 
+	 * @param board The board to check the move on
+	 * @param move The move, in the same form ApplyMovesToBoard takes for the kind of board
+	 * @return The reward after the move minus the reward now
+	 */
+	public static float getRewardDelta(Board board, Triple move)
+	{
+		return board.getRewardTracker().rewardDelta(move);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,233 @@
+package BoardRepresentation;
+
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/** Hands out random training boards that have already been loaded, so a training loop doesn't have to wait
+ *    for the disk between episodes.
+ *
+ *    All of the board numbers are drawn from BoardFileIO.levelRand, out of the training boards of the supplier's size,
+ *    when the supplier is created, exactly as the same number of calls to BoardFileIO.selectRandomTrainingLayout would
+ *    draw them.  So the boards come out in the same order as they would have without the supplier, and levelRand is
+ *    left in the same state for whatever uses it next.
+ *    A background thread then loads the boards in that order and keeps up to a fixed number of them waiting in a queue.
+ *    The board numbers can also be drawn from a separate generator (see RandomStreams.java), leaving levelRand alone.
+ *
+ *    BoardFileIO.getboardNumList() must have been called first.  Any number of threads can take boards from
+ *    the same supplier; each board is handed out once.  Close the supplier to stop the background thread early;
+ *    after that it hands out no more boards.
+ *
+ * @author Skularach
+ *
+ */
+public class BoardSupplier implements Supplier<BoardLayout>, AutoCloseable
+{
+	//Default number of boards to keep loaded ahead of the consumers
+	public static final int DEFAULTCAPACITY = 16;
+
+	//The board numbers to load, in order
+	private final int[] boardNums;
+	private final int boardSize;
+
+	//Boards that have been loaded and not handed out yet
+	private final BlockingQueue<Prefetched> queue;
+
+	//Number of boards that have been handed out (or claimed by a consumer that is waiting for them)
+	private final AtomicInteger numTaken = new AtomicInteger(0);
+
+	private final Thread loader;
+
+	//Set once the supplier has been closed
+	private volatile boolean closed = false;
+
+	//One loaded board, or the exception that was thrown while loading it
+	private static final class Prefetched
+	{
+		final BoardLayout layout;
+		final RuntimeException error;
+
+		Prefetched(BoardLayout layout, RuntimeException error)
+		{
+			this.layout = layout;
+			this.error = error;
+		}
+	}
+
+	/** Constructor.  Supplies numBoards random default-sized (5x5) training boards.
+	 *
+	 * @param numBoards How many boards to supply
+	 */
+	public BoardSupplier(int numBoards)
+	{
+		this(Board.DEFAULTBOARDSIZE, numBoards, DEFAULTCAPACITY);
+	}
+
+	/** Constructor.  Draws the board numbers and starts loading the boards in the background.
+	 *
+	 * @param boardSize The width/height of the boards to load
+	 * @param numBoards How many boards to supply
+	 * @param capacity How many loaded boards can wait in the queue at once
+	 */
+	public BoardSupplier(int boardSize, int numBoards, int capacity)
+	{
+		//Draw every board number now, on the caller's thread, so levelRand is used in the same order as before
+		this(boardSize, drawBoardNums(boardSize, numBoards, null), capacity);
+	}
+
+	/** Constructor.  Draws the board numbers from the given generator instead of levelRand,
+	 *    and starts loading the boards in the background.
+	 *
+	 * @param boardSize The width/height of the boards to load
+	 * @param numBoards How many boards to supply
+	 * @param capacity How many loaded boards can wait in the queue at once
+	 * @param rand The generator to draw the board numbers from
+	 */
+	public BoardSupplier(int boardSize, int numBoards, int capacity, SplittableRandom rand)
+	{
+		this(boardSize, drawBoardNums(boardSize, numBoards, rand), capacity);
+	}
+
+	/** Constructor.  Starts loading the given boards in the background.
+	 *
+	 * @param boardSize The width/height of the boards to load
+	 * @param boardNumsIn The board numbers to load, in order
+	 * @param capacity How many loaded boards can wait in the queue at once
+	 */
+	private BoardSupplier(int boardSize, int[] boardNumsIn, int capacity)
+	{
+		this.boardSize = boardSize;
+		boardNums = boardNumsIn;
+
+		queue = new ArrayBlockingQueue<Prefetched>(Math.max(1, capacity));
+		loader = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				loadAll();
+			}
+		}, "BoardSupplier");
+		loader.setDaemon(true);
+		loader.start();
+	}
+
+	/** Draw random training board numbers of one size, the same way BoardFileIO.selectRandomTrainingLayout does.
+	 *    With a null generator, levelRand is left in the same state as the same number of calls to selectRandomTrainingLayout would leave it.
+	 *
+	 * @param boardSize The width/height of the boards
+	 * @param numBoards How many board numbers to draw
+	 * @param rand The generator to draw from, or null for BoardFileIO.levelRand
+	 * @return The board numbers
+	 */
+	public static int[] drawBoardNums(int boardSize, int numBoards, SplittableRandom rand)
+	{
+		BoardFileIO.BoardNumbering numbering = BoardFileIO.getBoardNumbering(boardSize);
+		int[] drawn = new int[numBoards];
+		for(int i = 0; i < numBoards; i++)
+			drawn[i] = numbering.drawTrainingBoardNum(rand);
+		return drawn;
+	}
+
+	/** Runs on the background thread: loads every board in order, waiting whenever the queue is full
+	 *
+	 */
+	private void loadAll()
+	{
+		try
+		{
+			for(int i = 0; i < boardNums.length; i++)
+			{
+				Prefetched next;
+				try
+				{
+					next = new Prefetched(BoardFileIO.loadLayoutByNumber(boardSize, boardNums[i]), null);
+				}
+				catch(RuntimeException e)
+				{
+					//Hand the problem to whoever takes this board, instead of losing it on this thread
+					next = new Prefetched(null, e);
+				}
+				queue.put(next);
+			}
+		}
+		catch(InterruptedException e)
+		{
+			//Closed early; nothing else to do
+		}
+	}
+
+	/** Check whether there are boards left to hand out
+	 *
+	 * @return True if next() will return a board, which is never the case once the supplier has been closed
+	 */
+	public boolean hasNext() {
+		return !closed && numTaken.get() < boardNums.length;
+	}
+
+	/** Getter for the number of boards this supplier hands out in total
+	 *
+	 * @return The number of boards
+	 */
+	public int size() {
+		return boardNums.length;
+	}
+
+	/** Get the next board.  Only waits if the background thread hasn't caught up yet.
+	 *
+	 * @return The layout of the next training board
+	 * @throws NoSuchElementException If every board has already been handed out
+	 * @throws IllegalStateException If the supplier has been closed, including while waiting for the board
+	 * @throws PuzzleFormatException If the board could not be loaded
+	 */
+	public BoardLayout next()
+	{
+		if(closed)
+			throw new IllegalStateException("The supplier has been closed");
+		if(numTaken.getAndIncrement() >= boardNums.length)
+			throw new NoSuchElementException("All " + boardNums.length + " boards have been supplied");
+
+		//Wait a little at a time, since the board will never come if the supplier is closed in the meantime
+		Prefetched next = null;
+		try
+		{
+			while(next == null)
+			{
+				if(closed)
+					throw new IllegalStateException("The supplier was closed while waiting for a board");
+				next = queue.poll(100, TimeUnit.MILLISECONDS);
+			}
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a board", e);
+		}
+		if(next.error != null)
+			throw next.error;
+		return next.layout;
+	}
+
+	/** Same as next(), so a supplier can be passed anywhere a Supplier of layouts is wanted
+	 *
+	 * @return The layout of the next training board
+	 */
+	@Override
+	public BoardLayout get() {
+		return next();
+	}
+
+	/** Stop loading boards.  Boards that haven't been handed out yet are thrown away, and hasNext() is false from now on.
+	 *
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		loader.interrupt();
+		queue.clear();
+	}
+}
@@ -20,4 +20,14 @@ public class ComplexThermsBoard extends Board
 	{
 		super(stringGrid);
 	}
+	
+	/** Constructor, simply calls the general board constructor to make a 
+	 *    board object that shares an existing layout.
+	 * 
+	 * @param layout The layout of the puzzle to create a board object from
+	 */
+	public ComplexThermsBoard(BoardLayout layout)
+	{
+		super(layout);
+	}
 }
\ No newline at end of file
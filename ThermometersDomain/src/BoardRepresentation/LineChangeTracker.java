@@ -0,0 +1,62 @@
+package BoardRepresentation;
+
+import java.util.Arrays;
+
+/** Tells its owner which rows and columns of a board have changed since the owner last looked at them, so that
+ *    anything it works out one line at a time only has to be redone for those lines.
+ *
+ *    Each owner (a demonstrator, a fact extractor, ...) keeps its own tracker, so they never interfere with each other.
+ *    The tracker remembers the version of each line it last saw (see Board.getLineVersion); switching to a different
+ *    board marks every line as changed.  Lines are numbered as in Board.getLineVersion: rows are lines 0 to size-1,
+ *    and columns are lines size to 2*size-1.
+ *
+ * @author Skularach
+ *
+ */
+public class LineChangeTracker
+{
+	//The board the versions below are for, or null before the first board
+	private Board board = null;
+
+	//The version of each line when it was last marked as seen, or -1 if it hasn't been yet
+	private long[] seenVersions = new long[0];
+
+	/** Start looking at a board.  If it isn't the board looked at last time, every line counts as changed.
+	 *
+	 * @param boardIn The board about to be looked at
+	 * @return True if this is a different board from last time (so any per-line results kept for the old one are useless)
+	 */
+	public boolean track(Board boardIn)
+	{
+		if(boardIn == board)
+			return false;
+
+		board = boardIn;
+		int numLines = 2 * boardIn.getSize();
+		if(seenVersions.length != numLines)
+			seenVersions = new long[numLines];
+		Arrays.fill(seenVersions, -1);
+		return true;
+	}
+
+	/** Forget the board being looked at, so the next call to track counts every line as changed even for the same board
+	 */
+	public void reset()
+	{
+		board = null;
+	}
+
+	/** Check whether a line has changed since it was last seen, and count it as seen from now on
+	 *
+	 * @param line The line
+	 * @return True if the line has changed (or was never seen), so anything kept for it must be worked out again
+	 */
+	public boolean checkAndClear(int line)
+	{
+		long version = board.getLineVersion(line);
+		if(seenVersions[line] == version)
+			return false;
+		seenVersions[line] = version;
+		return true;
+	}
+}
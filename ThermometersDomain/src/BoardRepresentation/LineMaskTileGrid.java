@@ -0,0 +1,157 @@
+package BoardRepresentation;
+
+/** Tile storage for boards too big for a single 64 bit bitboard (see BitboardTileGrid), but no more than
+ *    32 tiles wide.  Every row and every column gets its own pair of 32 bit masks: one with a bit set for
+ *    each filled tile and one with a bit set for each empty tile.  Keeping both the row and the column masks
+ *    means setting a tile writes four ints, but counting the tiles in any row or column is still a single
+ *    bitCount, and nothing is boxed the way it is in ListTileGrid.
+ *
+ *    This covers everything from 9x9 up to 32x32 boards.
+ *
+ * @author Skularach
+ *
+ */
+public class LineMaskTileGrid extends TileGrid
+{
+	//The widest board that fits, one bit per tile in an int
+	public static final int MAXSIZE = 32;
+
+	private final int size;
+
+	//rowFilled[row] has bit col set if the tile at (row, col) is filled, and so on
+	private final int[] rowFilled;
+	private final int[] rowEmpty;
+	private final int[] colFilled;
+	private final int[] colEmpty;
+
+	//Mask with one bit set for every tile in a row (or column)
+	private final int lineMask;
+
+	/** Constructor.  Creates a size x size grid with every tile set to unknown (0)
+	 *
+	 * @param size The width/height of the grid.  Must satisfy fits(size).
+	 */
+	public LineMaskTileGrid(int size)
+	{
+		if(!fits(size))
+			throw new IllegalArgumentException("A " + size + "x" + size + " board is too wide for line masks");
+		this.size = size;
+		rowFilled = new int[size];
+		rowEmpty = new int[size];
+		colFilled = new int[size];
+		colEmpty = new int[size];
+		lineMask = size == MAXSIZE ? -1 : (1 << size) - 1;
+	}
+
+	/** Check whether a board of the given size can be stored with line masks
+	 *
+	 * @param size The width/height of the board
+	 * @return True if a whole row fits in an int
+	 */
+	public static boolean fits(int size)
+	{
+		return size > 0 && size <= MAXSIZE;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int get(int row, int col) {
+		int bit = 1 << col;
+		if((rowFilled[row] & bit) != 0)
+			return 1;
+		if((rowEmpty[row] & bit) != 0)
+			return -1;
+		return 0;
+	}
+
+	@Override
+	void set(int row, int col, int value) {
+		int colBit = 1 << col;
+		int rowBit = 1 << row;
+		rowFilled[row] &= ~colBit;
+		rowEmpty[row] &= ~colBit;
+		colFilled[col] &= ~rowBit;
+		colEmpty[col] &= ~rowBit;
+		if(value == 1)
+		{
+			rowFilled[row] |= colBit;
+			colFilled[col] |= rowBit;
+		}
+		else if(value == -1)
+		{
+			rowEmpty[row] |= colBit;
+			colEmpty[col] |= rowBit;
+		}
+	}
+
+	@Override
+	public int countInRow(int row, int value) {
+		if(value == 1)
+			return Integer.bitCount(rowFilled[row]);
+		if(value == -1)
+			return Integer.bitCount(rowEmpty[row]);
+		return Integer.bitCount(lineMask & ~(rowFilled[row] | rowEmpty[row]));
+	}
+
+	@Override
+	public int countInCol(int col, int value) {
+		if(value == 1)
+			return Integer.bitCount(colFilled[col]);
+		if(value == -1)
+			return Integer.bitCount(colEmpty[col]);
+		return Integer.bitCount(lineMask & ~(colFilled[col] | colEmpty[col]));
+	}
+
+	@Override
+	public boolean sameTiles(TileGrid other) {
+		if(other instanceof LineMaskTileGrid)
+		{
+			LineMaskTileGrid otherMasks = (LineMaskTileGrid) other;
+			for(int i = 0; i < size; i++)
+				if(rowFilled[i] != otherMasks.rowFilled[i] || rowEmpty[i] != otherMasks.rowEmpty[i])
+					return false;
+			return true;
+		}
+		return super.sameTiles(other);
+	}
+
+	/** Getter for the mask of filled tiles in a row
+	 *
+	 * @param row The row
+	 * @return A mask with bit col set for every filled tile in the row
+	 */
+	public int getRowFilledMask(int row) {
+		return rowFilled[row];
+	}
+
+	/** Getter for the mask of empty tiles in a row
+	 *
+	 * @param row The row
+	 * @return A mask with bit col set for every empty tile in the row
+	 */
+	public int getRowEmptyMask(int row) {
+		return rowEmpty[row];
+	}
+
+	/** Getter for the mask of filled tiles in a column
+	 *
+	 * @param col The column
+	 * @return A mask with bit row set for every filled tile in the column
+	 */
+	public int getColFilledMask(int col) {
+		return colFilled[col];
+	}
+
+	/** Getter for the mask of empty tiles in a column
+	 *
+	 * @param col The column
+	 * @return A mask with bit row set for every empty tile in the column
+	 */
+	public int getColEmptyMask(int col) {
+		return colEmpty[col];
+	}
+}
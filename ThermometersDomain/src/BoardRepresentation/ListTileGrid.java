@@ -0,0 +1,63 @@
+package BoardRepresentation;
+
+import java.util.ArrayList;
+
+/** The original tile storage for a board: one list of fills per row.
+ *    Works for any board size, and is used whenever the bitboard version can't be.
+ *
+ * @author Skularach
+ *
+ */
+public class ListTileGrid extends TileGrid
+{
+	//Current values of the tiles, stored as grid.get(row).get(col)
+	private ArrayList<ArrayList<Integer>> grid;
+
+	/** Constructor.  Creates a size x size grid with every tile set to unknown (0)
+	 *
+	 * @param size The width/height of the grid
+	 */
+	public ListTileGrid(int size)
+	{
+		grid = new ArrayList<ArrayList<Integer>>();
+		for(int i = 0; i < size; i++)
+		{
+			grid.add(new ArrayList<Integer>());
+			for(int j = 0; j < size; j++)
+				grid.get(i).add(0);
+		}
+	}
+
+	@Override
+	public int size() {
+		return grid.size();
+	}
+
+	@Override
+	public int get(int row, int col) {
+		return grid.get(row).get(col);
+	}
+
+	@Override
+	void set(int row, int col, int value) {
+		grid.get(row).set(col, value);
+	}
+
+	@Override
+	public int countInRow(int row, int value) {
+		int count = 0;
+		for(int j = 0; j < grid.size(); j++)
+			if(grid.get(row).get(j) == value)
+				count++;
+		return count;
+	}
+
+	@Override
+	public int countInCol(int col, int value) {
+		int count = 0;
+		for(int i = 0; i < grid.size(); i++)
+			if(grid.get(i).get(col) == value)
+				count++;
+		return count;
+	}
+}
@@ -0,0 +1,237 @@
+package BoardRepresentation;
+
+/** This library converts the 3 character String codes for thermometer pieces (see BoardFileIO.java)
+ *    into single bytes and back.  Boards decode their codes once, when their layout is made, and everything
+ *    that runs while a board is being solved works on the bytes instead of taking Strings apart.
+ *
+ *    Layout of a code byte:
+ *        bits 0-1: the type of the piece (TYPE_BULB, TYPE_TUBE, TYPE_CAP, or TYPE_NONE if not recognised)
+ *        bits 2-4: the orientation of the piece (UP, RIGHT, DOWN, LEFT, HORIZONTAL, VERTICAL, or NO_ORIENTATION)
+ *        bit 5: set if the piece is filled when the board is solved
+ *
+ * @author Skularach
+ *
+ */
+public class PieceCodes
+{
+	//Types of piece
+	public static final int TYPE_NONE = 0;
+	public static final int TYPE_BULB = 1;
+	public static final int TYPE_TUBE = 2;
+	public static final int TYPE_CAP = 3;
+
+	//Orientations.  For bulbs and caps this is the direction the part that connects to the rest of the thermometer faces.
+	public static final int NO_ORIENTATION = 0;
+	public static final int UP = 1;
+	public static final int RIGHT = 2;
+	public static final int DOWN = 3;
+	public static final int LEFT = 4;
+	public static final int HORIZONTAL = 5;
+	public static final int VERTICAL = 6;
+
+	private static final int TYPE_MASK = 0x3;
+	private static final int ORIENTATION_SHIFT = 2;
+	private static final int ORIENTATION_MASK = 0x7;
+	private static final int FILLED_BIT = 0x20;
+
+	//Letters for the types and orientations above, indexed by their values
+	private static final char[] TYPE_LETTERS = {'-', 'B', 'T', 'C'};
+	private static final char[] ORIENTATION_LETTERS = {'-', 'U', 'R', 'D', 'L', 'H', 'V'};
+
+	//The thermometer piece feature values used by the Simple Thermometers instances, indexed by
+	//  [column ? 1 : 0][type | (orientation << 2)].  Column pieces are given as their row equivalents (BD becomes BR and so on),
+	//  and there is no solution fill on the end, so the learner never sees it.  null for pieces that can't appear in a line.
+	private static final String[][] LINE_FEATURES = new String[2][32];
+	static
+	{
+		for(int type = TYPE_BULB; type <= TYPE_CAP; type++)
+			for(int orientation = UP; orientation <= VERTICAL; orientation++)
+			{
+				int index = type | (orientation << ORIENTATION_SHIFT);
+				LINE_FEATURES[0][index] = ("" + TYPE_LETTERS[type] + ORIENTATION_LETTERS[orientation]).intern();
+				LINE_FEATURES[1][index] = ("" + TYPE_LETTERS[type] + ORIENTATION_LETTERS[toRowOrientation(orientation)]).intern();
+			}
+	}
+
+	/** Turn a String code into a code byte.  Codes that aren't recognised get TYPE_NONE and/or NO_ORIENTATION,
+	 *    and are taken to be filled in the solution unless they end in E, the same as the String codes always were.
+	 *
+	 * @param code The String code, for example "BRF"
+	 * @return The code byte
+	 */
+	public static byte encode(String code)
+	{
+		int type = TYPE_NONE;
+		int orientation = NO_ORIENTATION;
+		if(code.length() > 0)
+			type = indexOf(TYPE_LETTERS, code.charAt(0), TYPE_NONE);
+		if(code.length() > 1)
+			orientation = indexOf(ORIENTATION_LETTERS, code.charAt(1), NO_ORIENTATION);
+		boolean filled = !code.endsWith("E");
+		return make(type, orientation, filled);
+	}
+
+	/** Turn the 3 letters of a code into a code byte, strictly: unlike encode(String), letters that don't
+	 *    belong in a code are rejected.  A dash is allowed for the type or orientation, for tiles that aren't
+	 *    part of a thermometer.
+	 *
+	 * @param typeLetter The first letter of the code (B, T, C or -)
+	 * @param orientationLetter The second letter of the code (U, R, D, L, H, V or -)
+	 * @param fillLetter The last letter of the code (F or E)
+	 * @return The code byte, or -1 if any of the letters are not valid
+	 */
+	public static int parse(char typeLetter, char orientationLetter, char fillLetter)
+	{
+		int type = indexOf(TYPE_LETTERS, typeLetter, -1);
+		if(type == -1 && typeLetter == TYPE_LETTERS[TYPE_NONE])
+			type = TYPE_NONE;
+		int orientation = indexOf(ORIENTATION_LETTERS, orientationLetter, -1);
+		if(orientation == -1 && orientationLetter == ORIENTATION_LETTERS[NO_ORIENTATION])
+			orientation = NO_ORIENTATION;
+		if(type == -1 || orientation == -1 || (fillLetter != 'F' && fillLetter != 'E'))
+			return -1;
+		return make(type, orientation, fillLetter == 'F');
+	}
+
+	/** Turn a grid of String codes into a grid of code bytes
+	 *
+	 * @param stringGrid The String codes
+	 * @return The code bytes, in a new array
+	 */
+	public static byte[][] encode(String[][] stringGrid)
+	{
+		byte[][] codes = new byte[stringGrid.length][];
+		for(int i = 0; i < stringGrid.length; i++)
+		{
+			codes[i] = new byte[stringGrid[i].length];
+			for(int j = 0; j < stringGrid[i].length; j++)
+				codes[i][j] = encode(stringGrid[i][j]);
+		}
+		return codes;
+	}
+
+	/** Turn a code byte back into a String code.  Only meant for printing; unrecognised codes come out as dashes.
+	 *
+	 * @param code The code byte
+	 * @return The String code, for example "BRF"
+	 */
+	public static String decode(byte code)
+	{
+		return "" + TYPE_LETTERS[getType(code)] + ORIENTATION_LETTERS[getOrientation(code)] + (isFilledInSolution(code) ? 'F' : 'E');
+	}
+
+	/** Turn a grid of code bytes back into String codes
+	 *
+	 * @param codes The code bytes
+	 * @return The String codes, in a new array
+	 */
+	public static String[][] decode(byte[][] codes)
+	{
+		String[][] stringGrid = new String[codes.length][];
+		for(int i = 0; i < codes.length; i++)
+		{
+			stringGrid[i] = new String[codes[i].length];
+			for(int j = 0; j < codes[i].length; j++)
+				stringGrid[i][j] = decode(codes[i][j]);
+		}
+		return stringGrid;
+	}
+
+	/** Build a code byte from its parts
+	 *
+	 * @param type The type of the piece (TYPE_BULB etc.)
+	 * @param orientation The orientation of the piece (UP etc.)
+	 * @param filled True if the piece is filled when the board is solved
+	 * @return The code byte
+	 */
+	public static byte make(int type, int orientation, boolean filled)
+	{
+		return (byte)(type | (orientation << ORIENTATION_SHIFT) | (filled ? FILLED_BIT : 0));
+	}
+
+	/** Getter for the type of a piece
+	 *
+	 * @param code The code byte
+	 * @return TYPE_BULB, TYPE_TUBE, TYPE_CAP or TYPE_NONE
+	 */
+	public static int getType(byte code)
+	{
+		return code & TYPE_MASK;
+	}
+
+	/** Getter for the orientation of a piece
+	 *
+	 * @param code The code byte
+	 * @return UP, RIGHT, DOWN, LEFT, HORIZONTAL, VERTICAL or NO_ORIENTATION
+	 */
+	public static int getOrientation(byte code)
+	{
+		return (code >> ORIENTATION_SHIFT) & ORIENTATION_MASK;
+	}
+
+	/** Check whether a piece is filled in the solved board
+	 *
+	 * @param code The code byte
+	 * @return True if the piece is filled in the solution
+	 */
+	public static boolean isFilledInSolution(byte code)
+	{
+		return (code & FILLED_BIT) != 0;
+	}
+
+	/** Check whether a piece has the given type and orientation, ignoring its solution fill
+	 *
+	 * @param code The code byte
+	 * @param type The type to check for
+	 * @param orientation The orientation to check for
+	 * @return True if the piece matches
+	 */
+	public static boolean matches(byte code, int type, int orientation)
+	{
+		return (code & ~FILLED_BIT) == (type | (orientation << ORIENTATION_SHIFT));
+	}
+
+	/** Getter for the thermometer piece feature value of a piece, as used in the Simple Thermometers instances.
+	 *    Pieces in a column are given as their row equivalents (D becomes R, U becomes L and V becomes H),
+	 *    and the solution fill is left off.  The Strings are shared, so nothing is created.
+	 *
+	 * @param code The code byte
+	 * @param inColumn True if the piece is being looked at as part of a column
+	 * @return The feature value, for example "BR"
+	 */
+	public static String lineFeature(byte code, boolean inColumn)
+	{
+		return LINE_FEATURES[inColumn ? 1 : 0][code & ~FILLED_BIT];
+	}
+
+	/** Convert a column orientation into the matching row orientation
+	 *
+	 * @param orientation The orientation of a piece in a column
+	 * @return The same orientation turned to lie along a row
+	 */
+	private static int toRowOrientation(int orientation)
+	{
+		if(orientation == DOWN)
+			return RIGHT;
+		if(orientation == UP)
+			return LEFT;
+		if(orientation == VERTICAL)
+			return HORIZONTAL;
+		return orientation;
+	}
+
+	/** Find a letter in one of the letter tables
+	 *
+	 * @param letters The table
+	 * @param letter The letter to find
+	 * @param notFound The value to return if the letter isn't there
+	 * @return The index of the letter in the table
+	 */
+	private static int indexOf(char[] letters, char letter, int notFound)
+	{
+		for(int i = 1; i < letters.length; i++)
+			if(letters[i] == letter)
+				return i;
+		return notFound;
+	}
+}
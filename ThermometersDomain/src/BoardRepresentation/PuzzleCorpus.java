@@ -0,0 +1,256 @@
+package BoardRepresentation;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/** A whole set of puzzles of one size packed into a single binary file, so that loading a puzzle is just reading
+ *    a few bytes out of memory instead of finding and opening a text file.
+ *
+ *    File format (all ints big-endian):
+ *        int MAGIC
+ *        int VERSION
+ *        int board size (for example 5 for 5x5 boards)
+ *        int number of puzzles
+ *        then one record per puzzle, in puzzle number order: size * size code bytes (see PieceCodes.java), row by row
+ *
+ *    Every record is the same length, so puzzle n starts at HEADERBYTES + n * size * size.  The file is memory-mapped
+ *    when it is opened, so once its pages have been read in, loading a puzzle doesn't involve the file system at all.
+ *
+ *    To make a corpus from the text puzzles, run main (see below).  BoardFileIO uses the corpus automatically
+ *    when one exists, and falls back to the text files otherwise.
+ *
+ * @author Skularach
+ *
+ */
+public class PuzzleCorpus
+{
+	//Marks the start of a corpus file ("THMC")
+	public static final int MAGIC = 0x54484D43;
+	public static final int VERSION = 1;
+	public static final int HEADERBYTES = 16;
+
+	private final File file;
+	private final int boardSize;
+	private final int numPuzzles;
+	private final int recordBytes;
+	private final MappedByteBuffer buffer;
+
+	/** Constructor.  Opens and memory-maps a corpus file.
+	 *
+	 * @param file The corpus file
+	 * @throws IOException If the file can't be read or is not a corpus file
+	 */
+	public PuzzleCorpus(File file) throws IOException
+	{
+		this.file = file;
+		try(RandomAccessFile raf = new RandomAccessFile(file, "r"))
+		{
+			if(raf.length() < HEADERBYTES || raf.readInt() != MAGIC)
+				throw new IOException(file + " is not a puzzle corpus");
+			int version = raf.readInt();
+			if(version != VERSION)
+				throw new IOException(file + " is corpus version " + version + ", expected " + VERSION);
+			boardSize = raf.readInt();
+			numPuzzles = raf.readInt();
+			recordBytes = boardSize * boardSize;
+
+			long expectedLength = HEADERBYTES + (long) numPuzzles * recordBytes;
+			if(boardSize <= 0 || numPuzzles < 0 || raf.length() < expectedLength)
+				throw new IOException(file + " is truncated or has a bad header");
+			if(expectedLength > Integer.MAX_VALUE)
+				throw new IOException(file + " is too big to map in one piece");
+
+			//The mapping stays valid after the file is closed
+			buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, expectedLength);
+		}
+	}
+
+	/** Getter for the width/height of the puzzles in this corpus
+	 *
+	 * @return The board size
+	 */
+	public int getBoardSize() {
+		return boardSize;
+	}
+
+	/** Getter for the number of puzzles in this corpus
+	 *
+	 * @return The number of puzzles; puzzle numbers go from 0 to this minus 1
+	 */
+	public int getNumPuzzles() {
+		return numPuzzles;
+	}
+
+	/** Getter for the file this corpus was loaded from
+	 *
+	 * @return The corpus file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/** Check whether a puzzle number is in this corpus
+	 *
+	 * @param puzzleNum The puzzle number
+	 * @return True if the puzzle can be loaded from this corpus
+	 */
+	public boolean contains(int puzzleNum) {
+		return puzzleNum >= 0 && puzzleNum < numPuzzles;
+	}
+
+	/** Load the code bytes of one puzzle.  Only uses absolute reads of the mapped buffer, so any number
+	 *    of threads can load puzzles at once.
+	 *
+	 * @param puzzleNum The puzzle number
+	 * @return The code bytes for the puzzle (see PieceCodes.java), in a new array
+	 */
+	public byte[][] getPieceGrid(int puzzleNum)
+	{
+		if(!contains(puzzleNum))
+			throw new IndexOutOfBoundsException("Puzzle " + puzzleNum + " is not in " + file + " (" + numPuzzles + " puzzles)");
+
+		byte[][] pieceGrid = new byte[boardSize][boardSize];
+		int offset = HEADERBYTES + puzzleNum * recordBytes;
+		for(int i = 0; i < boardSize; i++)
+			for(int j = 0; j < boardSize; j++)
+				pieceGrid[i][j] = buffer.get(offset++);
+		return pieceGrid;
+	}
+
+	/** Work out a checksum of the first numPuzzles puzzles, to tell whether something made from them (such as
+	 *    a PuzzleIndex) still matches this corpus.  It is the CRC-32 of their code bytes, record by record, so it
+	 *    can also be worked out from the same puzzles loaded some other way.
+	 *
+	 * @param numPuzzles How many puzzles to include, starting from puzzle 0
+	 * @return The checksum
+	 */
+	public long getChecksum(int numPuzzles)
+	{
+		if(numPuzzles < 0 || numPuzzles > this.numPuzzles)
+			throw new IndexOutOfBoundsException("Can't checksum " + numPuzzles + " puzzles of " + file + " (" + this.numPuzzles + " puzzles)");
+
+		//A duplicate has its own position and limit, so other threads reading the buffer aren't affected
+		ByteBuffer records = buffer.duplicate();
+		records.position(HEADERBYTES);
+		records.limit(HEADERBYTES + numPuzzles * recordBytes);
+		CRC32 crc = new CRC32();
+		crc.update(records);
+		return crc.getValue();
+	}
+
+	/** Get the default location of the corpus for a board size, next to the text puzzles:
+	 *    the program's working directory /Puzzles/5x5.corpus for the 5x5 boards, and so on.
+	 *
+	 * @param boardSize The width/height of the boards
+	 * @return The corpus file (which may not exist)
+	 */
+	public static File defaultFile(int boardSize)
+	{
+		return new File(System.getProperty("user.dir") + "/Puzzles/" + boardSize + "x" + boardSize + ".corpus");
+	}
+
+	/** Pack puzzles from the text files into a corpus file.  The corpus is written to a temporary file next to out,
+	 *    which only replaces out once every puzzle has been packed, so a pack that fails part of the way through
+	 *    leaves whatever was in out before untouched.
+	 *
+	 * @param boardSize The width/height of the boards
+	 * @param numPuzzles How many puzzles to pack, starting from puzzle 0
+	 * @param out The corpus file to write
+	 * @throws IOException If the corpus can't be written, or a puzzle file is the wrong size
+	 * @throws PuzzleFormatException If a puzzle file is missing or not a valid puzzle
+	 */
+	public static void pack(int boardSize, int numPuzzles, File out) throws IOException
+	{
+		File temp = File.createTempFile(out.getName() + ".", ".tmp", out.getAbsoluteFile().getParentFile());
+		boolean packed = false;
+		try
+		{
+			writeRecords(boardSize, numPuzzles, temp);
+			try
+			{
+				Files.move(temp.toPath(), out.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch(AtomicMoveNotSupportedException e)
+			{
+				Files.move(temp.toPath(), out.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			packed = true;
+		}
+		finally
+		{
+			if(!packed)
+				temp.delete();
+		}
+	}
+
+	/** Write the header and every puzzle's record to a corpus file, for pack
+	 *
+	 * @param boardSize The width/height of the boards
+	 * @param numPuzzles How many puzzles to pack, starting from puzzle 0
+	 * @param out The file to write
+	 * @throws IOException If the file can't be written, or a puzzle file is the wrong size
+	 * @throws PuzzleFormatException If a puzzle file is missing or not a valid puzzle
+	 */
+	private static void writeRecords(int boardSize, int numPuzzles, File out) throws IOException
+	{
+		try(DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(out), 1 << 16)))
+		{
+			writeHeader(stream, boardSize, numPuzzles);
+
+			for(int n = 0; n < numPuzzles; n++)
+			{
+				byte[][] pieceGrid = BoardFileIO.readPieceGridFromFile(BoardFileIO.getPuzzleFile(boardSize, n));
+				if(pieceGrid.length != boardSize)
+					throw new IOException("Puzzle " + n + " is " + pieceGrid.length + " tiles wide, expected " + boardSize);
+				for(int i = 0; i < boardSize; i++)
+					stream.write(pieceGrid[i]);
+			}
+		}
+	}
+
+	/** Write the header of a corpus file.  It should be followed by exactly numPuzzles records of
+	 *    boardSize * boardSize code bytes each.
+	 *
+	 * @param stream Where to write the header
+	 * @param boardSize The width/height of the puzzles
+	 * @param numPuzzles The number of puzzles that will follow
+	 * @throws IOException If the header can't be written
+	 */
+	public static void writeHeader(DataOutputStream stream, int boardSize, int numPuzzles) throws IOException
+	{
+		stream.writeInt(MAGIC);
+		stream.writeInt(VERSION);
+		stream.writeInt(boardSize);
+		stream.writeInt(numPuzzles);
+	}
+
+	/** Converter.  Packs the text puzzles of one size into the default corpus file for that size.
+	 *
+	 * @param args The board size, and optionally the number of puzzles (every text puzzle of that size if left out)
+	 * @throws IOException If the corpus can't be written, or there are no text puzzles of that size
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		int boardSize = args.length > 0 ? Integer.parseInt(args[0]) : Board.DEFAULTBOARDSIZE;
+		int numPuzzles = args.length > 1 ? Integer.parseInt(args[1]) : BoardFileIO.getNumTextBoards(boardSize);
+		File out = defaultFile(boardSize);
+		if(numPuzzles == 0)
+			throw new IOException("There are no " + boardSize + "x" + boardSize + " text puzzles in " + BoardFileIO.getPuzzleFile(boardSize, 0).getParent());
+
+		long start = System.currentTimeMillis();
+		pack(boardSize, numPuzzles, out);
+		System.out.println("Packed " + numPuzzles + " " + boardSize + "x" + boardSize + " puzzles into " + out
+				+ " in " + (System.currentTimeMillis() - start) + "ms");
+	}
+}
@@ -0,0 +1,58 @@
+package BoardRepresentation;
+
+import java.io.File;
+
+/** Thrown when a puzzle file can't be read, or doesn't hold a square grid of valid piece codes.
+ *    Says which file, and which line of it, the problem was found on.
+ *
+ * @author Skularach
+ *
+ */
+public class PuzzleFormatException extends RuntimeException
+{
+	private static final long serialVersionUID = 1L;
+
+	private final File file;
+	private final int lineNumber;
+
+	/** Constructor.
+	 *
+	 * @param file The puzzle file
+	 * @param lineNumber The line the problem was found on, counting from 1 (0 if it isn't about a single line)
+	 * @param message What was wrong
+	 * @param cause The underlying exception, or null
+	 */
+	public PuzzleFormatException(File file, int lineNumber, String message, Throwable cause)
+	{
+		super(file + (lineNumber > 0 ? ", line " + lineNumber : "") + ": " + message, cause);
+		this.file = file;
+		this.lineNumber = lineNumber;
+	}
+
+	/** Constructor.
+	 *
+	 * @param file The puzzle file
+	 * @param lineNumber The line the problem was found on, counting from 1 (0 if it isn't about a single line)
+	 * @param message What was wrong
+	 */
+	public PuzzleFormatException(File file, int lineNumber, String message)
+	{
+		this(file, lineNumber, message, null);
+	}
+
+	/** Getter for the puzzle file
+	 *
+	 * @return The file that couldn't be read
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/** Getter for the line the problem was found on
+	 *
+	 * @return The line number, counting from 1, or 0 if the problem isn't about a single line
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+}
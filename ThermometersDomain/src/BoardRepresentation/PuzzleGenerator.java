@@ -0,0 +1,303 @@
+package BoardRepresentation;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import Utilities.RandomStreams;
+
+/** This library makes new Thermometers puzzles of any size, in the same string code format as the puzzle files
+ *    (see BoardFileIO.java for what the codes mean), or as code bytes (see PieceCodes.java).  The boards are covered
+ *    completely by straight thermometers of at least 2 tiles, each filled to a random level, so every generated
+ *    board has at least one solution.  The row and column counts are whatever that fill gives.
+ *
+ *    randomPuzzle doesn't check whether that is the only solution, so the rule based demonstrators will not always
+ *    be able to finish its boards.  randomUniquePuzzle keeps trying until it finds a board with exactly one solution,
+ *    and writeCorpus makes whole corpora of those, spread over all cores.
+ *
+ * @author Skularach
+ *
+ */
+public class PuzzleGenerator
+{
+	//How many puzzles writeCorpus makes at once before writing them out
+	private static final int CORPUSBLOCK = 1 << 14;
+
+	//A board being generated: its code bytes, its thermometers and its row and column counts
+	private static final class Candidate
+	{
+		final int size;
+		final byte[][] pieces;
+
+		//Tiles of each thermometer from the bulb to the cap, as rows and columns
+		final int[][] thermRows;
+		final int[][] thermCols;
+		int numTherms = 0;
+
+		//Row and column counts for the fill the board was generated with
+		final int[] rowTarget;
+		final int[] colTarget;
+
+		Candidate(int size)
+		{
+			this.size = size;
+			pieces = new byte[size][size];
+			thermRows = new int[size * size / 2][];
+			thermCols = new int[size * size / 2][];
+			rowTarget = new int[size];
+			colTarget = new int[size];
+		}
+	}
+
+	/** Make a random puzzle.  Always returns the same puzzle for the same size and random generator state.
+	 *
+	 * @param size The width/height of the board.  Must be at least 2.
+	 * @param rand The random number generator to use
+	 * @return The string codes for the board, with the correct fill as the last letter of each code
+	 */
+	public static String[][] randomPuzzle(int size, Random rand)
+	{
+		return PieceCodes.decode(randomPieceGrid(size, rand));
+	}
+
+	/** Same as randomPuzzle, but returns code bytes instead of string codes
+	 *
+	 * @param size The width/height of the board.  Must be at least 2.
+	 * @param rand The random number generator to use
+	 * @return The code bytes for the board (see PieceCodes.java)
+	 */
+	public static byte[][] randomPieceGrid(int size, Random rand)
+	{
+		return randomCandidate(size, rand).pieces;
+	}
+
+	/** Make a random puzzle that has exactly one solution.  Always returns the same puzzle for the same size and
+	 *    random generator state.  Boards with more than one solution are thrown away, which makes this slower the
+	 *    bigger the board is.
+	 *
+	 * @param size The width/height of the board.  Must be at least 2.
+	 * @param rand The random number generator to use
+	 * @return The string codes for the board, with the correct fill as the last letter of each code
+	 */
+	public static String[][] randomUniquePuzzle(int size, Random rand)
+	{
+		return PieceCodes.decode(randomUniquePieceGrid(size, rand));
+	}
+
+	/** Same as randomUniquePuzzle, but returns code bytes instead of string codes
+	 *
+	 * @param size The width/height of the board.  Must be at least 2.
+	 * @param rand The random number generator to use
+	 * @return The code bytes for the board (see PieceCodes.java)
+	 */
+	public static byte[][] randomUniquePieceGrid(int size, Random rand)
+	{
+		while(true)
+		{
+			Candidate candidate = randomCandidate(size, rand);
+			//The solver only sees the thermometers and the counts, never the fill the board was made with
+			PuzzleSolver solver = new PuzzleSolver(size, candidate.thermRows, candidate.thermCols, candidate.rowTarget, candidate.colTarget);
+			if(solver.hasUniqueSolution())
+				return candidate.pieces;
+		}
+	}
+
+	/** Make a whole corpus of puzzles with exactly one solution, in the binary corpus format (see PuzzleCorpus.java).
+	 *    Puzzle n is made from its own random stream (see RandomStreams.java), so the corpus is the same for the same
+	 *    seed however many cores it is made on.
+	 *
+	 * @param size The width/height of the boards.  Must be at least 2.
+	 * @param numPuzzles How many puzzles to make
+	 * @param seed The master seed for the corpus
+	 * @param out The corpus file to write
+	 * @throws IOException If the corpus can't be written
+	 */
+	public static void writeCorpus(final int size, int numPuzzles, long seed, File out) throws IOException
+	{
+		final RandomStreams streams = new RandomStreams(seed);
+		final int recordBytes = size * size;
+		final byte[] block = new byte[CORPUSBLOCK * recordBytes];
+
+		try(DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(out), 1 << 16)))
+		{
+			PuzzleCorpus.writeHeader(stream, size, numPuzzles);
+			for(int blockStart = 0; blockStart < numPuzzles; blockStart += CORPUSBLOCK)
+			{
+				final int first = blockStart;
+				int blockSize = Math.min(CORPUSBLOCK, numPuzzles - blockStart);
+
+				//Make the puzzles in this block in parallel, each into its own part of the block
+				IntStream.range(0, blockSize).parallel().forEach(new IntConsumer()
+				{
+					@Override
+					public void accept(int i)
+					{
+						byte[][] pieces = randomUniquePieceGrid(size, streams.random(RandomStreams.STREAM_GENERATOR, first + i));
+						for(int row = 0; row < size; row++)
+							System.arraycopy(pieces[row], 0, block, i * recordBytes + row * size, size);
+					}
+				});
+				stream.write(block, 0, blockSize * recordBytes);
+			}
+		}
+	}
+
+	/** Corpus maker.  Writes a corpus of puzzles with exactly one solution.  By default it goes to its own file
+	 *    (see generatedFile), never to the corpus BoardFileIO loads puzzles from; to use the new puzzles, move the file
+	 *    to PuzzleCorpus.defaultFile(size) or give that as the output file.
+	 *
+	 * @param args The board size (5 if left out), the number of puzzles (168000 if left out),
+	 *             the seed (RandomStreams.DEFAULTSEED if left out) and the file to write (generatedFile if left out)
+	 * @throws IOException If the corpus can't be written
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : Board.DEFAULTBOARDSIZE;
+		int numPuzzles = args.length > 1 ? Integer.parseInt(args[1]) : BoardFileIO.getTotalNumBoards();
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : RandomStreams.DEFAULTSEED;
+		File out = args.length > 3 ? new File(args[3]) : generatedFile(size, seed);
+		out.getAbsoluteFile().getParentFile().mkdirs();
+
+		long start = System.nanoTime();
+		writeCorpus(size, numPuzzles, seed, out);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.println("Wrote " + numPuzzles + " unique " + size + "x" + size + " puzzles to " + out + " in "
+				+ String.format("%.2f", seconds) + "s (" + Math.round(numPuzzles / seconds) + " puzzles/s)");
+	}
+
+	/** Get the file main writes generated puzzles to when it isn't given one: the program's working directory
+	 *    /Puzzles/5x5-gen-SEED.corpus for 5x5 puzzles, and so on.  That is next to the default corpus for the size,
+	 *    but never the same file, so generating puzzles can't replace the ones experiments are run on.
+	 *
+	 * @param size The width/height of the puzzles
+	 * @param seed The seed the puzzles are generated from
+	 * @return The corpus file (which may not exist)
+	 */
+	public static File generatedFile(int size, long seed)
+	{
+		return new File(System.getProperty("user.dir") + "/Puzzles/" + size + "x" + size + "-gen-" + seed + ".corpus");
+	}
+
+	/** Make a random board, keeping track of its thermometers and its row and column counts
+	 *
+	 * @param size The width/height of the board.  Must be at least 2.
+	 * @param rand The random number generator to use
+	 * @return The board
+	 */
+	private static Candidate randomCandidate(int size, Random rand)
+	{
+		if(size < 2)
+			throw new IllegalArgumentException("Boards must be at least 2x2 to hold a thermometer");
+
+		//Lay thermometers down in reading order.  If we ever reach a free tile with no room for a thermometer
+		//  going right or down, throw the board away and start again; this is rare enough to be cheap even at 30x30.
+		while(true)
+		{
+			Candidate candidate = new Candidate(size);
+			if(tryFill(candidate, rand))
+				return candidate;
+		}
+	}
+
+	/** Attempt to cover a board with thermometers
+	 *
+	 * @param candidate The (empty) board to cover
+	 * @param rand The random number generator to use
+	 * @return True if every tile got covered, false if a tile was left with nowhere to go
+	 */
+	private static boolean tryFill(Candidate candidate, Random rand)
+	{
+		int size = candidate.size;
+		byte[][] codes = candidate.pieces;
+		for(int i = 0; i < size; i++)
+			for(int j = 0; j < size; j++)
+			{
+				if(codes[i][j] != 0)
+					continue;
+
+				//How far a thermometer starting here could reach to the right and downwards
+				int maxAcross = 0;
+				while(j + maxAcross < size && codes[i][j + maxAcross] == 0)
+					maxAcross++;
+				int maxDown = 0;
+				while(i + maxDown < size && codes[i + maxDown][j] == 0)
+					maxDown++;
+
+				if(maxAcross < 2 && maxDown < 2)
+					return false;
+
+				boolean across;
+				if(maxAcross < 2)
+					across = false;
+				else if(maxDown < 2)
+					across = true;
+				else
+					across = rand.nextBoolean();
+
+				int max = across ? maxAcross : maxDown;
+				int length = 2 + rand.nextInt(max - 1);
+				int level = rand.nextInt(length + 1);
+				boolean bulbFirst = rand.nextBoolean();
+				placeThermometer(candidate, i, j, across, length, level, bulbFirst);
+			}
+		return true;
+	}
+
+	/** Write the codes for one thermometer onto the board, and record its tiles and its part of the row and column counts.
+	 *    Every code written is nonzero, since every piece has a type, which is how tryFill tells covered tiles apart.
+	 *
+	 * @param candidate The board
+	 * @param row The row of the top/left end of the thermometer
+	 * @param col The column of the top/left end of the thermometer
+	 * @param across True for a thermometer running left-right, false for one running up-down
+	 * @param length How many tiles the thermometer covers
+	 * @param level How many tiles of the thermometer, counting from the bulb, are filled in the solution
+	 * @param bulbFirst True if the bulb is at the top/left end
+	 */
+	private static void placeThermometer(Candidate candidate, int row, int col, boolean across, int length, int level, boolean bulbFirst)
+	{
+		int[] rows = new int[length];
+		int[] cols = new int[length];
+		for(int k = 0; k < length; k++)
+		{
+			int fromBulb = bulbFirst ? k : length - 1 - k;
+			boolean filled = fromBulb < level;
+
+			int type;
+			int orientation;
+			if(k == 0 || k == length - 1)
+			{
+				//The top/left end points right or down into the thermometer, and the other end points back
+				type = (k == 0) == bulbFirst ? PieceCodes.TYPE_BULB : PieceCodes.TYPE_CAP;
+				if(across)
+					orientation = k == 0 ? PieceCodes.RIGHT : PieceCodes.LEFT;
+				else
+					orientation = k == 0 ? PieceCodes.DOWN : PieceCodes.UP;
+			}
+			else
+			{
+				type = PieceCodes.TYPE_TUBE;
+				orientation = across ? PieceCodes.HORIZONTAL : PieceCodes.VERTICAL;
+			}
+
+			int r = across ? row : row + k;
+			int c = across ? col + k : col;
+			candidate.pieces[r][c] = PieceCodes.make(type, orientation, filled);
+			rows[fromBulb] = r;
+			cols[fromBulb] = c;
+			if(filled)
+			{
+				candidate.rowTarget[r]++;
+				candidate.colTarget[c]++;
+			}
+		}
+		candidate.thermRows[candidate.numTherms] = rows;
+		candidate.thermCols[candidate.numTherms] = cols;
+		candidate.numTherms++;
+	}
+}
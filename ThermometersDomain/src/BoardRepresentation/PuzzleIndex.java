@@ -0,0 +1,315 @@
+package BoardRepresentation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.zip.CRC32;
+
+/** A small table of facts about every puzzle of one size, so that puzzles can be picked by those facts
+ *    (for curriculum or stratified experiments) without loading or solving any of them.
+ *
+ *    For each puzzle the index holds:
+ *        PROPERTY_THERMOMETERS: the number of thermometers on the board
+ *        PROPERTY_LONGEST: the number of tiles in the longest thermometer
+ *        PROPERTY_FILLED: the number of tiles that are filled in the solution
+ *        PROPERTY_MOVES: how many moves the Complex Thermometers demonstrator takes to solve the board,
+ *                        or UNSOLVED if it gets stuck
+ *
+ *    The index is built once (see Main/BuildPuzzleIndex.java) and saved next to the puzzles, as Puzzles/5x5.index
+ *    for the 5x5 boards and so on.  File format (all big-endian): int MAGIC, int VERSION, int board size,
+ *    int number of puzzles, int number of puzzles there were to index, long checksum of the indexed puzzles (see
+ *    checksumPuzzles), then each property in turn for every puzzle (shorts, except the longest thermometer which is
+ *    a byte), so the whole file reads straight into arrays.
+ *
+ *    An index only describes the puzzles it was built from, so when it is read it is checked against the corpus for
+ *    its size (if there is one): the corpus must still have the same number of puzzles and the same checksum.
+ *
+ *    Queries return puzzle numbers, in increasing order.  To keep to the training boards only, combine a query with
+ *    BoardFileIO.getBoardNumbering(size).order.indexOf(puzzleNum) < BoardFileIO.getBoardNumbering(size).maxTrainingLevel.
+ *
+ * @author Skularach
+ *
+ */
+public class PuzzleIndex
+{
+	//Marks the start of an index file ("THMI")
+	public static final int MAGIC = 0x54484D49;
+	public static final int VERSION = 2;
+
+	//The facts that are kept about each puzzle
+	public static final int PROPERTY_THERMOMETERS = 0;
+	public static final int PROPERTY_LONGEST = 1;
+	public static final int PROPERTY_FILLED = 2;
+	public static final int PROPERTY_MOVES = 3;
+
+	//Number of demonstrator moves stored for a board the demonstrator can't solve
+	public static final int UNSOLVED = -1;
+
+	private final int boardSize;
+	private final int numPuzzles;
+
+	//How many puzzles of this size there were when the index was built, and the checksum of the ones indexed
+	private int sourceNumPuzzles;
+	private long sourceChecksum;
+
+	private final short[] numThermometers;
+	private final byte[] longestThermometer;
+	private final short[] numFilled;
+	private final short[] demonstratorMoves;
+
+	/** Constructor.  Makes an empty index, to be filled in with setEntry.
+	 *
+	 * @param boardSize The width/height of the puzzles
+	 * @param numPuzzles The number of puzzles
+	 */
+	public PuzzleIndex(int boardSize, int numPuzzles)
+	{
+		this.boardSize = boardSize;
+		this.numPuzzles = numPuzzles;
+		sourceNumPuzzles = numPuzzles;
+		numThermometers = new short[numPuzzles];
+		longestThermometer = new byte[numPuzzles];
+		numFilled = new short[numPuzzles];
+		demonstratorMoves = new short[numPuzzles];
+		Arrays.fill(demonstratorMoves, (short) UNSOLVED);
+	}
+
+	/** Fill in the facts for one puzzle.  Different puzzles can be filled in from different threads at once.
+	 *
+	 * @param puzzleNum The puzzle number
+	 * @param layout The layout of the puzzle
+	 * @param moves How many moves the Complex Thermometers demonstrator took to solve it, or UNSOLVED
+	 */
+	public void setEntry(int puzzleNum, BoardLayout layout, int moves)
+	{
+		ThermometerTopology topology = layout.getThermTopology();
+		int longest = 0;
+		for(int i = 0; i < topology.getNumThermometers(); i++)
+			longest = Math.max(longest, topology.getThermometer(i).size());
+
+		int filled = 0;
+		for(int count : layout.getRowCounts())
+			filled += count;
+
+		numThermometers[puzzleNum] = (short) topology.getNumThermometers();
+		longestThermometer[puzzleNum] = (byte) longest;
+		numFilled[puzzleNum] = (short) filled;
+		demonstratorMoves[puzzleNum] = (short) Math.min(moves, Short.MAX_VALUE);
+	}
+
+	/** Record which puzzles the index was built from, so that it can be checked against them when it is read
+	 *
+	 * @param numPuzzlesIn How many puzzles of this size there were to index
+	 * @param checksum The checksum of the puzzles indexed (see checksumPuzzles)
+	 */
+	public void setSource(int numPuzzlesIn, long checksum)
+	{
+		sourceNumPuzzles = numPuzzlesIn;
+		sourceChecksum = checksum;
+	}
+
+	/** Getter for the width/height of the puzzles in this index
+	 *
+	 * @return The board size
+	 */
+	public int getBoardSize() {
+		return boardSize;
+	}
+
+	/** Getter for the number of puzzles in this index
+	 *
+	 * @return The number of puzzles; puzzle numbers go from 0 to this minus 1
+	 */
+	public int getNumPuzzles() {
+		return numPuzzles;
+	}
+
+	/** Getter for how many puzzles of this size there were when the index was built
+	 *
+	 * @return The number of puzzles there were to index
+	 */
+	public int getSourceNumPuzzles() {
+		return sourceNumPuzzles;
+	}
+
+	/** Getter for the checksum of the puzzles the index was built from
+	 *
+	 * @return The checksum (see checksumPuzzles)
+	 */
+	public long getSourceChecksum() {
+		return sourceChecksum;
+	}
+
+	/** Get one fact about a puzzle
+	 *
+	 * @param property Which fact (one of the PROPERTY_ constants)
+	 * @param puzzleNum The puzzle number
+	 * @return The value of that fact for the puzzle
+	 */
+	public int get(int property, int puzzleNum)
+	{
+		switch(property)
+		{
+			case PROPERTY_THERMOMETERS:
+				return numThermometers[puzzleNum];
+			case PROPERTY_LONGEST:
+				return longestThermometer[puzzleNum];
+			case PROPERTY_FILLED:
+				return numFilled[puzzleNum];
+			case PROPERTY_MOVES:
+				return demonstratorMoves[puzzleNum];
+			default:
+				throw new IllegalArgumentException("Unknown puzzle property " + property);
+		}
+	}
+
+	/** Find every puzzle that passes a test
+	 *
+	 * @param test Given a puzzle number, returns true if that puzzle should be included
+	 * @return The numbers of the puzzles that pass, in increasing order
+	 */
+	public int[] find(IntPredicate test)
+	{
+		int[] found = new int[16];
+		int numFound = 0;
+		for(int n = 0; n < numPuzzles; n++)
+		{
+			if(!test.test(n))
+				continue;
+			if(numFound == found.length)
+				found = Arrays.copyOf(found, found.length * 2);
+			found[numFound++] = n;
+		}
+		return Arrays.copyOf(found, numFound);
+	}
+
+	/** Find every puzzle where one fact is within a range
+	 *
+	 * @param property Which fact (one of the PROPERTY_ constants)
+	 * @param min The smallest value to include
+	 * @param max The largest value to include
+	 * @return The numbers of the matching puzzles, in increasing order
+	 */
+	public int[] findInRange(final int property, final int min, final int max)
+	{
+		return find(new IntPredicate()
+		{
+			@Override
+			public boolean test(int puzzleNum)
+			{
+				int value = get(property, puzzleNum);
+				return value >= min && value <= max;
+			}
+		});
+	}
+
+	/** Save the index
+	 *
+	 * @param file The file to write
+	 * @throws IOException If the file can't be written
+	 */
+	public void write(File file) throws IOException
+	{
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16)))
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(boardSize);
+			out.writeInt(numPuzzles);
+			out.writeInt(sourceNumPuzzles);
+			out.writeLong(sourceChecksum);
+			for(int n = 0; n < numPuzzles; n++)
+				out.writeShort(numThermometers[n]);
+			out.write(longestThermometer);
+			for(int n = 0; n < numPuzzles; n++)
+				out.writeShort(numFilled[n]);
+			for(int n = 0; n < numPuzzles; n++)
+				out.writeShort(demonstratorMoves[n]);
+		}
+	}
+
+	/** Load a saved index, checking it against the corpus for its size if there is one
+	 *
+	 * @param file The index file
+	 * @return The index
+	 * @throws IOException If the file can't be read, is not an index file, or was built from different puzzles
+	 *                     than the ones in the corpus
+	 */
+	public static PuzzleIndex read(File file) throws IOException
+	{
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16)))
+		{
+			if(in.readInt() != MAGIC)
+				throw new IOException(file + " is not a puzzle index");
+			int version = in.readInt();
+			if(version != VERSION)
+				throw new IOException(file + " is index version " + version + ", expected " + VERSION);
+			int boardSize = in.readInt();
+			int numPuzzles = in.readInt();
+			int sourceNumPuzzles = in.readInt();
+			long sourceChecksum = in.readLong();
+			if(boardSize <= 0 || numPuzzles < 0 || sourceNumPuzzles < numPuzzles)
+				throw new IOException(file + " has a bad header");
+
+			//Make sure the puzzles haven't changed since the index was built
+			PuzzleCorpus corpus = BoardFileIO.getCorpus(boardSize);
+			if(corpus != null)
+			{
+				if(corpus.getNumPuzzles() != sourceNumPuzzles)
+					throw new IOException(file + " was built from " + sourceNumPuzzles + " puzzles, but " + corpus.getFile()
+							+ " has " + corpus.getNumPuzzles() + "; rebuild the index");
+				if(corpus.getChecksum(numPuzzles) != sourceChecksum)
+					throw new IOException(file + " was built from different puzzles than the ones in " + corpus.getFile() + "; rebuild the index");
+			}
+
+			PuzzleIndex index = new PuzzleIndex(boardSize, numPuzzles);
+			index.setSource(sourceNumPuzzles, sourceChecksum);
+			for(int n = 0; n < numPuzzles; n++)
+				index.numThermometers[n] = in.readShort();
+			in.readFully(index.longestThermometer);
+			for(int n = 0; n < numPuzzles; n++)
+				index.numFilled[n] = in.readShort();
+			for(int n = 0; n < numPuzzles; n++)
+				index.demonstratorMoves[n] = in.readShort();
+			return index;
+		}
+	}
+
+	/** Work out the checksum of the first numPuzzles puzzles of one size, as they are loaded by BoardFileIO:
+	 *    the CRC-32 of their code bytes, puzzle by puzzle and row by row (the same as PuzzleCorpus.getChecksum).
+	 *
+	 * @param boardSize The width/height of the puzzles
+	 * @param numPuzzles How many puzzles to include, starting from puzzle 0
+	 * @return The checksum
+	 */
+	public static long checksumPuzzles(int boardSize, int numPuzzles)
+	{
+		PuzzleCorpus corpus = BoardFileIO.getCorpus(boardSize);
+		if(corpus != null && numPuzzles <= corpus.getNumPuzzles())
+			return corpus.getChecksum(numPuzzles);
+
+		CRC32 crc = new CRC32();
+		for(int n = 0; n < numPuzzles; n++)
+			for(byte[] row : BoardFileIO.loadPieceGridByNumber(boardSize, n))
+				crc.update(row);
+		return crc.getValue();
+	}
+
+	/** Get the default location of the index for a board size, next to the puzzles:
+	 *    the program's working directory /Puzzles/5x5.index for the 5x5 boards, and so on.
+	 *
+	 * @param boardSize The width/height of the boards
+	 * @return The index file (which may not exist)
+	 */
+	public static File defaultFile(int boardSize)
+	{
+		return new File(System.getProperty("user.dir") + "/Puzzles/" + boardSize + "x" + boardSize + ".index");
+	}
+}
@@ -0,0 +1,499 @@
+package BoardRepresentation;
+
+import java.util.List;
+
+/** Solves Thermometers puzzles using only what a player can see: the row and column counts and the layout of the
+ *    thermometers.  It never looks at the solution stored with a board, so it works on puzzles whose solution isn't known,
+ *    and it can tell whether a puzzle has exactly one solution.
+ *
+ *    Each thermometer is treated as a single unknown, its level: how many of its tiles, counting from the bulb, are filled
+ *    (0 to its length).  The levels each thermometer could still have are kept as a bitmask.  Every row and column
+ *    then gives a sum: the filled tiles that each thermometer crossing it puts there must add up to its count.  The
+ *    solver narrows the masks using the smallest and largest sums each line could still reach, until nothing more
+ *    can be ruled out, then picks the thermometer with the fewest levels left, tries each of them, and repeats.
+ *
+ *    Tiles that aren't part of any thermometer are treated as thermometers of a single tile, so they can be filled or not.
+ *
+ *    Boards up to about 15x15 usually take well under a millisecond.  Larger boards with several solutions can
+ *    occasionally take much longer, since line sums alone rule out little until most thermometers are settled.
+ *
+ *    A solver is not safe to use from several threads at once, but it is cheap to make one per thread (or per puzzle).
+ *
+ * @author Skularach
+ *
+ */
+public class PuzzleSolver
+{
+	private final int size;
+
+	//Tiles of each thermometer from the bulb to the cap, as rows and columns
+	private final int[][] thermRows;
+	private final int[][] thermCols;
+	private final int numTherms;
+
+	//Count for each line: rows are lines 0 to size-1, columns are lines size to 2*size-1
+	private final int[] lineTarget;
+
+	//For each line, the thermometers that cross it, and for each one either the position (from the bulb) of its one tile
+	//  on that line, or -1 if the whole thermometer lies along the line
+	private final int[][] lineTherms;
+	private final int[][] linePositions;
+
+	//For each thermometer, the lines it crosses
+	private final int[][] thermLines;
+
+	//Levels each thermometer could still have (bit l set if level l is possible), one array per search depth.
+	//  Arrays are made the first time a depth is reached and kept for later calls.
+	private final long[][] domainStack;
+
+	//Lines waiting to be checked during propagation
+	private final int[] lineQueue;
+	private final boolean[] lineQueued;
+
+	//Levels of the first solution found, or null if none has been found yet
+	private int[] solutionLevels = null;
+
+	//Number of search nodes visited by the last countSolutions call
+	private long numNodes = 0;
+
+	/** Constructor.  Sets up a solver for a board, using only its row and column counts and its thermometers.
+	 *
+	 * @param layout The layout of the board
+	 */
+	public PuzzleSolver(BoardLayout layout)
+	{
+		this(layout.getSize(), thermRowsOf(layout), thermColsOf(layout), toArray(layout.getRowCounts()), toArray(layout.getColCounts()));
+	}
+
+	/** Constructor.  Sets up a solver from the thermometers and counts directly.  Every tile should belong to at most
+	 *    one thermometer; tiles that belong to none are added as single tile thermometers.
+	 *
+	 * @param size The width/height of the board
+	 * @param thermRowsIn The rows of each thermometer's tiles, from the bulb to the cap
+	 * @param thermColsIn The columns of each thermometer's tiles, from the bulb to the cap
+	 * @param rowCounts How many tiles must be filled in each row
+	 * @param colCounts How many tiles must be filled in each column
+	 */
+	public PuzzleSolver(int size, int[][] thermRowsIn, int[][] thermColsIn, int[] rowCounts, int[] colCounts)
+	{
+		this.size = size;
+
+		//Find the tiles that no thermometer covers
+		boolean[][] covered = new boolean[size][size];
+		int numCovered = 0;
+		int numGiven = 0;
+		for(int t = 0; t < thermRowsIn.length && thermRowsIn[t] != null; t++)
+		{
+			numGiven++;
+			for(int k = 0; k < thermRowsIn[t].length; k++)
+			{
+				covered[thermRowsIn[t][k]][thermColsIn[t][k]] = true;
+				numCovered++;
+			}
+		}
+		numTherms = numGiven + size * size - numCovered;
+		thermRows = new int[numTherms][];
+		thermCols = new int[numTherms][];
+		System.arraycopy(thermRowsIn, 0, thermRows, 0, numGiven);
+		System.arraycopy(thermColsIn, 0, thermCols, 0, numGiven);
+		int t = numGiven;
+		for(int i = 0; i < size; i++)
+			for(int j = 0; j < size; j++)
+				if(!covered[i][j])
+				{
+					thermRows[t] = new int[] {i};
+					thermCols[t] = new int[] {j};
+					t++;
+				}
+
+		lineTarget = new int[2 * size];
+		for(int i = 0; i < size; i++)
+		{
+			lineTarget[i] = rowCounts[i];
+			lineTarget[size + i] = colCounts[i];
+		}
+
+		//Work out which thermometers cross which lines.  A thermometer along a row crosses that row with all of its
+		//  tiles, and each column it passes through with just one.  A single tile crosses both of its lines with one tile.
+		int[] lineSizes = new int[2 * size];
+		thermLines = new int[numTherms][];
+		for(t = 0; t < numTherms; t++)
+		{
+			int[] rows = thermRows[t];
+			int[] cols = thermCols[t];
+			boolean alongRow = rows.length > 1 && rows[0] == rows[1];
+			boolean alongCol = rows.length > 1 && cols[0] == cols[1];
+			int numLines = 1 + (alongRow || alongCol ? rows.length : 1);
+			int[] lines = new int[numLines];
+			if(alongRow)
+			{
+				lines[0] = rows[0];
+				for(int k = 0; k < rows.length; k++)
+					lines[1 + k] = size + cols[k];
+			}
+			else if(alongCol)
+			{
+				lines[0] = size + cols[0];
+				for(int k = 0; k < rows.length; k++)
+					lines[1 + k] = rows[k];
+			}
+			else
+			{
+				lines[0] = rows[0];
+				lines[1] = size + cols[0];
+			}
+			thermLines[t] = lines;
+			for(int line : lines)
+				lineSizes[line]++;
+		}
+
+		lineTherms = new int[2 * size][];
+		linePositions = new int[2 * size][];
+		for(int line = 0; line < 2 * size; line++)
+		{
+			lineTherms[line] = new int[lineSizes[line]];
+			linePositions[line] = new int[lineSizes[line]];
+			lineSizes[line] = 0;
+		}
+		for(t = 0; t < numTherms; t++)
+		{
+			int[] lines = thermLines[t];
+			boolean single = thermRows[t].length == 1;
+			for(int l = 0; l < lines.length; l++)
+			{
+				int line = lines[l];
+				int index = lineSizes[line]++;
+				lineTherms[line][index] = t;
+				//The first line of a thermometer of 2 or more tiles is the one it lies along
+				linePositions[line][index] = (l == 0 && !single) ? -1 : (single ? 0 : l - 1);
+			}
+		}
+
+		lineQueue = new int[2 * size];
+		lineQueued = new boolean[2 * size];
+		domainStack = new long[numTherms + 1][];
+		domainStack[0] = new long[numTherms];
+	}
+
+	/** Count the solutions of the puzzle, stopping once limit have been found.  The first solution found can be
+	 *    read with getSolution afterwards.
+	 *
+	 * @param limit The most solutions to look for (2 is enough to tell whether a solution is unique)
+	 * @return The number of solutions found, at most limit
+	 */
+	public int countSolutions(int limit)
+	{
+		solutionLevels = null;
+		numNodes = 0;
+		long[] domains = domainStack[0];
+		for(int t = 0; t < numTherms; t++)
+			domains[t] = levelsUpTo(thermRows[t].length);
+
+		//Everything needs checking to start with
+		for(int line = 0; line < 2 * size; line++)
+		{
+			lineQueue[line] = line;
+			lineQueued[line] = true;
+		}
+		if(!propagate(domains, 2 * size))
+			return 0;
+		return search(0, limit);
+	}
+
+	/** Solve the puzzle
+	 *
+	 * @return The fill of every tile in the first solution found (1 for filled, -1 for empty), or null if there is none
+	 */
+	public int[][] solve()
+	{
+		countSolutions(1);
+		return getSolution();
+	}
+
+	/** Check whether the puzzle has exactly one solution
+	 *
+	 * @return True if there is one solution, false if there are none or several
+	 */
+	public boolean hasUniqueSolution()
+	{
+		return countSolutions(2) == 1;
+	}
+
+	/** Getter for the first solution found by the last countSolutions (or solve) call
+	 *
+	 * @return The fill of every tile (1 for filled, -1 for empty), or null if no solution was found
+	 */
+	public int[][] getSolution()
+	{
+		if(solutionLevels == null)
+			return null;
+		int[][] fill = new int[size][size];
+		for(int t = 0; t < numTherms; t++)
+			for(int k = 0; k < thermRows[t].length; k++)
+				fill[thermRows[t][k]][thermCols[t][k]] = k < solutionLevels[t] ? 1 : -1;
+		return fill;
+	}
+
+	/** Getter for the number of search nodes the last countSolutions (or solve) call visited.
+	 *    1 means propagation alone settled every thermometer.
+	 *
+	 * @return The number of nodes
+	 */
+	public long getNumNodes() {
+		return numNodes;
+	}
+
+	/** Search for solutions from the domains at one depth, which have already been propagated
+	 *
+	 * @param depth The depth (index into domainStack)
+	 * @param limit The most solutions to look for
+	 * @return The number of solutions found, at most limit
+	 */
+	private int search(int depth, int limit)
+	{
+		numNodes++;
+		long[] domains = domainStack[depth];
+
+		//Pick the unsettled thermometer with the fewest possible levels
+		int best = -1;
+		int bestCount = Integer.MAX_VALUE;
+		for(int t = 0; t < numTherms; t++)
+		{
+			int count = Long.bitCount(domains[t]);
+			if(count > 1 && count < bestCount)
+			{
+				best = t;
+				bestCount = count;
+			}
+		}
+
+		//Every thermometer is settled, and propagation has checked every line, so this is a solution
+		if(best == -1)
+		{
+			if(solutionLevels == null)
+			{
+				solutionLevels = new int[numTherms];
+				for(int t = 0; t < numTherms; t++)
+					solutionLevels[t] = Long.numberOfTrailingZeros(domains[t]);
+			}
+			return 1;
+		}
+
+		int found = 0;
+		if(domainStack[depth + 1] == null)
+			domainStack[depth + 1] = new long[numTherms];
+		long[] next = domainStack[depth + 1];
+		long remaining = domains[best];
+		while(remaining != 0 && found < limit)
+		{
+			long level = Long.lowestOneBit(remaining);
+			remaining &= ~level;
+
+			System.arraycopy(domains, 0, next, 0, numTherms);
+			next[best] = level;
+			if(propagate(next, queueLinesOf(best)))
+				found += search(depth + 1, limit - found);
+		}
+		return found;
+	}
+
+	/** Put the lines a thermometer crosses onto the (empty) line queue
+	 *
+	 * @param therm The thermometer
+	 * @return The number of lines queued
+	 */
+	private int queueLinesOf(int therm)
+	{
+		int[] lines = thermLines[therm];
+		for(int l = 0; l < lines.length; l++)
+		{
+			lineQueue[l] = lines[l];
+			lineQueued[lines[l]] = true;
+		}
+		return lines.length;
+	}
+
+	/** Narrow the domains until no line can rule anything else out
+	 *
+	 * @param domains The possible levels of each thermometer, narrowed in place
+	 * @param queueLength How many lines are on the queue to start with
+	 * @return False if some thermometer has no possible levels left (so there is no solution from here)
+	 */
+	private boolean propagate(long[] domains, int queueLength)
+	{
+		//The queue is used as a ring, since each line is on it at most once
+		int head = 0;
+		int numQueued = queueLength;
+		int lineCount = 2 * size;
+		boolean ok = true;
+		while(numQueued > 0)
+		{
+			int line = lineQueue[head];
+			head = head + 1 == lineCount ? 0 : head + 1;
+			numQueued--;
+			lineQueued[line] = false;
+			if(!ok)
+				continue;
+
+			int[] therms = lineTherms[line];
+			int[] positions = linePositions[line];
+
+			//Smallest and largest number of filled tiles this line could still end up with
+			int minSum = 0;
+			int maxSum = 0;
+			for(int i = 0; i < therms.length; i++)
+			{
+				long domain = domains[therms[i]];
+				minSum += contribution(Long.numberOfTrailingZeros(domain), positions[i]);
+				maxSum += contribution(63 - Long.numberOfLeadingZeros(domain), positions[i]);
+			}
+			int target = lineTarget[line];
+			if(minSum > target || maxSum < target)
+			{
+				ok = false;
+				continue;
+			}
+
+			//Each thermometer can only put between (target - everyone else's largest) and (target - everyone else's smallest) here.
+			//  The sums aren't updated as thermometers are narrowed; that only makes the bounds looser, and the line is
+			//  checked again afterwards.
+			boolean changed = false;
+			for(int i = 0; i < therms.length; i++)
+			{
+				int t = therms[i];
+				long domain = domains[t];
+				int position = positions[i];
+				int low = target - (maxSum - contribution(63 - Long.numberOfLeadingZeros(domain), position));
+				int high = target - (minSum - contribution(Long.numberOfTrailingZeros(domain), position));
+
+				long narrowed;
+				if(position == -1)
+					narrowed = domain & levelsBetween(low, high);
+				else if(low >= 1)
+					narrowed = domain & ~levelsUpTo(position);
+				else if(high <= 0)
+					narrowed = domain & levelsUpTo(position);
+				else
+					narrowed = domain;
+
+				if(narrowed == domain)
+					continue;
+				if(narrowed == 0)
+				{
+					ok = false;
+					break;
+				}
+				domains[t] = narrowed;
+
+				//Narrowing a thermometer can change the sums of the other lines it crosses
+				for(int other : thermLines[t])
+					if(!lineQueued[other])
+					{
+						lineQueued[other] = true;
+						int tail = head + numQueued;
+						lineQueue[tail >= lineCount ? tail - lineCount : tail] = other;
+						numQueued++;
+					}
+
+				changed = true;
+			}
+
+			//This line's own sums have changed too, so work them out again
+			if(ok && changed && !lineQueued[line])
+			{
+				lineQueued[line] = true;
+				int tail = head + numQueued;
+				lineQueue[tail >= lineCount ? tail - lineCount : tail] = line;
+				numQueued++;
+			}
+		}
+		return ok;
+	}
+
+	/** How many filled tiles a thermometer at some level puts on a line
+	 *
+	 * @param level The level of the thermometer
+	 * @param position The position of its one tile on the line, or -1 if it lies along the line
+	 * @return The number of its filled tiles on the line
+	 */
+	private static int contribution(int level, int position)
+	{
+		if(position == -1)
+			return level;
+		return level > position ? 1 : 0;
+	}
+
+	/** Mask of the levels from 0 up to and including max
+	 *
+	 * @param max The highest level
+	 * @return The mask
+	 */
+	private static long levelsUpTo(int max)
+	{
+		if(max < 0)
+			return 0;
+		if(max >= 63)
+			return -1L;
+		return (1L << (max + 1)) - 1;
+	}
+
+	/** Mask of the levels from min up to and including max
+	 *
+	 * @param min The lowest level
+	 * @param max The highest level
+	 * @return The mask
+	 */
+	private static long levelsBetween(int min, int max)
+	{
+		return levelsUpTo(max) & ~levelsUpTo(min - 1);
+	}
+
+	/** Get the rows of every thermometer in a layout
+	 *
+	 * @param layout The layout
+	 * @return The rows of each thermometer's tiles, from the bulb to the cap
+	 */
+	private static int[][] thermRowsOf(BoardLayout layout)
+	{
+		ThermometerTopology topology = layout.getThermTopology();
+		int[][] rows = new int[topology.getNumThermometers()][];
+		for(int t = 0; t < rows.length; t++)
+		{
+			rows[t] = new int[topology.getThermometer(t).size()];
+			for(int k = 0; k < rows[t].length; k++)
+				rows[t][k] = topology.getThermometer(t).get(k).getXPos();
+		}
+		return rows;
+	}
+
+	/** Get the columns of every thermometer in a layout
+	 *
+	 * @param layout The layout
+	 * @return The columns of each thermometer's tiles, from the bulb to the cap
+	 */
+	private static int[][] thermColsOf(BoardLayout layout)
+	{
+		ThermometerTopology topology = layout.getThermTopology();
+		int[][] cols = new int[topology.getNumThermometers()][];
+		for(int t = 0; t < cols.length; t++)
+		{
+			cols[t] = new int[topology.getThermometer(t).size()];
+			for(int k = 0; k < cols[t].length; k++)
+				cols[t][k] = topology.getThermometer(t).get(k).getYPos();
+		}
+		return cols;
+	}
+
+	/** Copy a list of counts into an array
+	 *
+	 * @param counts The counts
+	 * @return The same counts as an array
+	 */
+	private static int[] toArray(List<Integer> counts)
+	{
+		int[] array = new int[counts.size()];
+		for(int i = 0; i < array.length; i++)
+			array[i] = counts.get(i);
+		return array;
+	}
+}
@@ -0,0 +1,331 @@
+package BoardRepresentation;
+
+import java.util.ArrayList;
+
+import Utilities.Triple;
+
+/** Keeps the reward for a single board up to date as its tiles change, so that the reward
+ *    can be read after every step without rechecking the whole board.  The reward itself is the
+ *    same one described in BoardReward.getReward:
+ *       (# of constraints satisfied)
+ *       ---------------------------
+ *         (# of total constraints)
+ *
+ *    A tile only takes part in three constraints: its row, its column, and (at most) one thermometer.
+ *    So whenever the board changes a tile, only those three are checked again.
+ *
+ *    Get the tracker for a board with Board.getRewardTracker(); the board then tells it
+ *    about every tile change made through Board.setTile.
+ *
+ * @author Skularach
+ *
+ */
+public class RewardTracker
+{
+	private final Board board;
+	private final ThermometerTopology topology;
+	private final int size;
+
+	//Whether each row, column and thermometer constraint is currently satisfied
+	private final boolean[] rowMet;
+	private final boolean[] colMet;
+	private final boolean[] thermMet;
+
+	private int constraintsMet = 0;
+	private final int totalConstraints;
+
+	//Tiles a move would change, filled in by rewardDelta while it works out what the move would do.
+	//  The checks below read tiles through these, so that a move can be scored without applying it.
+	private final int[] pendingRows;
+	private final int[] pendingCols;
+	private final int[] pendingValues;
+	private int numPending = 0;
+
+	/** Constructor.  Checks every constraint on the board once to get the starting reward.
+	 *
+	 * @param board The board to track the reward of
+	 */
+	RewardTracker(Board board)
+	{
+		this.board = board;
+		topology = board.thermTopology;
+		size = board.grid.size();
+
+		rowMet = new boolean[size];
+		colMet = new boolean[size];
+		thermMet = new boolean[topology.getNumThermometers()];
+		totalConstraints = size * 2 + thermMet.length;
+
+		//At most a whole row or column changes in a single move
+		pendingRows = new int[size];
+		pendingCols = new int[size];
+		pendingValues = new int[size];
+
+		for(int i = 0; i < size; i++)
+		{
+			rowMet[i] = checkLine(true, i);
+			colMet[i] = checkLine(false, i);
+			if(rowMet[i])
+				constraintsMet++;
+			if(colMet[i])
+				constraintsMet++;
+		}
+		for(int t = 0; t < thermMet.length; t++)
+		{
+			thermMet[t] = checkTherm(t);
+			if(thermMet[t])
+				constraintsMet++;
+		}
+	}
+
+	/** Getter for the current reward of the board.  Constant time.
+	 *
+	 * @return The percentage of constraints that are satisfied
+	 */
+	public float getReward() {
+		return rewardFor(constraintsMet);
+	}
+
+	/** Getter for the number of constraints currently satisfied
+	 *
+	 * @return The number of satisfied row, column and thermometer constraints
+	 */
+	public int getConstraintsMet() {
+		return constraintsMet;
+	}
+
+	/** Getter for the total number of constraints on the board
+	 *
+	 * @return One per row, one per column and one per thermometer
+	 */
+	public int getTotalConstraints() {
+		return totalConstraints;
+	}
+
+	/** Called by the board after a tile has changed.  Rechecks the constraints the tile is part of.
+	 *
+	 * @param row The row of the tile that changed
+	 * @param col The column of the tile that changed
+	 */
+	void tileChanged(int row, int col)
+	{
+		boolean met = checkLine(true, row);
+		if(met != rowMet[row])
+		{
+			rowMet[row] = met;
+			constraintsMet += met ? 1 : -1;
+		}
+
+		met = checkLine(false, col);
+		if(met != colMet[col])
+		{
+			colMet[col] = met;
+			constraintsMet += met ? 1 : -1;
+		}
+
+		int thermId = topology.getThermIdAt(row, col);
+		if(thermId >= 0)
+		{
+			met = checkTherm(thermId);
+			if(met != thermMet[thermId])
+			{
+				thermMet[thermId] = met;
+				constraintsMet += met ? 1 : -1;
+			}
+		}
+	}
+
+	/** Works out how much the reward would change if a single tile were set to a value, without changing the board.
+	 *
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 * @param value The fill the tile would be set to (1 for filled, -1 for empty, 0 for unknown)
+	 * @return The reward after the change minus the current reward
+	 */
+	public float rewardDelta(int row, int col, int value)
+	{
+		addPending(row, col, value);
+		return scorePending();
+	}
+
+	/** Works out how much the reward would change if a move were applied to the board, without applying it.
+	 *    Moves are read the same way ApplyMovesToBoard reads them for the kind of board being tracked.
+	 *
+	 * @param move The move to score
+	 * @return The reward after the move minus the current reward
+	 */
+	public float rewardDelta(Triple move)
+	{
+		if(board instanceof SimpleThermsBoard)
+		{
+			SimpleThermsBoard simpleBoard = (SimpleThermsBoard) board;
+			int value;
+			if(move.getFirst() == 'e')
+				value = -1;
+			else if(move.getFirst() == 'f')
+				value = 1;
+			else if(move.getFirst() == 'c')
+				value = 0;
+
+			//Moving to the next row/column doesn't change any tiles
+			else
+				return 0;
+
+			//Filling or emptying changes one tile in the current row/column, clearing changes all of them
+			int first = move.getFirst() == 'c' ? 0 : move.getSecond();
+			int last = move.getFirst() == 'c' ? size - 1 : move.getSecond();
+			for(int i = first; i <= last; i++)
+				if(simpleBoard.lookingAtRows)
+					addPending(simpleBoard.rowIndex, i, value);
+				else
+					addPending(i, simpleBoard.colIndex, value);
+		}
+		else
+			addPending(move.getFirst(), move.getSecond(), move.getThird());
+
+		return scorePending();
+	}
+
+	/** Queue up a hypothetical tile change for scorePending.  Changes that wouldn't change the tile are left out.
+	 *
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 * @param value The fill the tile would be set to
+	 */
+	private void addPending(int row, int col, int value)
+	{
+		if(board.getTile(row, col) == value)
+			return;
+		pendingRows[numPending] = row;
+		pendingCols[numPending] = col;
+		pendingValues[numPending] = value;
+		numPending++;
+	}
+
+	/** Rechecks every constraint touched by the queued tile changes as if they had been made,
+	 *    then clears the queue.
+	 *
+	 * @return The reward with the changes made minus the current reward
+	 */
+	private float scorePending()
+	{
+		int newConstraintsMet = constraintsMet;
+		for(int k = 0; k < numPending; k++)
+		{
+			int row = pendingRows[k];
+			int col = pendingCols[k];
+			int thermId = topology.getThermIdAt(row, col);
+
+			//Only check each row, column and thermometer once, the first time one of its tiles comes up
+			boolean newRow = true;
+			boolean newCol = true;
+			boolean newTherm = thermId >= 0;
+			for(int j = 0; j < k; j++)
+			{
+				if(pendingRows[j] == row)
+					newRow = false;
+				if(pendingCols[j] == col)
+					newCol = false;
+				if(topology.getThermIdAt(pendingRows[j], pendingCols[j]) == thermId)
+					newTherm = false;
+			}
+
+			if(newRow && checkLine(true, row) != rowMet[row])
+				newConstraintsMet += rowMet[row] ? -1 : 1;
+			if(newCol && checkLine(false, col) != colMet[col])
+				newConstraintsMet += colMet[col] ? -1 : 1;
+			if(newTherm && checkTherm(thermId) != thermMet[thermId])
+				newConstraintsMet += thermMet[thermId] ? -1 : 1;
+		}
+		numPending = 0;
+
+		return rewardFor(newConstraintsMet) - rewardFor(constraintsMet);
+	}
+
+	/** Converts a number of satisfied constraints into a reward, the same way BoardReward always has
+	 *
+	 * @param met The number of constraints satisfied
+	 * @return The percentage of constraints satisfied
+	 */
+	private float rewardFor(int met) {
+		return 100 * (met / (totalConstraints * 1.0f));
+	}
+
+	/** Get the fill of a tile, taking any queued changes into account
+	 *
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 * @return 1 for filled, -1 for empty, 0 for unknown
+	 */
+	private int getFill(int row, int col)
+	{
+		for(int k = 0; k < numPending; k++)
+			if(pendingRows[k] == row && pendingCols[k] == col)
+				return pendingValues[k];
+		return board.getTile(row, col);
+	}
+
+	/** Checks whether a row or column constraint is satisfied: the row/column has exactly as many filled
+	 *    tiles as the number next to it, and every other tile is marked empty.
+	 *
+	 * @param isRow Whether to check a row or a column
+	 * @param index Which row or column to check
+	 * @return True if the constraint is satisfied
+	 */
+	private boolean checkLine(boolean isRow, int index)
+	{
+		int filledCount = isRow ? board.countInRow(index, 1) : board.countInCol(index, 1);
+		int emptyCount = isRow ? board.countInRow(index, -1) : board.countInCol(index, -1);
+
+		//Adjust the counts for any queued changes in this row/column
+		for(int k = 0; k < numPending; k++)
+		{
+			if((isRow ? pendingRows[k] : pendingCols[k]) != index)
+				continue;
+			int oldValue = board.getTile(pendingRows[k], pendingCols[k]);
+			if(oldValue == 1)
+				filledCount--;
+			else if(oldValue == -1)
+				emptyCount--;
+			if(pendingValues[k] == 1)
+				filledCount++;
+			else if(pendingValues[k] == -1)
+				emptyCount++;
+		}
+
+		int target = isRow ? board.rowCounts.get(index) : board.colCounts.get(index);
+		return filledCount == target && emptyCount == size - filledCount;
+	}
+
+	/** Checks whether a thermometer has a valid fill: any mercury in it is filled from the bulb outwards,
+	 *    and no part of it past the bulb is still unknown.
+	 *
+	 * @param thermId The id of the thermometer to check
+	 * @return True if the constraint is satisfied
+	 */
+	private boolean checkTherm(int thermId)
+	{
+		ArrayList<ThermometerPiece> therm = topology.getThermometer(thermId);
+
+		//If the bulb is filled, we currently have a solidly-filled thermometer (filled from the bulb up with no gaps)
+		boolean fillSolid = getFill(therm.get(0).getXPos(), therm.get(0).getYPos()) == 1;
+
+		//For each piece past the bulb
+		for(int k = 1; k < therm.size(); k++)
+		{
+			int fill = getFill(therm.get(k).getXPos(), therm.get(k).getYPos());
+
+			//If the thermometer hasn't been completely filled in, we can't determine if it's been filled correctly.
+			if(fill == 0)
+				return false;
+
+			//A filled piece after the fill was broken can never be valid
+			if(fill == 1 && !fillSolid)
+				return false;
+
+			if(fill == -1)
+				fillSolid = false;
+		}
+		return true;
+	}
+}
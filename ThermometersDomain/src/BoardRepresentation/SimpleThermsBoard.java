@@ -24,9 +24,21 @@ public class SimpleThermsBoard extends Board
 		reinitIndexes();
 	}
 	
+	/** Constructor, calls the general Board constructor to make a board that
+	 *    shares an existing layout, and then reinitializes the Row and Column data
+	 * 
+	 * @param layout The layout of the puzzle to create a board object from
+	 */
+	public SimpleThermsBoard(BoardLayout layout)
+	{
+		super(layout);
+		reinitIndexes();
+	}
+	
 	//We start looking at row 0. When the action taken is to move to the
 	// next row/column, we increment rowIndex by 1. When we are done with
 	// rows, we start looking at the first column, and so on.
+	// Read these freely, but change them through setCursor.
 	public boolean lookingAtRows = true;
 	public int rowIndex = 0;
 	public int colIndex = 0;
@@ -48,26 +60,20 @@ public class SimpleThermsBoard extends Board
 		{
 			//Increment row index to look at next row. If out of 
 			// rows, go to first column.
-			if(rowIndex < BOARDSIZE - 1)
-				rowIndex++;
+			if(rowIndex < getSize() - 1)
+				setCursor(true, rowIndex + 1, colIndex);
 			else
-			{
-				lookingAtRows = false;
-				colIndex = 0;
-			}
+				setCursor(false, rowIndex, 0);
 		}
 		
 		else 
 		{
 			//Increment column index to look at next column. If out of 
 			// columns, go to first row.
-			if(colIndex < BOARDSIZE - 1)
-				colIndex++;
+			if(colIndex < getSize() - 1)
+				setCursor(false, rowIndex, colIndex + 1);
 			else
-			{
-				lookingAtRows = true;
-				rowIndex = 0;
-			}
+				setCursor(true, 0, colIndex);
 		}
 		
 	}
@@ -77,25 +83,27 @@ public class SimpleThermsBoard extends Board
 	 *    in the current row/column.  Mostly used by the AI to see if a mistake
 	 *    has been made
 	 * 
-	 * @param grid  The tile fill data for the board
-	 * @param fillCount  The number of tiles that should be filled
-	 * @param therms   The thermometer data for the row/column
-	 * @return
+	 * @return True if the current row/column can no longer be solved as it stands
 	 */
-	public boolean detectConstraintViolations(ArrayList<Integer> grid,
-			int fillCount, ArrayList<ArrayList<ThermometerPiece>> therms)
+	public boolean detectConstraintViolations()
 	{
-		//Get the current number of filled and empty squares
-		int filledSquares = 0;
-		int blankSquares = 0;
-		for(int j = 0; j < grid.size();j++)
+		int fillCount;
+		ArrayList<ArrayList<ThermometerPiece>> therms;
+		if(lookingAtRows)
+		{
+			fillCount = rowCounts.get(rowIndex);
+			therms = rowTherms.get(rowIndex);
+		}
+		else
 		{
-			if(grid.get(j) == 1)
-				filledSquares++;
-			if(grid.get(j) == 0)
-				blankSquares++;
+			fillCount = colCounts.get(colIndex);
+			therms = colTherms.get(colIndex);
 		}
 		
+		//Get the current number of filled and empty squares
+		int filledSquares = countInCurrentLine(1);
+		int blankSquares = countInCurrentLine(0);
+		
 		
 		//Too many or not enough tiles, so there is a constraint violation
 		if(filledSquares + blankSquares < fillCount)
@@ -112,9 +120,9 @@ public class SimpleThermsBoard extends Board
 		{
 			boolean hasAnEmpty = false;
 			for(int k = 0; k < therms.get(j).size(); k++)
-				if(therms.get(j).get(k).getFillStatus() == -1)
+				if(getTile(therms.get(j).get(k)) == -1)
 					hasAnEmpty = true;
-				else if(therms.get(j).get(k).getFillStatus() == 1)
+				else if(getTile(therms.get(j).get(k)) == 1)
 					if(hasAnEmpty)
 						return true;
 			}
@@ -122,14 +130,88 @@ public class SimpleThermsBoard extends Board
 	}
 	
 	
+	/** Get how many tiles in the row/column currently being looked at have the given fill
+	 * 
+	 * @param value The fill to count (1 for filled, -1 for empty, 0 for unknown)
+	 * @return The number of tiles in the current row/column with that fill
+	 */
+	public int countInCurrentLine(int value)
+	{
+		if(lookingAtRows)
+			return countInRow(rowIndex, value);
+		else
+			return countInCol(colIndex, value);
+	}
+	
+	
+	/** Get a 64 bit hash of the current state of the board, including where the cursor is.
+	 * 
+	 * @return The Zobrist hash of the tiles and the cursor
+	 */
+	@Override
+	public long getStateHash() {
+		return super.getStateHash()
+				^ ZobristKeys.cursorKey(getZobristKeys(), grid.size(), lookingAtRows, lookingAtRows ? rowIndex : colIndex);
+	}
+	
+	/** Two Simple boards are equal if they are for the same puzzle, have the same tiles, and are looking at
+	 *    the same row or column.
+	 * 
+	 * @param other The object to compare to
+	 * @return True if other is in exactly the same state as this board
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if(!super.equals(other))
+			return false;
+		SimpleThermsBoard otherBoard = (SimpleThermsBoard) other;
+		return lookingAtRows == otherBoard.lookingAtRows
+				&& (lookingAtRows ? rowIndex == otherBoard.rowIndex : colIndex == otherBoard.colIndex);
+	}
+	
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+	
+	
 	/** Reset all indices so we are looking at the first row again.
 	 *    Mostly used when first creating a board.
 	 * 
 	 */
 	public void reinitIndexes()
 	{
-		rowIndex = 0;
-		colIndex = 0;
-		lookingAtRows = true;
+		setCursor(true, 0, 0);
+	}
+	
+	/** Move the cursor.  Every change to the cursor should go through here (rather than setting
+	 *    lookingAtRows, rowIndex and colIndex directly) so that it can be undone.
+	 * 
+	 * @param lookingAtRowsIn Whether the cursor should be on a row
+	 * @param rowIndexIn The row index to set
+	 * @param colIndexIn The column index to set
+	 */
+	public void setCursor(boolean lookingAtRowsIn, int rowIndexIn, int colIndexIn)
+	{
+		if(lookingAtRowsIn == lookingAtRows && rowIndexIn == rowIndex && colIndexIn == colIndex)
+			return;
+		
+		//Remember where the cursor was: (row index << 16) | (column index << 4) | (looking at rows << 2)
+		recordInJournal((rowIndex << 16) | (colIndex << 4) | ((lookingAtRows ? 1 : 0) << 2) | JOURNAL_CURSOR);
+		lookingAtRows = lookingAtRowsIn;
+		rowIndex = rowIndexIn;
+		colIndex = colIndexIn;
+	}
+	
+	/** Put the cursor back where it was before a change recorded in the undo journal
+	 * 
+	 * @param entry The packed journal entry written by setCursor
+	 */
+	@Override
+	protected void undoCursorChange(int entry)
+	{
+		rowIndex = entry >>> 16;
+		colIndex = (entry >>> 4) & 0xFFF;
+		lookingAtRows = ((entry >>> 2) & 1) == 1;
 	}
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package BoardRepresentation;
 
 /** Small class which extends boardpiece into a thermometer piece.
  *    Used to keep track of the thermometers on the board.
+ *    Pieces are part of the board's ThermometerTopology and never change,
+ *    so the current fill of a piece is read from the board (Board.getTile(piece)).
  *    
  * 
  * @author Brandon Packard
@@ -9,14 +11,35 @@ package BoardRepresentation;
  */
 public class ThermometerPiece extends BoardPiece
 {
-	/** Constructor simply calls the superclass's constructor
+	private final int thermId;
+	private final int position;
+	
+	/** Constructor calls the superclass's constructor and stores which thermometer the piece is part of
 	 * 
 	 * @param x x position on the grid of the tile
 	 * @param y y position on the grid of the tile
-	 * @param status current fill of the tile
+	 * @param thermId id of the thermometer this piece belongs to
+	 * @param position how far the piece is from the bulb (0 for the bulb itself)
+	 */
+	ThermometerPiece(int x, int y, int thermId, int position) {
+		super(x, y);
+		this.thermId = thermId;
+		this.position = position;
+	}
+	
+	/** Getter for the id of the thermometer this piece belongs to
+	 * 
+	 * @return The thermometer id, as used by ThermometerTopology
 	 */
-	ThermometerPiece(int x, int y, int status) {
-		super(x, y, status);
+	public int getThermId() {
+		return thermId;
 	}
 	
-}
\ No newline at end of file
+	/** Getter for how far the piece is from the bulb of its thermometer
+	 * 
+	 * @return 0 for the bulb, 1 for the next piece, and so on
+	 */
+	public int getPosition() {
+		return position;
+	}
+}
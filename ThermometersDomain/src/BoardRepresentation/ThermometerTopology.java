@@ -0,0 +1,200 @@
+package BoardRepresentation;
+
+import java.util.ArrayList;
+
+/** This class holds the layout of the thermometers on a board: which tiles belong to which thermometer,
+ *    how far each tile is from its thermometer's bulb, and which way each thermometer points.
+ *    None of that changes while a board is being solved, so it is parsed from the piece codes
+ *    once when the board is created and never rebuilt.  The fill of a thermometer piece is not stored
+ *    here at all; read it from the board's grid (Board.getTile(piece)) so it is always up to date.
+ *
+ *    Thermometers are numbered in the order they are found: every row thermometer (row by row,
+ *    left-to-right ones before right-to-left ones), then every column thermometer (column by column,
+ *    top-to-bottom ones before bottom-to-top ones).  This is the same order they appear in
+ *    getRowTherms() and getColTherms().
+ *
+ * @author Skularach
+ *
+ */
+public class ThermometerTopology
+{
+	//Thermometers for each row and column, each one listed from the bulb to the cap
+	private final ArrayList<ArrayList<ArrayList<ThermometerPiece>>> rowTherms = new ArrayList<ArrayList<ArrayList<ThermometerPiece>>>();
+	private final ArrayList<ArrayList<ArrayList<ThermometerPiece>>> colTherms = new ArrayList<ArrayList<ArrayList<ThermometerPiece>>>();
+	
+	//Every thermometer on the board, indexed by thermometer id
+	private final ArrayList<ArrayList<ThermometerPiece>> thermometers = new ArrayList<ArrayList<ThermometerPiece>>();
+	
+	//Direction each thermometer runs in from the bulb to the cap, as a row and column step (for example 0,1 for left-to-right)
+	private final ArrayList<Integer> rowSteps = new ArrayList<Integer>();
+	private final ArrayList<Integer> colSteps = new ArrayList<Integer>();
+	
+	//For each tile, the id of the thermometer it belongs to (or -1), and its position counting from that thermometer's bulb
+	private final int[][] thermIdAt;
+	private final int[][] positionAt;
+	
+	/** Constructor.  Parses the thermometers out of the piece codes of a board.
+	 *    For more information on the codes, please refer to BoardFileIO.java and PieceCodes.java
+	 * 
+	 * @param pieceGrid The 2D array of code bytes for the board
+	 */
+	public ThermometerTopology(byte[][] pieceGrid)
+	{
+		int numRows = pieceGrid.length;
+		int numCols = pieceGrid[0].length;
+		thermIdAt = new int[numRows][numCols];
+		positionAt = new int[numRows][numCols];
+		for(int i = 0; i < numRows; i++)
+			for(int j = 0; j < numCols; j++)
+			{
+				thermIdAt[i][j] = -1;
+				positionAt[i][j] = -1;
+			}
+		
+		//For each row, find the left-to-right thermometers (starting with BR, running through TH, ending in CL)
+		//  and then the right-to-left ones (starting with BL, running through TH, ending in CR)
+		for(int i = 0; i < numRows; i++)
+		{
+			rowTherms.add(new ArrayList<ArrayList<ThermometerPiece>>());
+			
+			ArrayList<ThermometerPiece> therm = null;
+			for(int j = 0; j < numCols; j++)
+				therm = addPiece(pieceGrid, i, j, PieceCodes.RIGHT, PieceCodes.HORIZONTAL, PieceCodes.LEFT, 0, 1, therm, rowTherms.get(i));
+			
+			therm = null;
+			for(int j = numCols - 1; j >= 0; j--)
+				therm = addPiece(pieceGrid, i, j, PieceCodes.LEFT, PieceCodes.HORIZONTAL, PieceCodes.RIGHT, 0, -1, therm, rowTherms.get(i));
+		}
+		
+		//Same for columns: top-to-bottom thermometers (BD, TV, CU) and then bottom-to-top ones (BU, TV, CD)
+		for(int j = 0; j < numCols; j++)
+		{
+			colTherms.add(new ArrayList<ArrayList<ThermometerPiece>>());
+			
+			ArrayList<ThermometerPiece> therm = null;
+			for(int i = 0; i < numRows; i++)
+				therm = addPiece(pieceGrid, i, j, PieceCodes.DOWN, PieceCodes.VERTICAL, PieceCodes.UP, 1, 0, therm, colTherms.get(j));
+			
+			therm = null;
+			for(int i = numRows - 1; i >= 0; i--)
+				therm = addPiece(pieceGrid, i, j, PieceCodes.UP, PieceCodes.VERTICAL, PieceCodes.DOWN, -1, 0, therm, colTherms.get(j));
+		}
+	}
+	
+	/** Handles one tile while walking along a row or column looking for thermometers that run in one direction.
+	 * 
+	 * @param pieceGrid The code bytes for the board
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 * @param bulb The orientation of a bulb pointing in the walking direction
+	 * @param tube The orientation of a tube along the walking direction
+	 * @param cap The orientation of a cap closing a thermometer that runs in the walking direction
+	 * @param rowStep The row step from the bulb to the cap
+	 * @param colStep The column step from the bulb to the cap
+	 * @param therm The thermometer currently being built, or null if there is none
+	 * @param lineTherms The list of thermometers for the row or column being walked
+	 * @return The thermometer still being built after this tile, or null if there is none
+	 */
+	private ArrayList<ThermometerPiece> addPiece(byte[][] pieceGrid, int row, int col, int bulb, int tube, int cap,
+			int rowStep, int colStep, ArrayList<ThermometerPiece> therm, ArrayList<ArrayList<ThermometerPiece>> lineTherms)
+	{
+		byte code = pieceGrid[row][col];
+		
+		//A bulb starts a new thermometer
+		if(PieceCodes.matches(code, PieceCodes.TYPE_BULB, bulb))
+		{
+			therm = new ArrayList<ThermometerPiece>();
+			lineTherms.add(therm);
+			thermometers.add(therm);
+			rowSteps.add(rowStep);
+			colSteps.add(colStep);
+		}
+		
+		//Tubes and caps only count if we are in the middle of a thermometer
+		else if(therm == null || !(PieceCodes.matches(code, PieceCodes.TYPE_TUBE, tube) || PieceCodes.matches(code, PieceCodes.TYPE_CAP, cap)))
+			return therm;
+		
+		int thermId = thermometers.size() - 1;
+		therm.add(new ThermometerPiece(row, col, thermId, therm.size()));
+		thermIdAt[row][col] = thermId;
+		positionAt[row][col] = therm.size() - 1;
+		
+		//A cap finishes the thermometer
+		if(PieceCodes.matches(code, PieceCodes.TYPE_CAP, cap))
+			return null;
+		return therm;
+	}
+	
+	/** Getter for the thermometers in each row.  rowTherms.get(i).get(j) is the jth thermometer in row i,
+	 *    listed from the bulb to the cap.  These lists are never modified after the board is created.
+	 * 
+	 * @return The thermometers for each row
+	 */
+	public ArrayList<ArrayList<ArrayList<ThermometerPiece>>> getRowTherms() {
+		return rowTherms;
+	}
+	
+	/** Getter for the thermometers in each column.  colTherms.get(i).get(j) is the jth thermometer in column i,
+	 *    listed from the bulb to the cap.  These lists are never modified after the board is created.
+	 * 
+	 * @return The thermometers for each column
+	 */
+	public ArrayList<ArrayList<ArrayList<ThermometerPiece>>> getColTherms() {
+		return colTherms;
+	}
+	
+	/** Getter for the number of thermometers on the board
+	 * 
+	 * @return The number of thermometers
+	 */
+	public int getNumThermometers() {
+		return thermometers.size();
+	}
+	
+	/** Getter for a single thermometer
+	 * 
+	 * @param thermId The id of the thermometer
+	 * @return The pieces of the thermometer, from the bulb to the cap
+	 */
+	public ArrayList<ThermometerPiece> getThermometer(int thermId) {
+		return thermometers.get(thermId);
+	}
+	
+	/** Getter for the row step from one piece of a thermometer to the next (moving away from the bulb)
+	 * 
+	 * @param thermId The id of the thermometer
+	 * @return 1 for thermometers running down, -1 for ones running up, 0 for row thermometers
+	 */
+	public int getRowStep(int thermId) {
+		return rowSteps.get(thermId);
+	}
+	
+	/** Getter for the column step from one piece of a thermometer to the next (moving away from the bulb)
+	 * 
+	 * @param thermId The id of the thermometer
+	 * @return 1 for thermometers running right, -1 for ones running left, 0 for column thermometers
+	 */
+	public int getColStep(int thermId) {
+		return colSteps.get(thermId);
+	}
+	
+	/** Getter for which thermometer a tile belongs to
+	 * 
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 * @return The id of the thermometer, or -1 if the tile is not part of one
+	 */
+	public int getThermIdAt(int row, int col) {
+		return thermIdAt[row][col];
+	}
+	
+	/** Getter for how far a tile is from the bulb of its thermometer
+	 * 
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 * @return 0 for the bulb, 1 for the piece after it, and so on.  -1 if the tile is not part of a thermometer.
+	 */
+	public int getPositionAt(int row, int col) {
+		return positionAt[row][col];
+	}
+}
@@ -0,0 +1,99 @@
+package BoardRepresentation;
+
+/** This class represents the fill of every tile on a square Thermometers board.
+ *    Each tile holds one of three values:
+ *        1: The tile is filled
+ *       -1: The tile is empty
+ *        0: The fill of the tile is unknown (blank)
+ *
+ *    The storage itself is left to the subclasses, so that a board can be backed either by
+ *    plain lists (ListTileGrid), by one pair of bitmasks for the whole board (BitboardTileGrid),
+ *    or by a pair of bitmasks per row and column (LineMaskTileGrid) without the rules,
+ *    rewards and instance creation code needing to know the difference.
+ *
+ * @author Skularach
+ *
+ */
+public abstract class TileGrid
+{
+	/** Getter for the number of rows (and columns, since boards are always square) in the grid
+	 *
+	 * @return The width/height of the grid
+	 */
+	public abstract int size();
+
+	/** Get the current fill of a single tile
+	 *
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 * @return 1 for filled, -1 for empty, 0 for unknown
+	 */
+	public abstract int get(int row, int col);
+
+	/** Get the current fill of the tile under a piece of the board
+	 *
+	 * @param piece The piece (usually a ThermometerPiece)
+	 * @return 1 for filled, -1 for empty, 0 for unknown
+	 */
+	public int get(BoardPiece piece)
+	{
+		return get(piece.getXPos(), piece.getYPos());
+	}
+
+	/** Set the fill of a single tile.  This is package-private so that code outside of the board
+	 *    representation can only read a grid; tile changes go through Board.setTile, which keeps
+	 *    the board's own bookkeeping in sync.
+	 *
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 * @param value 1 for filled, -1 for empty, 0 for unknown
+	 */
+	abstract void set(int row, int col, int value);
+
+	/** Count how many tiles in a row have the given fill
+	 *
+	 * @param row The row to count in
+	 * @param value The fill to count (1, -1 or 0)
+	 * @return The number of tiles in the row with that fill
+	 */
+	public abstract int countInRow(int row, int value);
+
+	/** Count how many tiles in a column have the given fill
+	 *
+	 * @param col The column to count in
+	 * @param value The fill to count (1, -1 or 0)
+	 * @return The number of tiles in the column with that fill
+	 */
+	public abstract int countInCol(int col, int value);
+
+	/** Check whether every tile in this grid has the same fill as the matching tile in another grid.
+	 *    Subclasses override this when they can do it faster than tile by tile.
+	 *
+	 * @param other The grid to compare against.  Must be the same size as this grid.
+	 * @return True if every tile matches, false otherwise.
+	 */
+	public boolean sameTiles(TileGrid other)
+	{
+		for(int i = 0; i < size(); i++)
+			for(int j = 0; j < size(); j++)
+				if(get(i,j) != other.get(i,j))
+					return false;
+		return true;
+	}
+
+	/** Creates an all-unknown grid of the given size.  When bitboards are turned on in Board.useBitboardTiles,
+	 *    this uses a single bitboard for boards up to 8x8 and per-line masks for boards up to 32x32.
+	 *    Anything bigger, or everything when bitboards are turned off, uses lists.
+	 *
+	 * @param size The width/height of the grid
+	 * @return A new grid where every tile is unknown (0)
+	 */
+	public static TileGrid create(int size)
+	{
+		if(Board.useBitboardTiles && BitboardTileGrid.fits(size))
+			return new BitboardTileGrid(size);
+		if(Board.useBitboardTiles && LineMaskTileGrid.fits(size))
+			return new LineMaskTileGrid(size);
+		return new ListTileGrid(size);
+	}
+}
@@ -0,0 +1,96 @@
+package BoardRepresentation;
+
+import java.util.HashMap;
+import java.util.Random;
+
+/** Random 64 bit keys for Zobrist hashing of board states.
+ *    Every (tile, fill) pair gets its own key, and the hash of a board is the XOR of the keys for the
+ *    fill of each of its tiles.  Unknown tiles have no key, so a blank board hashes to 0.  Since XOR undoes
+ *    itself, changing one tile only takes two XORs (take the old fill out, put the new fill in), which is
+ *    what lets Board.setTile keep the hash up to date for free.
+ *
+ *    Simple Thermometers boards also hash in a key for where the cursor is.  Each row and column also gets a hash
+ *    of its own fills (see Board.getLineHash), which only depends on what is in the line, not which line it is.
+ *
+ *    The keys for each board size are made from a fixed seed, so the same state always gets the same hash,
+ *    even between runs.
+ *
+ * @author Skularach
+ *
+ */
+public class ZobristKeys
+{
+	//Seed for the key generator.  Changing this changes every hash.
+	private static final long SEED = 0x5DEECE66DL;
+
+	//Keys for every board size used so far
+	private static final HashMap<Integer, long[]> keysBySize = new HashMap<Integer, long[]>();
+
+	/** Get the keys for a board size, making them the first time that size is asked for.
+	 *    The array holds two keys per tile (filled, then empty, for tile row * size + col),
+	 *    followed by one key per row and one per column for the Simple Thermometers cursor,
+	 *    followed by two keys per position along a row or column (filled, then empty) for the line hashes.
+	 *    Use the other methods in this class to look keys up rather than indexing the array directly.
+	 *
+	 * @param size The width/height of the board
+	 * @return The keys for that size.  Do not modify.
+	 */
+	public static synchronized long[] forSize(int size)
+	{
+		long[] keys = keysBySize.get(size);
+		if(keys == null)
+		{
+			Random keyRand = new Random(SEED + size);
+			keys = new long[size * size * 2 + size * 2 + size * 2];
+			for(int i = 0; i < keys.length; i++)
+				keys[i] = keyRand.nextLong();
+			keysBySize.put(size, keys);
+		}
+		return keys;
+	}
+
+	/** Get the key for a tile having a certain fill
+	 *
+	 * @param keys The keys for the board's size, from forSize
+	 * @param size The width/height of the board
+	 * @param row The row of the tile
+	 * @param col The column of the tile
+	 * @param value The fill of the tile (1 for filled, -1 for empty, 0 for unknown)
+	 * @return The key to XOR into the hash, or 0 for an unknown tile
+	 */
+	public static long tileKey(long[] keys, int size, int row, int col, int value)
+	{
+		if(value == 0)
+			return 0;
+		return keys[(row * size + col) * 2 + (value == 1 ? 0 : 1)];
+	}
+
+	/** Get the key for the Simple Thermometers cursor being on a row or column
+	 *
+	 * @param keys The keys for the board's size, from forSize
+	 * @param size The width/height of the board
+	 * @param lookingAtRows Whether the cursor is on a row
+	 * @param index The row or column the cursor is on
+	 * @return The key to XOR into the hash
+	 */
+	public static long cursorKey(long[] keys, int size, boolean lookingAtRows, int index)
+	{
+		return keys[size * size * 2 + (lookingAtRows ? 0 : size) + index];
+	}
+
+	/** Get the key for the tile at a position along a row or column having a certain fill.  Rows and columns use the
+	 *    same keys, so two lines with the same fills in the same places hash the same, whichever lines they are.
+	 *
+	 * @param keys The keys for the board's size, from forSize
+	 * @param size The width/height of the board
+	 * @param position The position of the tile along its row or column
+	 * @param value The fill of the tile (1 for filled, -1 for empty, 0 for unknown)
+	 * @return The key to XOR into the line's hash, or 0 for an unknown tile
+	 */
+	public static long linePositionKey(long[] keys, int size, int position, int value)
+	{
+		if(value == 0)
+			return 0;
+		return keys[size * size * 2 + size * 2 + position * 2 + (value == 1 ? 0 : 1)];
+	}
+}
@@ -1,7 +1,11 @@
 package Demonstrators;
 
+import java.util.ArrayList;
+
 import BoardActions.ApplyMovesToBoard;
 import BoardRepresentation.ComplexThermsBoard;
+import BoardRepresentation.LineChangeTracker;
+import BoardRepresentation.PuzzleIndex;
 import BoardRepresentation.ThermometerPiece;
 import Utilities.Triple;
 
@@ -18,572 +22,278 @@ import Utilities.Triple;
  */
 public class ComplexThermometersAI
 {
+	//The rules fusedRules works out, in the order makeAMove tries them.  A lower number wins.
+	private static final int RULE_RESTFILLED = 0;
+	private static final int RULE_RESTEMPTY = 1;
+	private static final int RULE_RESTTHERMEMPTY = 2;
+	private static final int RULE_RESTTHERMFILLED = 3;
+	private static final int RULE_THERMTOOBIG = 4;
+	private static final int RULE_PARTIALLYFILLTHERM = 5;
+	private static final int NORULE = 6;
+	
+	//The first rule that applies to each row and column (NORULE if none do) and the move it makes there, kept between
+	//  moves for the last board this demonstrator was used on.  Lines are numbered as in Board.getLineVersion.
+	//  Because of these, a demonstrator should only be used from one thread at a time.
+	private final LineChangeTracker lineTracker = new LineChangeTracker();
+	private int[] lineRule = new int[0];
+	private int[] lineMoveRow = new int[0];
+	private int[] lineMoveCol = new int[0];
+	private int[] lineMoveValue = new int[0];
+	
+	//Optional cache of earlier decisions (see DecisionCache.java), or null to work every move out
+	private DecisionCache decisionCache = null;
+	
+	//Stored in the decision cache for states where no rule applies, since the cache can't hold null
+	private static final Triple NOMOVE = new Triple(-1, -1, -1);
+	
 	public ComplexThermometersAI()
 	{
 		
 	}
 
-	/** Given a board, make a logical move on it
+	/** Given a board, make a logical move on it.  If there is a decision cache and it already has a move for this
+	 *    state, that move is returned; otherwise the move is worked out (see decideMove) and stored in the cache.
 	 * 
 	 * @param board The board on which to make a move.
 	 * @return The move to make, as a Triple
 	 */
 	public Triple makeAMove(ComplexThermsBoard board)
 	{
-		Triple expertMove = null;
+		if(decisionCache == null)
+			return decideMove(board);
 		
-		//If there are any detectable mistakes, make a move to help fix them.
-		expertMove = undoMistakesRule(board);
-		if(expertMove != null)
-			return expertMove;
-		
-		//If there is a row/column where we know the rest should be filled in
-		expertMove = restFilledRule(board);
-		if(expertMove != null)
-			return expertMove;
-
-		//If there is a row/column where we know the rest should be empty
-		expertMove = restEmptyRule(board);
-		if(expertMove != null)
-			return expertMove;
-		
-		//If there is a thermometer where we know the rest should be filled in
-		expertMove = restThermEmptyRule(board);
-		if(expertMove != null)
-			return expertMove;
-		
-		//If there is a thermometer where we know the rest should be empty
-		expertMove = restThermFilledRule(board);
-		if(expertMove != null)
-			return expertMove;
-		
-		//If there is a thermometer where we know some tiles are empty because the thermometer is too big to fully fill in
-		expertMove = thermTooBigRule(board);
-		if(expertMove != null)
-			return expertMove;
-		
-		//If there is a thermometer where some MUST be filled in because of how many tiles still need filled in
-		expertMove = partiallyFillThermRule(board);
-		return expertMove;
+		long key = getStateKey(board);
+		Triple move = decisionCache.get(key);
+		if(move == null)
+		{
+			move = decideMove(board);
+			decisionCache.put(key, move == null ? NOMOVE : move);
+		}
+		else if(move == NOMOVE)
+			move = null;
+		return move;
 	}
 	
-	/** This rule triggers when we know the rest of a row or column must be filled in.
-	 *    For example, if a row says 3 tiles should be filled, and we have 2 filled 2 empty and 1 unknown,
-	 *    we know the last unknown must be filled in.
+	/** Work out the key a decision cache stores this demonstrator's move for a state under.  The move depends on the
+	 *    whole board, including its solution (see undoMistakesRule), so the key covers the puzzle and the fill of every
+	 *    tile.  Constant time, since the board keeps its state hash up to date.
 	 * 
-	 * 
-	 * @param board  The board on which to make a move
-	 * @return The move as a triple, or null if the move does not apply.
+	 * @param board The board
+	 * @return The key of the board's state
 	 */
-	public Triple restFilledRule(ComplexThermsBoard board) 
+	public long getStateKey(ComplexThermsBoard board)
 	{
-		
-		//rows
-		for(int i = 0; i < board.grid.size(); i++)
-		{
-			int filledSquares = 0;
-			int blankSquares = 0;
-			
-			//Get the number of filled and empty squares
-			for(int j = 0; j < board.grid.get(i).size();j++)
-			{
-				if(board.grid.get(i).get(j) == 1)
-					filledSquares++;
-				if(board.grid.get(i).get(j) == 0)
-					blankSquares++;
-			}
-			
-			//The rule applies because the number of unknown tiles + the number of filled tiles matches the required number of filled tiles
-			if(blankSquares == board.rowCounts.get(i) - filledSquares)
-			{
-				//Get the next tile to fill
-				for(int j = 0; j < board.grid.get(i).size();j++)
-				{
-					if(board.grid.get(i).get(j) == 0)
-					{
-						
-						return new Triple(i,j,1);
-						
-					}
-				}
-			}
-		}
-		
-		
-		
-		//Columns
-		for(int i = 0; i < board.grid.get(0).size(); i++)
-		{
-			int filledSquares = 0;
-			int blankSquares = 0;
-			
-			//Get the number of filled and empty tiles.
-			for(int j = 0; j < board.grid.size();j++)
-			{
-				if(board.grid.get(j).get(i) == 1)
-					filledSquares++;
-				if(board.grid.get(j).get(i) == 0)
-					blankSquares++;
-			}
-			
-			//The rule applies because the number of unknown tiles + the number of filled tiles matches the required number of filled tiles
-			if(blankSquares == board.colCounts.get(i) - filledSquares)
-			{
-				for(int j = 0; j < board.grid.size();j++)
-				{
-					if(board.grid.get(j).get(i) == 0)
-					{						
-					return new Triple(j,i,1);
-					
-					}
-				}
-			}
-		}
-		
-		return null;
+		return DecisionCache.combine(board.layout.getFingerprint(), board.getStateHash());
 	}
 	
-	
-	/** This rule triggers when we know the rest of a row or column must be empty.
-	 *    For example, if a row says 2 tiles should be filled (so 3 should be empty), and we have 2 filled 2 empty and 1 unknown,
-	 *    we know the last unknown must be empty.
-	 * 
+	/** Set the cache of earlier decisions to use, or null to stop using one
 	 * 
-	 * @param board  The board on which to make a move
-	 * @return The move as a triple, or null if the move does not apply.
+	 * @param cache The cache.  It can be shared with other Complex Thermometers demonstrators on the same thread.
 	 */
-	public Triple restEmptyRule(ComplexThermsBoard board) 
+	public void setDecisionCache(DecisionCache cache)
 	{
-		
-		//rows
-		for(int i = 0; i < board.grid.size(); i++)
-		{
-			int blankSquares = 0;
-			int emptySquares = 0;
-			
-			//Get the number of blanks and the number of empty squares
-			for(int j = 0; j < board.grid.get(i).size();j++)
-			{
-				if(board.grid.get(i).get(j) == 0)
-					blankSquares++;
-				if(board.grid.get(i).get(j) == -1)
-					emptySquares++;
-			}
-			
-			//Rule applies because the number of blanks + the number of empties == the number of tiles that should be blank in that row.
-			if(blankSquares == (board.grid.size() - board.rowCounts.get(i)) - emptySquares)
-			{
-				//Get the next tile to empty
-				for(int j = 0; j < board.grid.get(i).size();j++)
-				{
-					if(board.grid.get(i).get(j) == 0)
-					{
-						
-						return new Triple(i,j,-1);
-						
-					}
-				}
-			}
-		}
-		
-		
-		
-		//columns
-		for(int i = 0; i < board.grid.get(0).size(); i++)
-		{
-			int blankSquares = 0;
-			int emptySquares = 0;
-			
-			//Get the number of blanks and the number of empty squares
-			for(int j = 0; j < board.grid.size();j++)
-			{
-				if(board.grid.get(j).get(i) == 0)
-					blankSquares++;
-				if(board.grid.get(j).get(i) == -1)
-					emptySquares++;
-			}
-			
-			//Rule applies because the number of blanks + the number of empties == the number of tiles that should be blank in that row.
-			if(blankSquares == (board.grid.get(0).size() - board.colCounts.get(i)) - emptySquares)
-			{
-				//Get the next tile to set empty
-				for(int j = 0; j < board.grid.size();j++)
-				{
-					if(board.grid.get(j).get(i) == 0)
-					{						
-						return new Triple(j,i,-1);
-						
-					}
-				}
-			}
-		}
-		
-		return null;
+		decisionCache = cache;
 	}
-
 	
-	/** If there is an empty tile in a thermometer, we know the rest of it has to be empty as well.
+	/** Getter for the cache of earlier decisions
 	 * 
+	 * @return The cache, or null if there isn't one
+	 */
+	public DecisionCache getDecisionCache()
+	{
+		return decisionCache;
+	}
+
+	/** Works out a logical move from scratch.
 	 * 
+	 *  The rules are tried in this order, and the first one that applies gives the move:
+	 *     undoMistakesRule: set a tile that doesn't match the solution back to unknown
+	 *     restFilledRule: the rest of a row or column must be filled.  For example, if a row says 3 tiles should be
+	 *        filled, and we have 2 filled 2 empty and 1 unknown, we know the last unknown must be filled in.
+	 *     restEmptyRule: the rest of a row or column must be empty, in the same way
+	 *     restThermEmptyRule: if there is an empty tile in a thermometer, the rest of it has to be empty as well
+	 *     restThermFilledRule: if there is a filled tile in a thermometer, the tiles before it must be filled as well
+	 *     thermTooBigRule: a thermometer is too big to be filled.  For example, if there is one 5-tile long thermometer
+	 *        in a row that should have 3 filled tiles, the last two tiles in the thermometer must be empty.
+	 *     partiallyFillThermRule: a thermometer has to be partially filled.  For example, if there is one 5-tile long
+	 *        thermometer in a row that should have 2 filled tiles, its bulb and the tile after it must be filled.
+	 *  Apart from undoMistakesRule, they are all worked out together, one row or column at a time, and only for the
+	 *    rows and columns that changed since the last move (see fusedRules).
 	 * 
-	 * @param board The board on which to make a move
-	 * @return The move to make as a triple, null if there is none.
+	 * @param board The board on which to make a move.
+	 * @return The move to make, as a Triple
 	 */
-	public Triple restThermEmptyRule(ComplexThermsBoard board)
+	private Triple decideMove(ComplexThermsBoard board)
 	{
+		Triple expertMove = null;
 		
-		//Each row
-		for(int i = 0; i < board.rowTherms.size(); i++)
-		{
-			//Each thermometer in the row
-			for(int j = 0; j < board.rowTherms.get(i).size(); j++)
-			{
-				//Move to the first empty piece of the thermometer (or the end, if there is none)
-				int thermIndex = 0;
-				while(thermIndex < board.rowTherms.get(i).get(j).size() && (board.rowTherms.get(i).get(j).get(thermIndex).getFillStatus() == 0 || board.rowTherms.get(i).get(j).get(thermIndex).getFillStatus() == 1) )
-				{
-					thermIndex++;
-				}
-				
-				//If there is a empty piece in the thermometer, then it has to be empty from that place onwards
-				if(thermIndex < board.rowTherms.get(i).get(j).size()
-							&& board.rowTherms.get(i).get(j).get(thermIndex).getFillStatus() == -1)
-				{
-					//Return the next tile in the thermometer that needs emptied
-					int fillTherm = thermIndex+1;
-					while(fillTherm < board.rowTherms.get(i).get(j).size())
-					{
-						ThermometerPiece examinedPiece = board.rowTherms.get(i).get(j).get(fillTherm);
-						if(board.rowTherms.get(i).get(j).get(fillTherm).getFillStatus() == 0)
-						{
-							return new Triple(examinedPiece.getXPos(), examinedPiece.getYPos(),-1);
-							
-						}
-						fillTherm++;
-					}
-				}
-			}
-		}
+		//If there are any detectable mistakes, make a move to help fix them.
+		expertMove = undoMistakesRule(board);
+		if(expertMove != null)
+			return expertMove;
 		
-		//Each column
-		for(int i = 0; i < board.colTherms.size(); i++)
-		{
-			for(int j = 0; j < board.colTherms.get(i).size(); j++)
-			{
-				//Each thermometer in column
-				int thermIndex = 0;
-				
-				//Move to the first empty piece of the thermometer (or the end, if there is none)
-				while(thermIndex < board.colTherms.get(i).get(j).size() && (board.colTherms.get(i).get(j).get(thermIndex).getFillStatus() == 0 || board.colTherms.get(i).get(j).get(thermIndex).getFillStatus() == 1))
-				{
-					thermIndex++;
-				}
-				
-				//If there is a empty piece in the thermometer, then it has to be empty from that place onwards
-				if(thermIndex < board.colTherms.get(i).get(j).size()
-							&& board.colTherms.get(i).get(j).get(thermIndex).getFillStatus() == -1)
-				{
-					//Return the next tile in the thermometer that needs emptied
-					int fillTherm = thermIndex+1;
-					while(fillTherm < board.colTherms.get(i).get(j).size())
-					{
-						
-						ThermometerPiece examinedPiece = board.colTherms.get(i).get(j).get(fillTherm);
-						if(board.colTherms.get(i).get(j).get(fillTherm).getFillStatus() == 0)
-						{
-							return new Triple(examinedPiece.getXPos(), examinedPiece.getYPos(),-1);
-						
-						}
-						fillTherm++;
-					}
-				}
-			}
-		}
-	
-		//Rule didnt apply, so return null
-		return null;
+		//Otherwise use the first of the other rules that applies
+		return fusedRules(board);
 	}
 	
-	/** If there is a filled tile in a thermometer, we know the tiles before it must be filled as well.
-	 * 
-	 * 
+	/** Works out every rule but undoMistakesRule (see decideMove), and returns the move of the first of them (in that
+	 *    order) that applies.
+	 *  
+	 *  Each rule looks at the rows first and then the columns, and uses the first move it finds.  So the answer is
+	 *    the move of the first line whose own best rule (the first rule that applies to that line, with the first move
+	 *    it finds there) is the best of any line's.  Each line's best rule only depends on the tiles in that line and
+	 *    the thermometers along it, so it is kept between moves and only worked out again for the lines that have
+	 *    changed since (see LineChangeTracker.java).  A move changes one tile, so that is one row and one column.
 	 * 
 	 * @param board The board on which to make a move
-	 * @return The move to make as a triple, null if there is none.
+	 * @return The move to make, or null if none of the rules apply
 	 */
-	public Triple restThermFilledRule(ComplexThermsBoard board) 
+	private Triple fusedRules(ComplexThermsBoard board)
 	{
-		//Each row
-		for(int i = 0; i < board.rowTherms.size(); i++)
+		int numLines = 2 * board.grid.size();
+		if(lineTracker.track(board) && lineRule.length != numLines)
 		{
-			//Each Thermometer
-			for(int j = 0; j < board.rowTherms.get(i).size(); j++)
-			{
-				//get the farthest filled square from the base
-				int farthestFilled = -1;
-				for(int k = 0; k < board.rowTherms.get(i).get(j).size(); k++)
-				{
-					if(board.rowTherms.get(i).get(j).get(k).getFillStatus() == 1)
-						farthestFilled = k;
-				}
-				
-				//Make sure every square before that farthest one is filled
-				for(int k = 0; k < farthestFilled; k++)
-					if(board.rowTherms.get(i).get(j).get(k).getFillStatus() == 0)
-						return new Triple(board.rowTherms.get(i).get(j).get(k).getXPos(), board.rowTherms.get(i).get(j).get(k).getYPos(), 1);
-			}
+			lineRule = new int[numLines];
+			lineMoveRow = new int[numLines];
+			lineMoveCol = new int[numLines];
+			lineMoveValue = new int[numLines];
 		}
 		
-		//Each column
-		for(int i = 0; i < board.colTherms.size(); i++)
+		//Lines 0 to size-1 are the rows, and size to 2*size-1 are the columns.  Stop at the first line with the
+		//  best possible rule, since nothing after it can win.
+		int bestLine = -1;
+		int bestRule = NORULE;
+		for(int line = 0; line < numLines && bestRule > RULE_RESTFILLED; line++)
 		{
-			//Each thermometer
-			for(int j = 0; j < board.colTherms.get(i).size(); j++)
+			if(lineTracker.checkAndClear(line))
+				evaluateLine(board, line);
+			if(lineRule[line] < bestRule)
 			{
-				//get the farthest filled square from the base
-				int farthestFilled = -1;
-				for(int k = 0; k < board.colTherms.get(i).get(j).size(); k++)
-				{
-					if(board.colTherms.get(i).get(j).get(k).getFillStatus() == 1)
-						farthestFilled = k;
-				}
-				
-				//Check that each tile before that one is filled in
-				for(int k = 0; k < farthestFilled; k++)
-					if(board.colTherms.get(i).get(j).get(k).getFillStatus() == 0)
-						return new Triple(board.colTherms.get(i).get(j).get(k).getXPos(), board.colTherms.get(i).get(j).get(k).getYPos(), 1);
-
+				bestRule = lineRule[line];
+				bestLine = line;
 			}
 		}
 		
-		//None of the rules applied, so return null
-		return null;
+		if(bestRule == NORULE)
+			return null;
+		return new Triple(lineMoveRow[bestLine], lineMoveCol[bestLine], lineMoveValue[bestLine]);
 	}
 	
-	
-	
-	/** Thermometer is so big it can't possibly be filled.
-	 * 
-	 * For example, if there is one 5-tile long thermometer (on a 5x5 board), and only 3 squares should be filled in the row/column, 
-	 *   then we know the last two tiles in the thermometer must be empty, since it has to be filled from the bulb.
-	 * 
+	/** Work out the first of the rules (in makeAMove's order) that applies to one row or column,
+	 *    and the move it would make there, and keep them in lineRule and lineMove*
 	 * 
 	 * @param board The board on which to make a move
-	 * @return A triple containing the move to make, null if none
+	 * @param line The line: rows are lines 0 to size-1, and columns are lines size to 2*size-1
 	 */
-	public Triple thermTooBigRule(ComplexThermsBoard board) 
-	{		
-		//Each row
-		for(int i = 0; i < board.rowTherms.size(); i++)
-		{
-			int filledSquares = 0;
-			
-			//Get number of filled squares and squares left to be filled
-			for(int j = 0; j < board.grid.get(i).size();j++)
-			{
-				if(board.grid.get(i).get(j) == 1)
-					filledSquares++;
-			}
-			
-			int squaresLeftToFill = board.rowCounts.get(i) - filledSquares;
-			
-			
-			for(int j = 0; j < board.rowTherms.get(i).size(); j++)
-			{
-				//Get the blanks in the thermometer
-				int blanksInTherm = 0;
-				for(int k = 0; k < board.rowTherms.get(i).get(j).size(); k++)
-					if(board.rowTherms.get(i).get(j).get(k).getFillStatus() == 0)
-						blanksInTherm++;
-				
-				//If there are less squares left to fill than blanks
-				if(squaresLeftToFill < blanksInTherm)
-				{
-					//starting at the cap, set blanks to -1
-					int thermIndex = board.rowTherms.get(i).get(j).size() - 1;
-					int squaresGlassed = 0;
-					while(thermIndex >= 0 && board.rowTherms.get(i).get(j).get(thermIndex).getFillStatus() != 1
-								&& squaresGlassed < (blanksInTherm - squaresLeftToFill))
-					{
-						if(board.rowTherms.get(i).get(j).get(thermIndex).getFillStatus() == 0)
-						{
-							return new Triple(board.rowTherms.get(i).get(j).get(thermIndex).getXPos(),board.rowTherms.get(i).get(j).get(thermIndex).getYPos(), -1);
-						}
-						thermIndex--;
-					}
-				}
-					
-			}
-		}
-	
+	private void evaluateLine(ComplexThermsBoard board, int line)
+	{
+		int size = board.grid.size();
+		boolean isRow = line < size;
+		int index = isRow ? line : line - size;
+		int filledSquares = isRow ? board.countInRow(index, 1) : board.countInCol(index, 1);
+		int emptySquares = isRow ? board.countInRow(index, -1) : board.countInCol(index, -1);
+		int blankSquares = size - filledSquares - emptySquares;
 		
+		int bestRule = NORULE;
+		lineRule[line] = NORULE;
 		
+		//Every rule moves an unknown tile, and a line's thermometers all lie on the line, so nothing can apply here
+		if(blankSquares == 0)
+			return;
 		
-		//Each column
-		for(int i = 0; i < board.colTherms.size(); i++)
+		int fillCount = isRow ? board.rowCounts.get(index) : board.colCounts.get(index);
+		int squaresLeftToFill = fillCount - filledSquares;
+		
+		//restFilledRule and restEmptyRule: fill or empty the first unknown tile on the line.  These beat every
+		//  thermometer rule, so there is no need to look at the thermometers.
+		if(blankSquares == squaresLeftToFill || blankSquares == (size - fillCount) - emptySquares)
 		{
-			int filledSquares = 0;
-			
-			//Get number of filled squares and squares left to be filled
-			for(int j = 0; j < board.grid.get(i).size();j++)
-			{
-				if(board.grid.get(j).get(i) == 1)
-					filledSquares++;
-			}
-			
-			int squaresLeftToFill = board.colCounts.get(i) - filledSquares;
+			int j = 0;
+			while((isRow ? board.grid.get(index, j) : board.grid.get(j, index)) != 0)
+				j++;
+			boolean fill = blankSquares == squaresLeftToFill;
+			lineRule[line] = fill ? RULE_RESTFILLED : RULE_RESTEMPTY;
+			lineMoveRow[line] = isRow ? index : j;
+			lineMoveCol[line] = isRow ? j : index;
+			lineMoveValue[line] = fill ? 1 : -1;
+			return;
+		}
+		
+		//The thermometer rules, for each thermometer on the line
+		ArrayList<ArrayList<ThermometerPiece>> therms = isRow ? board.rowTherms.get(index) : board.colTherms.get(index);
+		for(int t = 0; t < therms.size() && bestRule > RULE_RESTTHERMEMPTY; t++)
+		{
+			ArrayList<ThermometerPiece> therm = therms.get(t);
+			int length = therm.size();
 			
-			for(int j = 0; j < board.colTherms.get(i).size(); j++)
+			//Positions (counting from the bulb) of the first empty, last filled, first unknown, last unknown and
+			//  first unknown after an empty tile, with length or -1 standing for none
+			int firstEmpty = length;
+			int lastFilled = -1;
+			int firstBlank = length;
+			int lastBlank = -1;
+			int blankAfterEmpty = length;
+			int blanksInTherm = 0;
+			for(int k = 0; k < length; k++)
 			{
-				//Get the blanks in the thermometer
-				int blanksInTherm = 0;
-				for(int k = 0; k < board.colTherms.get(i).get(j).size(); k++)
-					if(board.colTherms.get(i).get(j).get(k).getFillStatus() == 0)
-						blanksInTherm++;
-				
-				//If there are less squares left to fill than blanks
-				if(squaresLeftToFill < blanksInTherm)
+				int tile = board.getTile(therm.get(k));
+				if(tile == 1)
+					lastFilled = k;
+				else if(tile == -1)
+				{
+					if(firstEmpty == length)
+						firstEmpty = k;
+				}
+				else
 				{
-					//If there are less squares left to fill than blanks
-					int thermIndex = board.colTherms.get(i).get(j).size() - 1;
-					int squaresGlassed = 0;
-					
-					//starting at the cap, set blanks to -1
-					while(thermIndex >= 0 && board.colTherms.get(i).get(j).get(thermIndex).getFillStatus() != 1
-								&& squaresGlassed < (blanksInTherm - squaresLeftToFill))
-					{
-						if(board.colTherms.get(i).get(j).get(thermIndex).getFillStatus() == 0)
-						{
-							return new Triple(board.colTherms.get(i).get(j).get(thermIndex).getXPos(),board.colTherms.get(i).get(j).get(thermIndex).getYPos(), -1);
-						}
-						thermIndex--;
-					}
+					blanksInTherm++;
+					if(firstBlank == length)
+						firstBlank = k;
+					lastBlank = k;
+					if(firstEmpty < k && blankAfterEmpty == length)
+						blankAfterEmpty = k;
 				}
-					
 			}
-		}
-	
-		//Rule did not apply, so return null
-		return null;
-	}
-	
-	
-	/** Thermometer has to be partially filled.
-	 * 
-	 * For example, if there is one 5-tile long thermometer (on a 5x5 board), and 2 squares should be filled in the row/column, 
-	 *   then we know the bulb and the next piece after it must be the ones that are filled, since thermometers must be filled from the base.
-	 * 
-	 * 
-	 * @param board The board on which to make a move
-	 * @return A triple containing the move to make, null if none
-	 */
-	public Triple partiallyFillThermRule(ComplexThermsBoard board) 
-	{
-		//Each row
-		for(int i = 0; i < board.rowTherms.size(); i++)
-		{
-			int filledSquares = 0;
-			int blankSquares = 0;
+			if(blanksInTherm == 0)
+				continue;
 			
-			//Get number of filled squares and blanks on the row.
-			for(int j = 0; j < board.grid.get(i).size();j++)
+			//Only the first rule that applies to this thermometer can matter
+			int thermRule = NORULE;
+			int position = -1;
+			if(blankAfterEmpty < length)
 			{
-				if(board.grid.get(i).get(j) == 1)
-					filledSquares++;
-				if(board.grid.get(i).get(j) == 0)
-					blankSquares++;
+				//restThermEmptyRule: an unknown tile above an empty one must be empty
+				thermRule = RULE_RESTTHERMEMPTY;
+				position = blankAfterEmpty;
 			}
-			
-			//Number of squares still needing filled
-			int squaresLeftToFill = board.rowCounts.get(i) - filledSquares;
-			
-			for(int j = 0; j < board.rowTherms.get(i).size(); j++)
+			else if(firstBlank < lastFilled)
 			{
-				//Get the number of blank tiles in the thermometer
-				int blanksInTherm = 0;
-				for(int k = 0; k < board.rowTherms.get(i).get(j).size(); k++)
-					if(board.rowTherms.get(i).get(j).get(k).getFillStatus() == 0)
-						blanksInTherm++;
-				
-				int blanksNotInTherm = blankSquares - blanksInTherm;
-				
-				//If there aren't enough blanks outside of the thermometer to fill enough tiles to meet the required # of filled tiles, 
-				//  then we know that some tiles in the thermometer must be filled, and we know that they have to be filled from the base up.
-				if(blanksNotInTherm < squaresLeftToFill)
-				{
-					//Fill in the unknown tile in the thermometer that is closest to the bulb
-					int thermIndex = 0;
-					int squaresFilled= 0;
-					while(thermIndex < board.rowTherms.get(i).get(j).size() && board.rowTherms.get(i).get(j).get(thermIndex).getFillStatus() != -1
-								&& squaresFilled < (squaresLeftToFill - blanksNotInTherm))
-					{
-						if(board.rowTherms.get(i).get(j).get(thermIndex).getFillStatus() == 0)
-						{
-							return new Triple(board.rowTherms.get(i).get(j).get(thermIndex).getXPos(),board.rowTherms.get(i).get(j).get(thermIndex).getYPos(), 1);
-						}
-						thermIndex++;
-					}
-				}
-					
+				//restThermFilledRule: an unknown tile below a filled one must be filled
+				thermRule = RULE_RESTTHERMFILLED;
+				position = firstBlank;
 			}
-		}
-	
-		//Each Column
-		for(int i = 0; i < board.colTherms.size(); i++)
-		{
-			int filledSquares = 0;
-			int blankSquares = 0;
-			
-			//Get number of filled squares and blanks on the column.
-			for(int j = 0; j < board.grid.get(i).size();j++)
+			else if(squaresLeftToFill < blanksInTherm && lastBlank > lastFilled)
 			{
-				if(board.grid.get(j).get(i) == 1)
-					filledSquares++;
-				if(board.grid.get(j).get(i) == 0)
-					blankSquares++;
+				//thermTooBigRule: the unknown tile closest to the cap, if no filled tile is above it, must be empty
+				thermRule = RULE_THERMTOOBIG;
+				position = lastBlank;
+			}
+			else if(blankSquares - blanksInTherm < squaresLeftToFill && firstBlank < firstEmpty)
+			{
+				//partiallyFillThermRule: the unknown tile closest to the bulb, if no empty tile is below it, must be filled
+				thermRule = RULE_PARTIALLYFILLTHERM;
+				position = firstBlank;
 			}
 			
-			//Number of squares still needing filled
-			int squaresLeftToFill = board.colCounts.get(i) - filledSquares;
-			
-			for(int j = 0; j < board.colTherms.get(i).size(); j++)
+			if(thermRule < bestRule)
 			{
-				//Get the number of blank tiles in the thermometer
-				int blanksInTherm = 0;
-				for(int k = 0; k < board.colTherms.get(i).get(j).size(); k++)
-					if(board.colTherms.get(i).get(j).get(k).getFillStatus() == 0)
-						blanksInTherm++;
-				
-				int blanksNotInTherm = blankSquares - blanksInTherm;
-				
-				//If there aren't enough blanks outside of the thermometer to fill enough tiles to meet the required # of filled tiles, 
-				//  then we know that some tiles in the thermometer must be filled, and we know that they have to be filled from the base up.
-				if(blanksNotInTherm < squaresLeftToFill)
-				{
-					//there arent enough blanks outside the therm, so fill in the therm starting at the bottom
-					
-					int thermIndex = 0;
-					int squaresFilled= 0;
-					
-					//Fill in the unknown tile in the thermometer that is closest to the bulb
-					while(thermIndex < board.colTherms.get(i).get(j).size() && board.colTherms.get(i).get(j).get(thermIndex).getFillStatus() != -1
-								&& squaresFilled < (squaresLeftToFill - blanksNotInTherm))
-					{
-						if(board.colTherms.get(i).get(j).get(thermIndex).getFillStatus() == 0)
-						{
-							return new Triple(board.colTherms.get(i).get(j).get(thermIndex).getXPos(),board.colTherms.get(i).get(j).get(thermIndex).getYPos(), 1);
-							//allMoves.add(aMove);
-							//squaresFilled++;
-						}
-						thermIndex++;
-					}
-				}
-					
+				bestRule = thermRule;
+				lineRule[line] = thermRule;
+				lineMoveRow[line] = therm.get(position).getXPos();
+				lineMoveCol[line] = therm.get(position).getYPos();
+				lineMoveValue[line] = thermRule == RULE_RESTTHERMFILLED || thermRule == RULE_PARTIALLYFILLTHERM ? 1 : -1;
 			}
 		}
-		
-		//The rule did not apply, so return null
-		return null;
 	}
 	
 	/** If something on the board does not match the correct value for that tile, 
@@ -594,11 +304,16 @@ public class ComplexThermometersAI
 	 */
 	public Triple undoMistakesRule(ComplexThermsBoard board)
 	{
+		//Every unknown tile counts as not matching the solution, so if those are the only mismatches
+		//  there are no mistakes to find and the board doesn't need to be scanned.
+		if(board.getNumMismatched() == board.getNumBlank())
+			return null;
+		
 		for(int i = 0; i < board.grid.size(); i++)
 			for(int j = 0; j < board.grid.size(); j++)
 				//If the tile doesn't match the correct value for it, set it to unknown
-				if(board.grid.get(i).get(j) != 0
-					&& board.grid.get(i).get(j) != board.solutionGrid.get(i).get(j))
+				if(board.grid.get(i,j) != 0
+					&& board.grid.get(i,j) != board.solutionGrid.get(i,j))
 				{
 					return (new Triple(i,j,0));
 				}
@@ -609,6 +324,28 @@ public class ComplexThermometersAI
 	
 	
 	
+	/** Have this demonstrator solve a board, counting its moves.  Used to index and verify puzzle corpora
+	 *    (see PuzzleIndex.java and Main/VerifyCorpus.java).
+	 * 
+	 * @param board The board to solve
+	 * @return The number of moves taken, or PuzzleIndex.UNSOLVED if the demonstrator got stuck
+	 */
+	public int countMovesToSolve(ComplexThermsBoard board)
+	{
+		//Stop if the demonstrator goes round in circles; solving a board takes about one move per tile
+		int maxMoves = 2 * board.getSize() * board.getSize();
+		int numMoves = 0;
+		while(!board.isSolved())
+		{
+			Triple move = makeAMove(board);
+			if(move == null || numMoves == maxMoves)
+				return PuzzleIndex.UNSOLVED;
+			ApplyMovesToBoard.applyMove(board, move);
+			numMoves++;
+		}
+		return numMoves;
+	}
+	
 	/** This method checks to see if a board is solvable with this demonstrator.  The only reason a board should not be solvable is if it has multiple valid solutions.
 	 *     I don't actually use this in the domain, but its included so that if you want to add more boards, you can make sure the AI demonstrator is able to solve them.
 	 *  
@@ -627,8 +364,6 @@ public class ComplexThermometersAI
 		//Attempt to solve the board by making moves
 		while(!board.isSolved())
 		{
-			board.updateThermData();
-			
 			Triple expertMove = makeAMove(board);
 
 			ApplyMovesToBoard.applyMove(board, expertMove);
@@ -0,0 +1,274 @@
+package Demonstrators;
+
+import java.util.Arrays;
+
+import Utilities.Triple;
+
+/** A bounded cache of demonstrator decisions, so a demonstrator asked about a state it has already seen can hand back
+ *    the move it chose before instead of working it out again.  Episodes on the corpus, and relabeling the states a
+ *    learner visits, keep coming back to the same states, so the cache gets more useful the longer it is used.
+ *
+ *    Give a cache to a demonstrator with its setDecisionCache method.  States are looked up by a 64 bit key that the
+ *    demonstrator works out from the board (see SimpleThermometersAI.getStateKey and ComplexThermometersAI.getStateKey),
+ *    and two states with the same key are taken to be the same state.  With 64 bit keys that almost never happens by
+ *    accident, but it is possible, so leave the cache off where a wrong move can't be tolerated.  Keys from the two
+ *    demonstrators mean different things, so each domain needs its own cache.  Any number of demonstrators of the same
+ *    domain can share one, as long as they are all on the same thread.
+ *
+ *    When the cache is full, the entry to drop is picked with the CLOCK policy: entries are kept in a ring, each with
+ *    a bit that is set whenever it is used, and a hand goes round the ring clearing bits until it finds an entry whose
+ *    bit was already clear.  So entries that keep being used stay, much like with LRU, but a lookup only has to set
+ *    one bit.  Entries are found through an open-addressing hash table of ints, so looking a key up allocates nothing.
+ *
+ *    Not thread safe.
+ *
+ * @author Skularach
+ *
+ */
+public class DecisionCache
+{
+	//Number of decisions kept when no capacity is given
+	public static final int DEFAULTCAPACITY = 1 << 16;
+
+	//The entries, in the ring the clock hand goes round.  Only the first numEntries are used.
+	private final long[] entryKeys;
+	private final Triple[] entryMoves;
+	private final boolean[] referenced;
+	private int numEntries = 0;
+	private int hand = 0;
+
+	//Hash table from keys to entries: each slot holds an entry number plus one, or 0 if it is free.
+	//  It is at least twice as big as the number of entries, so it never gets more than half full.
+	private final int[] table;
+	private final int tableMask;
+
+	//How many lookups found a decision, and how many didn't
+	private long hits = 0;
+	private long misses = 0;
+
+	/** Constructor.  Keeps up to DEFAULTCAPACITY decisions.
+	 *
+	 */
+	public DecisionCache()
+	{
+		this(DEFAULTCAPACITY);
+	}
+
+	/** Constructor.
+	 *
+	 * @param capacity The most decisions to keep
+	 */
+	public DecisionCache(int capacity)
+	{
+		if(capacity < 1 || capacity > (1 << 28))
+			throw new IllegalArgumentException("Capacity " + capacity + " is not between 1 and " + (1 << 28));
+
+		entryKeys = new long[capacity];
+		entryMoves = new Triple[capacity];
+		referenced = new boolean[capacity];
+
+		int tableSize = Integer.highestOneBit(capacity) << 2;
+		table = new int[tableSize];
+		tableMask = tableSize - 1;
+	}
+
+	/** Look up the decision for a state, counting a hit or a miss
+	 *
+	 * @param key The key of the state
+	 * @return The move decided on before, or null if it isn't in the cache
+	 */
+	public Triple get(long key)
+	{
+		int entry = findEntry(key);
+		if(entry < 0)
+		{
+			misses++;
+			return null;
+		}
+		hits++;
+		referenced[entry] = true;
+		return entryMoves[entry];
+	}
+
+	/** Store the decision for a state, dropping another one if the cache is full
+	 *
+	 * @param key The key of the state
+	 * @param move The move decided on.  Moves are shared between every lookup of the key, so they must never be
+	 *             changed (Triples can't be).
+	 */
+	public void put(long key, Triple move)
+	{
+		int entry = findEntry(key);
+		if(entry >= 0)
+		{
+			entryMoves[entry] = move;
+			referenced[entry] = true;
+			return;
+		}
+
+		if(numEntries < entryKeys.length)
+			entry = numEntries++;
+		else
+		{
+			//Go round the ring giving every recently used entry a second chance, and drop the first one that hasn't been used
+			while(referenced[hand])
+			{
+				referenced[hand] = false;
+				hand = hand + 1 == entryKeys.length ? 0 : hand + 1;
+			}
+			entry = hand;
+			hand = hand + 1 == entryKeys.length ? 0 : hand + 1;
+			removeFromTable(entry);
+		}
+
+		entryKeys[entry] = key;
+		entryMoves[entry] = move;
+		referenced[entry] = false;
+
+		int slot = homeSlot(key);
+		while(table[slot] != 0)
+			slot = (slot + 1) & tableMask;
+		table[slot] = entry + 1;
+	}
+
+	/** Find the entry for a key
+	 *
+	 * @param key The key
+	 * @return The entry number, or -1 if the key isn't in the cache
+	 */
+	private int findEntry(long key)
+	{
+		int slot = homeSlot(key);
+		while(table[slot] != 0)
+		{
+			int entry = table[slot] - 1;
+			if(entryKeys[entry] == key)
+				return entry;
+			slot = (slot + 1) & tableMask;
+		}
+		return -1;
+	}
+
+	/** Take an entry out of the hash table, moving later entries back into the gap so none of them become unreachable
+	 *
+	 * @param entry The entry number
+	 */
+	private void removeFromTable(int entry)
+	{
+		int hole = homeSlot(entryKeys[entry]);
+		while(table[hole] != entry + 1)
+			hole = (hole + 1) & tableMask;
+
+		int slot = hole;
+		while(true)
+		{
+			slot = (slot + 1) & tableMask;
+			if(table[slot] == 0)
+				break;
+
+			//An entry can move back into the hole only if the hole is between its home slot and where it is now
+			int home = homeSlot(entryKeys[table[slot] - 1]);
+			if(((slot - home) & tableMask) >= ((slot - hole) & tableMask))
+			{
+				table[hole] = table[slot];
+				hole = slot;
+			}
+		}
+		table[hole] = 0;
+	}
+
+	/** Get the slot of the hash table to start looking for a key in
+	 *
+	 * @param key The key
+	 * @return The slot
+	 */
+	private int homeSlot(long key)
+	{
+		return (int) mix(key) & tableMask;
+	}
+
+	/** Forget every decision (the counters are kept)
+	 */
+	public void clear()
+	{
+		Arrays.fill(table, 0);
+		Arrays.fill(entryMoves, 0, numEntries, null);
+		Arrays.fill(referenced, false);
+		numEntries = 0;
+		hand = 0;
+	}
+
+	/** Set the hit and miss counters back to 0
+	 */
+	public void resetCounters()
+	{
+		hits = 0;
+		misses = 0;
+	}
+
+	/** Getter for the number of lookups that found a decision
+	 *
+	 * @return The number of hits since the counters were last reset
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/** Getter for the number of lookups that didn't find a decision
+	 *
+	 * @return The number of misses since the counters were last reset
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/** Getter for the fraction of lookups that found a decision
+	 *
+	 * @return Hits divided by lookups, or 0 if there haven't been any lookups
+	 */
+	public double getHitRate() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : hits / (double) lookups;
+	}
+
+	/** Getter for the number of decisions in the cache
+	 *
+	 * @return The number of decisions kept
+	 */
+	public int size() {
+		return numEntries;
+	}
+
+	/** Getter for the most decisions the cache keeps
+	 *
+	 * @return The capacity
+	 */
+	public int getCapacity() {
+		return entryKeys.length;
+	}
+
+	/** Combine two hashes into one, for building keys out of several parts.  The order matters: combine(a, b) is not
+	 *    usually the same as combine(b, a).
+	 *
+	 * @param hash The hash built up so far
+	 * @param value The next part to add
+	 * @return The combined hash
+	 */
+	public static long combine(long hash, long value)
+	{
+		return mix(hash * 0x9E3779B97F4A7C15L + value);
+	}
+
+	/** Scramble the bits of a long (the finishing step of the SplitMix64 generator), so keys that differ in only a few
+	 *    bits end up far apart
+	 *
+	 * @param z The value to scramble
+	 * @return The scrambled value
+	 */
+	private static long mix(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -2,7 +2,7 @@ package Demonstrators;
 
 import java.util.ArrayList;
 
-import BoardRepresentation.Board;
+import BoardRepresentation.BoardLayout;
 import BoardRepresentation.SimpleThermsBoard;
 import BoardRepresentation.ThermometerPiece;
 import Utilities.Triple;
@@ -23,377 +23,297 @@ import Utilities.Triple;
  */
 public class SimpleThermometersAI
 {
-	/** General make a move rule.  Checks each rule to see if any moves are applicable.
-	 * 
-	 * 
-	 * @param board The board on which to make a move.
-	 * @return The move to make.
-	 */
-	public Triple makeAMove(SimpleThermsBoard board )
+	//The thermometer rules makeAMove works out together, in the order it tries them.  A lower number wins.
+	private static final int RULE_RESTTHERMEMPTY = 0;
+	private static final int RULE_RESTTHERMFILLED = 1;
+	private static final int RULE_THERMTOOBIG = 2;
+	private static final int RULE_PARTIALLYFILLTHERM = 3;
+	private static final int NORULE = 4;
+	
+	//Every move this demonstrator makes is one of these shared moves, so making a move allocates nothing.
+	//  Triples never change, so the same one can be handed out any number of times.
+	public static final Triple MOVE = new Triple('m', -1, -1000);
+	public static final Triple CLEAR = new Triple('c', -1, -1000);
+	
+	//Fill and empty moves for the first NUMSHAREDPOSITIONS positions in a row/column.  Boards bigger than that
+	//  get new Triples for the positions past the end.
+	private static final int NUMSHAREDPOSITIONS = 64;
+	private static final Triple[] FILLMOVES = new Triple[NUMSHAREDPOSITIONS];
+	private static final Triple[] EMPTYMOVES = new Triple[NUMSHAREDPOSITIONS];
+	static
 	{
-		//Set up linear "view"
-		ArrayList<Integer> currentLine =  new ArrayList<Integer>();
-		ArrayList<ArrayList<ThermometerPiece>> therms;
-		int fillCount = -1;
-		boolean isRow = board.lookingAtRows;
-		int rowOrColIndex = -1;
-		if(isRow)
-			rowOrColIndex = board.rowIndex;
-		else
-			rowOrColIndex = board.colIndex;
-		
-		//Get the data for the row or column we are supposed to make a move for.
-		if(isRow)
-		{
-			therms = board.rowTherms.get(rowOrColIndex);
-			fillCount = board.rowCounts.get(rowOrColIndex);
-			for(int i = 0; i < Board.BOARDSIZE; i++)
-				currentLine.add(board.grid.get(rowOrColIndex).get(i));
-		}
-		else
+		for(int position = 0; position < NUMSHAREDPOSITIONS; position++)
 		{
-			therms = board.colTherms.get(rowOrColIndex);
-			fillCount = board.colCounts.get(rowOrColIndex);
-			for(int i = 0; i < Board.BOARDSIZE; i++)
-				currentLine.add(board.grid.get(i).get(rowOrColIndex));
+			FILLMOVES[position] = new Triple('f', position, -1000);
+			EMPTYMOVES[position] = new Triple('e', position, -1000);
 		}
-		
-		Triple expertMove = null;
-		
-		//If there are constraint violations in the row/column, 
-		//  always return the clear move.
-		if(board.detectConstraintViolations(currentLine, fillCount, therms))
-			return new Triple ('c',-1,-1000);
-		
-		//Call each rule in order, return the first one that doesn't give us a null move.
-		expertMove = restFilledRule(currentLine,fillCount,isRow,rowOrColIndex);
-		if(expertMove != null)
-			return expertMove;
-		
-		expertMove = restEmptyRule(currentLine,fillCount,isRow,rowOrColIndex);
-		if(expertMove != null)
-			return expertMove;
-		
-		expertMove = restThermEmptyRule(currentLine,fillCount,therms, isRow);
-		if(expertMove != null)
-			return expertMove;
-		
-		expertMove = restThermFilledRule(currentLine,fillCount,therms, isRow);
-		if(expertMove != null)
-			return expertMove;
-		
-		expertMove = thermTooBigRule(currentLine,fillCount,therms, isRow);
-		if(expertMove != null)
-			return expertMove;
-		
-		expertMove = partiallyFillThermRule(currentLine, fillCount, therms, isRow);
-		if(expertMove != null)
-			return expertMove;
-		
-		//if STILL null, cycle to next row/column with "move" action
-		return new Triple('m',-1,-1000);
 	}
 	
-	/** If the rest of the tiles in the row/column should be filled
+	/** Get the move that fills a tile in the current row/column
 	 * 
+	 * @param position The position of the tile in the row/column
+	 * @return The (shared) move
+	 */
+	public static Triple fillMove(int position)
+	{
+		return position < NUMSHAREDPOSITIONS ? FILLMOVES[position] : new Triple('f', position, -1000);
+	}
+	
+	/** Get the move that empties a tile in the current row/column
 	 * 
-	 * @param linearArray The row or column
-	 * @param fillCount The number of tiles that should be filled in
-	 * @param isRow If the linearArray is a row
-	 * @param rowOrColIndex index of which row or column we are acting upon.
-	 * @return
+	 * @param position The position of the tile in the row/column
+	 * @return The (shared) move
 	 */
-	public Triple restFilledRule(ArrayList<Integer> linearArray,
-			int fillCount, boolean isRow, int rowOrColIndex) 
+	public static Triple emptyMove(int position)
 	{
-		
-		
-		int filledSquares = 0;
-		int blankSquares = 0;
-		
-		//Get number of filled and blank squares
-		for(int j = 0; j < linearArray.size();j++)
-		{
-			if(linearArray.get(j) == 1)
-				filledSquares++;
-			if(linearArray.get(j) == 0)
-				blankSquares++;
-		}
-		
-		//The rest of the tiles need filled in
-		if(blankSquares == fillCount - filledSquares)
-		{
-			//Return to fill the first blank value in row/column
-			for(int j = 0; j < linearArray.size();j++)
-			{
-				if(linearArray.get(j) == 0)
-				{
-						return new Triple('f',j,-1000);
-				}
-			}
-		}
-		
-		//Rule did not apply, return null
-		return null;
+		return position < NUMSHAREDPOSITIONS ? EMPTYMOVES[position] : new Triple('e', position, -1000);
 	}
 	
+	//Optional cache of earlier decisions (see DecisionCache.java), or null to work every move out
+	private DecisionCache decisionCache = null;
 	
-	/** If the rest of the tiles in the row/column should be empty
-	 * 
+	//Key of the shape of each row and column (see getLineShapeKey), for the last layout a key was worked out for.
+	//  Lines are numbered as in Board.getLineVersion.
+	private BoardLayout shapeLayout = null;
+	private long[] lineShapeKeys = new long[0];
+	
+	/** General make a move rule.  If there is a decision cache and it already has a move for this state, that move is
+	 *    returned; otherwise the move is worked out (see decideMove) and stored in the cache.
 	 * 
-	 * @param linearArray The row or column
-	 * @param fillCount The number of tiles that should be filled in
-	 * @param isRow If the linearArray is a row
-	 * @param rowOrColIndex index of which row or column we are acting upon.
-	 * @return
+	 * @param board The board on which to make a move.
+	 * @return The move to make.
 	 */
-	public Triple restEmptyRule(ArrayList<Integer> grid,
-			int fillCount, boolean isRow, int rowOrColIndex) 
+	public Triple makeAMove(SimpleThermsBoard board )
 	{
-			int blankSquares = 0;
-			int emptySquares = 0;
-			
-			//Get the current number of blank and empty squares
-			for(int j = 0; j < grid.size();j++)
-			{
-				if(grid.get(j) == 0)
-					blankSquares++;
-				if(grid.get(j) == -1)
-					emptySquares++;
-			}
-			
-			//The rest of the tiles must be empty, because the number of unknown squares is the same as the remaining
-			//  number of tiles that need to be empty.
-			if(blankSquares == (grid.size() - fillCount) - emptySquares)
-			{
-				for(int j = 0; j < grid.size();j++)
-				{
-					if(grid.get(j) == 0)
-					{
-						return new Triple('e',j,-1000);	
-					}
-				}
-			}
+		if(decisionCache == null)
+			return decideMove(board);
 		
-		//Rule did not apply
-		return null;
+		long key = getStateKey(board);
+		Triple move = decisionCache.get(key);
+		if(move == null)
+		{
+			move = decideMove(board);
+			decisionCache.put(key, move);
+		}
+		return move;
 	}
-
 	
-	/**  If a thermometer has an empty tile in it at some point, we know all tiles after that one in 
-	 *     the thermometer must also be emptied.
+	/** Work out the key a decision cache stores this demonstrator's move for a state under.
 	 * 
-	 * @param grid  The current fills for the row/column
-	 * @param fillCount  The required fills for the row/column
-	 * @param therms  All of the thermometers in the row/column
-	 * @param isRow  Whether we are looking at a row or column
-	 * @return  The move to make as a Triple
+	 *  The move only depends on the row/column being looked at: its fills, how many of its tiles should be filled, and
+	 *    the thermometers along it.  Moves are given as positions along the line, so the same line state gives the same
+	 *    move wherever it is, on any board of the same size.  So the key only covers those, which lets decisions made on
+	 *    one board be reused on others.  Constant time, apart from working out the shapes of the lines once per layout.
+	 * 
+	 * @param board The board
+	 * @return The key of the state of the row/column being looked at
 	 */
-	public Triple restThermEmptyRule(ArrayList<Integer> grid,
-			int fillCount, ArrayList<ArrayList<ThermometerPiece>> therms, boolean isRow) 
+	public long getStateKey(SimpleThermsBoard board)
 	{
+		int size = board.getSize();
+		int line = board.lookingAtRows ? board.rowIndex : size + board.colIndex;
 		
-		//For each thermometer
-		for(int j = 0; j < therms.size(); j++)
+		if(board.layout != shapeLayout)
 		{
-			int thermIndex = 0;
-			while(thermIndex < therms.get(j).size() && (therms.get(j).get(thermIndex).getFillStatus() == 0 ||therms.get(j).get(thermIndex).getFillStatus() == 1) )
-			{
-				thermIndex++;
-			}
-			
-			//If there is an empty tile in the thermometer
-			if(thermIndex < therms.get(j).size()
-						&& therms.get(j).get(thermIndex).getFillStatus() == -1)
+			shapeLayout = board.layout;
+			if(lineShapeKeys.length != 2 * size)
+				lineShapeKeys = new long[2 * size];
+			for(int i = 0; i < size; i++)
 			{
-
-				int fillTherm = thermIndex+1;
-
-				//Empty the first unknown tile in the thermometer AFTER the empty 
-				while(fillTherm < therms.get(j).size())
-				{
-					ThermometerPiece examinedPiece = therms.get(j).get(fillTherm);
-					if(therms.get(j).get(fillTherm).getFillStatus() == 0)
-					{
-						//Construct triple based on whether we are looking at row or column
-						if(isRow)
-							return new Triple('e',examinedPiece.getYPos(),-1000);
-						else
-							return new Triple('e',examinedPiece.getXPos(),-1000);
-					}
-					fillTherm++;
-				}
+				lineShapeKeys[i] = getLineShapeKey(size, board.rowCounts.get(i), board.rowTherms.get(i), true);
+				lineShapeKeys[size + i] = getLineShapeKey(size, board.colCounts.get(i), board.colTherms.get(i), false);
 			}
 		}
-
-		//The rule does not apply.
-		return null;
+		return DecisionCache.combine(lineShapeKeys[line], board.getLineHash(line));
 	}
 	
-	/**  If a thermometer has a filled tile in it at some point, all of the tiles before
-	 *     that one (relative to the bulb) should be filled in.
+	/** Work out a key for everything about a row or column that doesn't change as the board is played:
+	 *    its length, how many of its tiles should be filled, and where each thermometer along it is, in order.
 	 * 
-	 * @param grid  The current fills for the row/column
-	 * @param fillCount  The required fills for the row/column
-	 * @param therms  All of the thermometers in the row/column
-	 * @param isRow  Whether we are looking at a row or column
-	 * @return  The move to make as a Triple
+	 * @param size The width/height of the board
+	 * @param fillCount The number of tiles in the line that should be filled
+	 * @param therms The thermometers along the line
+	 * @param isRow Whether the line is a row
+	 * @return The key of the line's shape
 	 */
-	public Triple restThermFilledRule(ArrayList<Integer> grid,
-			int fillCount, ArrayList<ArrayList<ThermometerPiece>> therms, boolean isRow) 
+	private static long getLineShapeKey(int size, int fillCount, ArrayList<ArrayList<ThermometerPiece>> therms, boolean isRow)
 	{
-		//Each thermometer
-		for(int j = 0; j < therms.size(); j++)
+		long key = DecisionCache.combine(size, fillCount);
+		for(ArrayList<ThermometerPiece> therm : therms)
 		{
-			
-			//Get the farthest tile in the thermometer that has been filled
-			int farthestFilled = -1;
-			for(int k = 0; k < therms.get(j).size(); k++)
-			{
-				if(therms.get(j).get(k).getFillStatus() == 1)
-					farthestFilled = k;
-			}
-			
-			//The first tile from the bulb up that is blank and before the farthest filled tile must be filled.
-			for(int k = 0; k < farthestFilled; k++)
-				if(therms.get(j).get(k).getFillStatus() == 0)
-					if(isRow)
-						return new Triple('f',therms.get(j).get(k).getYPos(),-1000);
-					else
-						return new Triple('f',therms.get(j).get(k).getXPos(),-1000);
+			//Mark where each thermometer starts, so two short thermometers don't look like one long one
+			key = DecisionCache.combine(key, -therm.size());
+			for(ThermometerPiece piece : therm)
+				key = DecisionCache.combine(key, isRow ? piece.getYPos() : piece.getXPos());
 		}
-		
-		//The rule does not apply.
-		return null;
+		return key;
 	}
 	
-	
-	/** If we have less tiles left to fill than there are blanks in a thermometer, we know some of those tiles must be marked empty.
+	/** Set the cache of earlier decisions to use, or null to stop using one
 	 * 
-	 *  For example, if there is one 5-tile long thermometer (on a 5x5 board), and only 3 squares should be filled in the row/column, 
-	 *   then we know the last two tiles in the thermometer must be empty, since it has to be filled from the bulb.
-	 *
-	 * @param grid  The current fills for the row/column
-	 * @param fillCount  The required fills for the row/column
-	 * @param therms  All of the thermometers in the row/column
-	 * @param isRow  Whether we are looking at a row or column
-	 * @return  The move to make as a Triple
+	 * @param cache The cache.  It can be shared with other Simple Thermometers demonstrators on the same thread.
 	 */
-	public Triple thermTooBigRule(ArrayList<Integer> grid,
-			int fillCount, ArrayList<ArrayList<ThermometerPiece>> therms, boolean isRow) 
-	{		
-	
-		int filledSquares = 0;
-		
-		//Get number of currently filled in squares
-		for(int j = 0; j < grid.size();j++)
-		{
-			if(grid.get(j) == 1)
-				filledSquares++;
-		}
-		
-		int squaresLeftToFill = fillCount - filledSquares;
-		
-		//For each thermometer
-		for(int j = 0; j < therms.size(); j++)
-		{
-			//Get the number of unknown tiles
-			int blanksInTherm = 0;
-			for(int k = 0; k < therms.get(j).size(); k++)
-				if(therms.get(j).get(k).getFillStatus() == 0)
-					blanksInTherm++;
-			
-			//If there are less squares that still need filled to meet the row/column constraint than there are blanks in the thermometer,
-			if(squaresLeftToFill < blanksInTherm)
-			{
-				//starting at the cap, set blanks to -1
-				int thermIndex = therms.get(j).size() - 1;
-				int squaresGlassed = 0;
-				while(thermIndex >= 0 && therms.get(j).get(thermIndex).getFillStatus() != 1
-							&& squaresGlassed < (blanksInTherm - squaresLeftToFill))
-				{
-					if(therms.get(j).get(thermIndex).getFillStatus() == 0)
-					{
-						//Return the move, dependent on whether we are looking at rows or columns.
-						if(isRow)
-							return new Triple('e',therms.get(j).get(thermIndex).getYPos(),-1000);
-						else
-							return new Triple('e',therms.get(j).get(thermIndex).getXPos(),-1000);
-					}
-					thermIndex--;
-				}
-			}
-				
-		}
-
-		//The rule does not apply.
-		return null;
+	public void setDecisionCache(DecisionCache cache)
+	{
+		decisionCache = cache;
 	}
 	
+	/** Getter for the cache of earlier decisions
+	 * 
+	 * @return The cache, or null if there isn't one
+	 */
+	public DecisionCache getDecisionCache()
+	{
+		return decisionCache;
+	}
 	
-	/** If we have more tiles left to fill than there are blanks outside the thermometer, we know some of the tiles must be filled.
+	/** Works out a move from scratch.  Checks each rule to see if any moves are applicable.
+	 * 
+	 *  The rules are tried in this order, and the first one that applies gives the move:
+	 *     restFilledRule: the rest of the unknown tiles must be filled, so fill the first one
+	 *     restEmptyRule: the rest of the unknown tiles must be empty, so empty the first one
+	 *     restThermEmptyRule: an unknown tile after an empty one in a thermometer must be empty
+	 *     restThermFilledRule: an unknown tile before a filled one in a thermometer must be filled
+	 *     thermTooBigRule: if a thermometer has more unknown tiles than there are tiles left to fill, empty the one
+	 *        closest to its cap (unless a filled tile is after it)
+	 *     partiallyFillThermRule: if there are fewer unknown tiles outside a thermometer than there are tiles left to
+	 *        fill, fill the one closest to its bulb (unless an empty tile is before it)
+	 *  The thermometer rules go through the thermometers in order and use the first one they apply to.  They are all
+	 *    worked out in one pass straight off the board, using the board's running counts, and the move returned is
+	 *    one of the shared moves above, so this allocates nothing.
 	 * 
-	 *  For example, if there is one 5-tile long thermometer (on a 5x5 board), and only 3 squares should be filled in the row/column, 
-	 *   then we know the first three tiles (relative to the bulb) in the thermometer must be empty, since it has to be filled from the bulb.
-	 *
-	 * @param grid  The current fills for the row/column
-	 * @param fillCount  The required fills for the row/column
-	 * @param therms  All of the thermometers in the row/column
-	 * @param isRow  Whether we are looking at a row or column
-	 * @return  The move to make as a Triple
+	 * @param board The board on which to make a move.
+	 * @return The move to make.
 	 */
-	public Triple partiallyFillThermRule(ArrayList<Integer> grid,
-			int fillCount, ArrayList<ArrayList<ThermometerPiece>> therms, boolean isRow) 
+	private Triple decideMove(SimpleThermsBoard board)
 	{
-		int filledSquares = 0;
-		int blankSquares = 0;
+		int size = board.getSize();
+		boolean isRow = board.lookingAtRows;
+		int rowOrColIndex = isRow ? board.rowIndex : board.colIndex;
+		
+		//Get the data for the row or column we are supposed to make a move for.
+		ArrayList<ArrayList<ThermometerPiece>> therms = isRow ? board.rowTherms.get(rowOrColIndex) : board.colTherms.get(rowOrColIndex);
+		int fillCount = isRow ? board.rowCounts.get(rowOrColIndex) : board.colCounts.get(rowOrColIndex);
 		
-		//Get number of filled and blank squares in the row/column
-		for(int j = 0; j < grid.size();j++)
+		//The board keeps running counts of each fill for every row/column, so none of the rules need to count them
+		int filledSquares = board.countInCurrentLine(1);
+		int emptySquares = board.countInCurrentLine(-1);
+		int blankSquares = board.countInCurrentLine(0);
+		
+		//If there are constraint violations in the row/column, 
+		//  always return the clear move.
+		if(board.detectConstraintViolations())
+			return CLEAR;
+		
+		//Every rule fills or empties an unknown tile, so if there are none, cycle to the next row/column
+		if(blankSquares == 0)
+			return MOVE;
+		
+		//restFilledRule and restEmptyRule: the rest of the tiles must be filled (or empty), so do the first unknown one
+		boolean restFilled = blankSquares == fillCount - filledSquares;
+		if(restFilled || blankSquares == (size - fillCount) - emptySquares)
 		{
-			if(grid.get(j) == 1)
-				filledSquares++;
-			if(grid.get(j) == 0)
-				blankSquares++;
+			int j = 0;
+			while(getFill(board, isRow, rowOrColIndex, j) != 0)
+				j++;
+			return restFilled ? fillMove(j) : emptyMove(j);
 		}
 		
-		//Squares left to need filled
+		//The thermometer rules.  Each rule looks through the thermometers in order and takes the first one it applies to,
+		//  so keep the first thermometer for the earliest rule that applies to any of them.
 		int squaresLeftToFill = fillCount - filledSquares;
-		
-		for(int j = 0; j < therms.size(); j++)
+		int bestRule = NORULE;
+		Triple bestMove = MOVE;
+		for(int j = 0; j < therms.size() && bestRule > RULE_RESTTHERMEMPTY; j++)
 		{
-			//Get the number of blanks in the thermometer
+			ArrayList<ThermometerPiece> therm = therms.get(j);
+			int length = therm.size();
+			
+			//Positions (counting from the bulb) of the first empty, last filled, first unknown, last unknown and
+			//  first unknown after an empty tile, with length or -1 standing for none
+			int firstEmpty = length;
+			int lastFilled = -1;
+			int firstBlank = length;
+			int lastBlank = -1;
+			int blankAfterEmpty = length;
 			int blanksInTherm = 0;
-			for(int k = 0; k < therms.get(j).size(); k++)
-				if(therms.get(j).get(k).getFillStatus() == 0)
+			for(int k = 0; k < length; k++)
+			{
+				int fill = board.getTile(therm.get(k));
+				if(fill == 1)
+					lastFilled = k;
+				else if(fill == -1)
+				{
+					if(firstEmpty == length)
+						firstEmpty = k;
+				}
+				else
+				{
 					blanksInTherm++;
+					if(firstBlank == length)
+						firstBlank = k;
+					lastBlank = k;
+					if(firstEmpty < k && blankAfterEmpty == length)
+						blankAfterEmpty = k;
+				}
+			}
+			if(blanksInTherm == 0)
+				continue;
 			
-			int blanksNotInTherm = blankSquares - blanksInTherm;
+			//Only the first rule that applies to this thermometer can matter
+			int thermRule = NORULE;
+			int thermIndex = -1;
+			if(blankAfterEmpty < length)
+			{
+				//restThermEmptyRule: an unknown tile after an empty one must be empty
+				thermRule = RULE_RESTTHERMEMPTY;
+				thermIndex = blankAfterEmpty;
+			}
+			else if(firstBlank < lastFilled)
+			{
+				//restThermFilledRule: an unknown tile before a filled one must be filled
+				thermRule = RULE_RESTTHERMFILLED;
+				thermIndex = firstBlank;
+			}
+			else if(squaresLeftToFill < blanksInTherm && lastBlank > lastFilled)
+			{
+				//thermTooBigRule: the unknown tile closest to the cap, if no filled tile is after it, must be empty
+				thermRule = RULE_THERMTOOBIG;
+				thermIndex = lastBlank;
+			}
+			else if(blankSquares - blanksInTherm < squaresLeftToFill && firstBlank < firstEmpty)
+			{
+				//partiallyFillThermRule: the unknown tile closest to the bulb, if no empty tile is before it, must be filled
+				thermRule = RULE_PARTIALLYFILLTHERM;
+				thermIndex = firstBlank;
+			}
 			
-			//If there are less blanks outside the thermometer than there are tiles left to fill
-			if(blanksNotInTherm < squaresLeftToFill)
+			if(thermRule < bestRule)
 			{
-				//Set the first tile, from the bulb up, in the thermometer that is unknown to filled
-				int thermIndex = 0;
-				int squaresFilled= 0;
-				while(thermIndex < therms.get(j).size() && therms.get(j).get(thermIndex).getFillStatus() != -1
-							&& squaresFilled < (squaresLeftToFill - blanksNotInTherm))
-				{
-					if(therms.get(j).get(thermIndex).getFillStatus() == 0)
-					{
-						//Return to fill a tile, based on whether we are looking at a row or column
-						if(isRow)
-							return new Triple('f',therms.get(j).get(thermIndex).getYPos(),-1000);						//allMoves.add(aMove);
-						else
-							return new Triple('f',therms.get(j).get(thermIndex).getXPos(),-1000);
-					}
-					thermIndex++;
-				}
+				bestRule = thermRule;
+				ThermometerPiece piece = therm.get(thermIndex);
+				int position = isRow ? piece.getYPos() : piece.getXPos();
+				bestMove = thermRule == RULE_RESTTHERMFILLED || thermRule == RULE_PARTIALLYFILLTHERM ? fillMove(position) : emptyMove(position);
 			}
-				
 		}
 		
-		//The rule does not apply
-		return null;
+		//if no rule applied, bestMove is still the "move" action, to cycle to the next row/column
+		return bestMove;
+	}
+	
+	/** Get the current fill of a tile in the row/column being looked at, straight from the board
+	 * 
+	 * @param board The board
+	 * @param isRow Whether we are looking at a row or column
+	 * @param rowOrColIndex Which row or column
+	 * @param position The position of the tile in the row/column
+	 * @return 1 for filled, -1 for empty, 0 for unknown
+	 */
+	private static int getFill(SimpleThermsBoard board, boolean isRow, int rowOrColIndex, int position)
+	{
+		if(isRow)
+			return board.grid.get(rowOrColIndex, position);
+		else
+			return board.grid.get(position, rowOrColIndex);
 	}
-}
\ No newline at end of file
+}
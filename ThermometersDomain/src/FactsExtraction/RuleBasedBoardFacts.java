@@ -3,6 +3,8 @@ package FactsExtraction;
 import java.util.ArrayList;
 
 import javafx.util.Pair;
+import BoardRepresentation.Board;
+import BoardRepresentation.LineChangeTracker;
 import BoardRepresentation.ThermometerPiece;
 import Utilities.Quadruple;
 import Utilities.Triple;
@@ -20,30 +22,22 @@ public class RuleBasedBoardFacts
 	 *    the rest of the tiles in any row/column must be filled.  This happens if the number 
 	 *    of unknown tiles in the row matches the number of tiles that must still be filled in.
 	 * 
-	 * @param grid The grid on which to check the rule
+	 * @param board The board on which to check the rule.
 	 * @param rowCounts The number of tiles that should be filled in each row
 	 * @param colCounts The number of tiles that should be filled in each column
 	 * @return A list of all places where the rule applies, where each place is <{r,c},{index of row/column} >
 	 */
-	public static ArrayList<Pair<Character, Integer>> restFilledRuleFacts(ArrayList<ArrayList<Integer>> grid,
+	public static ArrayList<Pair<Character, Integer>> restFilledRuleFacts(Board board,
 			ArrayList<Integer> rowCounts, ArrayList<Integer> colCounts) 
 	{
 		ArrayList<Pair<Character, Integer>> allPairs = new ArrayList<Pair<Character, Integer>>();
 		
 		//For each row
-		for(int i = 0; i < grid.size(); i++)
+		for(int i = 0; i < board.grid.size(); i++)
 		{
-			int filledSquares = 0;
-			int blankSquares = 0;
-			
 			//Get number of filled and empty squares
-			for(int j = 0; j < grid.get(i).size();j++)
-			{
-				if(grid.get(i).get(j) == 1)
-					filledSquares++;
-				if(grid.get(i).get(j) == 0)
-					blankSquares++;
-			}
+			int filledSquares = board.countInRow(i, 1);
+			int blankSquares = board.countInRow(i, 0);
 			
 			//If the number of blank squares is the same as the number of tiles we still
 			//  need to fill in that row, add a location where the rule applies
@@ -56,19 +50,11 @@ public class RuleBasedBoardFacts
 		
 		
 		//For each column
-		for(int i = 0; i < grid.get(0).size(); i++)
+		for(int i = 0; i < board.grid.size(); i++)
 		{
-			int filledSquares = 0;
-			int blankSquares = 0;
-			
 			//Get number of filled and empty squares
-			for(int j = 0; j < grid.size();j++)
-			{
-				if(grid.get(j).get(i) == 1)
-					filledSquares++;
-				if(grid.get(j).get(i) == 0)
-					blankSquares++;
-			}
+			int filledSquares = board.countInCol(i, 1);
+			int blankSquares = board.countInCol(i, 0);
 			
 			//If the number of blank squares is the same as the number of tiles we still
 			//  need to fill in that row, add a location where the rule applies
@@ -86,35 +72,27 @@ public class RuleBasedBoardFacts
 	 *    the rest of the tiles in any row/column must be empty.  This happens if the number 
 	 *    of unknown tiles in the row matches the number of tiles that must still be emtpied.
 	 * 
-	 * @param grid The grid on which to check the rule
+	 * @param board The board on which to check the rule.
 	 * @param rowCounts The number of tiles that should be filled in each row
 	 * @param colCounts The number of tiles that should be filled in each column
 	 * @return A list of all places where the rule applies, where each place is <{r,c},{index of row/column} >
 	 */
-	public static ArrayList<Pair<Character, Integer>>  restEmptyRuleFacts(ArrayList<ArrayList<Integer>> grid,
+	public static ArrayList<Pair<Character, Integer>>  restEmptyRuleFacts(Board board,
 			ArrayList<Integer> rowCounts, ArrayList<Integer> colCounts) 
 	{
 		//List of locations where the rule applies
 		ArrayList<Pair<Character, Integer>> allPairs = new ArrayList<Pair<Character, Integer>>();
 		
 		//For each row
-		for(int i = 0; i < grid.size(); i++)
+		for(int i = 0; i < board.grid.size(); i++)
 		{
-			int blankSquares = 0;
-			int emptySquares = 0;
-			
 			//Get the number of blank and empty tiles
-			for(int j = 0; j < grid.get(i).size();j++)
-			{
-				if(grid.get(i).get(j) == 0)
-					blankSquares++;
-				if(grid.get(i).get(j) == -1)
-					emptySquares++;
-			}
+			int blankSquares = board.countInRow(i, 0);
+			int emptySquares = board.countInRow(i, -1);
 			
 			//If the number of blank squares is equal to the number of squares that still need 
 			//  emptied in the row due to the row constraint.
-			if(blankSquares == (grid.size() - rowCounts.get(i)) - emptySquares  && blankSquares > 0)
+			if(blankSquares == (board.grid.size() - rowCounts.get(i)) - emptySquares  && blankSquares > 0)
 			{
 				allPairs.add(new Pair<Character, Integer> ('r',i) );
 			}
@@ -123,23 +101,15 @@ public class RuleBasedBoardFacts
 		
 		
 		//For each column
-		for(int i = 0; i < grid.get(0).size(); i++)
+		for(int i = 0; i < board.grid.size(); i++)
 		{
-			int blankSquares = 0;
-			int emptySquares = 0;
-			
 			//Get the number of blank and empty tiles
-			for(int j = 0; j < grid.size();j++)
-			{
-				if(grid.get(j).get(i) == 0)
-					blankSquares++;
-				if(grid.get(j).get(i) == -1)
-					emptySquares++;
-			}
+			int blankSquares = board.countInCol(i, 0);
+			int emptySquares = board.countInCol(i, -1);
 			
 			//If the number of blank squares is equal to the number of squares that still need 
 			//  emptied in the column due to the column constraint.
-			if(blankSquares == (grid.get(0).size() - colCounts.get(i)) - emptySquares  && blankSquares > 0)
+			if(blankSquares == (board.grid.size() - colCounts.get(i)) - emptySquares  && blankSquares > 0)
 			{
 				allPairs.add(new Pair<Character, Integer> ('c',i) );
 			}
@@ -154,152 +124,45 @@ public class RuleBasedBoardFacts
 	 *    Specifically, if there is an empty tile in the thermometer, all tiles after that one (away from the bulb)
 	 *    must also be empty, since thermometers must be filled from the bulb up.
 	 * 
-	 * @param grid The grid on which to check if the rule applies
+	 * @param board The board on which to check if the rule applies.
 	 * @param rowCounts The number of tiles that should be filled in each row
 	 * @param colCounts The number of tiles that should be filled in each column
 	 * @param rowTherms The thermometer data for each row
 	 * @param colTherms The thermometer data for each column
 	 * @return List of locations on the board where the rule applies
 	 */
-	public static ArrayList<Triple> restThermEmptyRuleFacts(ArrayList<ArrayList<Integer>> grid,
+	public static ArrayList<Triple> restThermEmptyRuleFacts(Board board,
 			ArrayList<Integer> rowCounts, ArrayList<Integer> colCounts, ArrayList<ArrayList<ArrayList<ThermometerPiece>>> rowTherms, ArrayList<ArrayList<ArrayList<ThermometerPiece>>> colTherms) 
 	{
-		ArrayList<Triple> allFacts = new ArrayList<Triple>();
-		
-		//For each row
-		for(int i = 0; i < rowTherms.size(); i++)
-		{
-			//For each thermometer
-			for(int j = 0; j < rowTherms.get(i).size(); j++)
-			{
-				//While the tile is filled or unknown, move through the thermometer
-				int thermIndex = 0;
-				while(thermIndex < rowTherms.get(i).get(j).size() && (rowTherms.get(i).get(j).get(thermIndex).getFillStatus() == 0 ||rowTherms.get(i).get(j).get(thermIndex).getFillStatus() == 1) )
-				{
-					thermIndex++;
-				}
-				
-				//If there are still tiles left, we found a -1 tile, so mark the next as  empty as well
-				if(thermIndex < rowTherms.get(i).get(j).size()
-							&& rowTherms.get(i).get(j).get(thermIndex).getFillStatus() == -1)
-				{
-					
-					allFacts.add(new Triple('r',i,j));
-				}
-			}
-		}
+		LineFacts facts = getLineFacts(board, rowCounts, colCounts, rowTherms, colTherms);
 		
-		//For each column
-		for(int i = 0; i < colTherms.size(); i++)
-		{
-			for(int j = 0; j < colTherms.get(i).size(); j++)
-			{
-				//While the tile is filled or unknown, move through the thermometer
-				int thermIndex = 0;
-				while(thermIndex < colTherms.get(i).get(j).size() && (colTherms.get(i).get(j).get(thermIndex).getFillStatus() == 0 || colTherms.get(i).get(j).get(thermIndex).getFillStatus() == 1))
-				{
-					thermIndex++;
-				}
-				
-				//If there are still tiles left, we found a -1 tile, so mark the next as  empty as well
-				if(thermIndex < colTherms.get(i).get(j).size()
-							&& colTherms.get(i).get(j).get(thermIndex).getFillStatus() == -1)
-				{
-					//If there are still tiles left, we found a -1 tile, so mark the next as  empty as well
-					allFacts.add(new Triple('c',i,j));
-				}
-			}
-		}
-	
-		//Return the list of places where the rule applies
+		//Rows and then columns, as each line's facts are in the order of its thermometers
+		ArrayList<Triple> allFacts = new ArrayList<Triple>();
+		for(int line = 0; line < facts.restThermEmpty.size(); line++)
+			allFacts.addAll(facts.restThermEmpty.get(line));
 		return allFacts;
 	}
 
-	
 	/** This method checks to see if the start of a thermometer must be filled due to part of it being filled
 	 *    Specifically, if there is an filled tile in the thermometer, all tiles before that one (from the bulb)
 	 *    must also be filled, since thermometers must be filled from the bulb up.
 	 * 
-	 * @param grid The grid on which to check if the rule applies
+	 * @param board The board on which to check if the rule applies.
 	 * @param rowCounts The number of tiles that should be filled in each row
 	 * @param colCounts The number of tiles that should be filled in each column
 	 * @param rowTherms The thermometer data for each row
 	 * @param colTherms The thermometer data for each column
 	 * @return List of locations on the board where the rule applies
 	 */
-	public static ArrayList<Triple> restThermFilledRuleFacts(ArrayList<ArrayList<Integer>> grid,
+	public static ArrayList<Triple> restThermFilledRuleFacts(Board board,
 			ArrayList<Integer> rowCounts, ArrayList<Integer> colCounts, ArrayList<ArrayList<ArrayList<ThermometerPiece>>> rowTherms, ArrayList<ArrayList<ArrayList<ThermometerPiece>>> colTherms) 
 	{
-		ArrayList<Triple> allFacts = new ArrayList<Triple>();
+		LineFacts facts = getLineFacts(board, rowCounts, colCounts, rowTherms, colTherms);
 		
-		//For each row
-		for(int i = 0; i < rowTherms.size(); i++)
-		{
-			//For each thermometer
-			for(int j = 0; j < rowTherms.get(i).size(); j++)
-			{
-				boolean hasBlank = false;
-				int thermIndex = 0;
-				
-				//Move through the thermometer until we encounter an empty tile or run out of tiles
-				while(thermIndex < rowTherms.get(i).get(j).size() && (rowTherms.get(i).get(j).get(thermIndex).getFillStatus() == 0 || rowTherms.get(i).get(j).get(thermIndex).getFillStatus() == 1))
-				{
-					//Store if we encounter an unknown tile at any point
-					if (rowTherms.get(i).get(j).get(thermIndex).getFillStatus() == 0)
-						hasBlank = true;
-					thermIndex++;
-					
-				}
-				
-				//If there was a blank that needs filled, fill it by moving backwards
-				if(thermIndex == rowTherms.get(i).get(j).size() && hasBlank)
-					thermIndex--;
-				else if(thermIndex > 0 && hasBlank && rowTherms.get(i).get(j).get(thermIndex - 1).getFillStatus() == 1)
-					thermIndex--;
-				
-				if(thermIndex < rowTherms.get(i).get(j).size()
-							&& rowTherms.get(i).get(j).get(thermIndex).getFillStatus() == 1)
-				{
-					//rule applies, fill it with 1s previous to this point
-					allFacts.add(new Triple('r',i,j));
-				}
-			}
-		}
-		
-		//For each row
-		for(int i = 0; i < colTherms.size(); i++)
-		{
-			//For each column
-			for(int j = 0; j < colTherms.get(i).size(); j++)
-			{
-				boolean hasBlank = false;
-				int thermIndex = 0;
-				
-				//Move through the thermometer until we encounter an empty tile or run out of tiles
-				while(thermIndex < colTherms.get(i).get(j).size() && (colTherms.get(i).get(j).get(thermIndex).getFillStatus() == 0 || colTherms.get(i).get(j).get(thermIndex).getFillStatus() == 1))
-				{
-					if (colTherms.get(i).get(j).get(thermIndex).getFillStatus() == 0)
-						hasBlank = true;
-					thermIndex++;
-					
-				}
-				
-				//If there was a blank that needs filled, fill it by moving backwards
-				if(thermIndex == colTherms.get(i).get(j).size() && hasBlank)
-					thermIndex--;
-				else if(thermIndex > 0 && hasBlank && colTherms.get(i).get(j).get(thermIndex - 1).getFillStatus() == 1)
-					thermIndex--;
-					
-				if(thermIndex < colTherms.get(i).get(j).size()
-							&& colTherms.get(i).get(j).get(thermIndex).getFillStatus() == 1)
-				{
-					//rule applies, fill it with 1s previous to this point
-					allFacts.add(new Triple('c',i,j));
-				}
-			}
-		}
-	
-		//Return all locations where the rule applies
+		//Rows and then columns, as each line's facts are in the order of its thermometers
+		ArrayList<Triple> allFacts = new ArrayList<Triple>();
+		for(int line = 0; line < facts.restThermFilled.size(); line++)
+			allFacts.addAll(facts.restThermFilled.get(line));
 		return allFacts;
 	}
 
@@ -308,118 +171,22 @@ public class RuleBasedBoardFacts
 	 * 
 	 * 
 	 * 
-	 * @param grid  The grid on which to check if the rule applies
+	 * @param board The board on which to check if the rule applies.
 	 * @param rowCounts The number of tiles that should be filled in each row
 	 * @param colCounts The number of tiles that should be filled in each column
 	 * @param rowTherms Data on the thermometers in each row
 	 * @param colTherms Data on the thermometers in each column
 	 * @return
 	 */
-	public static ArrayList<Quadruple> thermTooBigRuleFacts(ArrayList<ArrayList<Integer>> grid,
+	public static ArrayList<Quadruple> thermTooBigRuleFacts(Board board,
 			ArrayList<Integer> rowCounts, ArrayList<Integer> colCounts, ArrayList<ArrayList<ArrayList<ThermometerPiece>>> rowTherms, ArrayList<ArrayList<ArrayList<ThermometerPiece>>> colTherms) 
 	{
-		ArrayList<Quadruple> allFacts = new ArrayList<Quadruple>();
-		
-		//For each row
-		for(int i = 0; i < rowTherms.size(); i++)
-		{
-			int filledSquares = 0;
-			
-			//Get the number of filled in squares
-			for(int j = 0; j < grid.get(i).size();j++)
-			{
-				if(grid.get(i).get(j) == 1)
-					filledSquares++;
-			}
-			
-			//Number of squares that still need filled
-			int squaresLeftToFill = rowCounts.get(i) - filledSquares;
-			
-			//For each thermometer
-			for(int j = 0; j < rowTherms.get(i).size(); j++)
-			{
-				//Get the number of blanks in the thermometer
-				int blanksInTherm = 0;
-				for(int k = 0; k < rowTherms.get(i).get(j).size(); k++)
-					if(rowTherms.get(i).get(j).get(k).getFillStatus() == 0)
-						blanksInTherm++;
-				
-				//if there are less squares to fill than blanks in the thermometer...
-				if(squaresLeftToFill < blanksInTherm)
-				{
-					//starting at the cap, set tiles to empty (if there are 2 less tiles to fill than blanks in the 
-					// thermometer,  set 2 tiles to empty)
-					int thermIndex = rowTherms.get(i).get(j).size() - 1;
-					int squaresGlassed = 0;
-					while(thermIndex >= 0 && rowTherms.get(i).get(j).get(thermIndex).getFillStatus() != 1
-								&& squaresGlassed < (blanksInTherm - squaresLeftToFill))
-					{
-						if(rowTherms.get(i).get(j).get(thermIndex).getFillStatus() == 0)
-						{
-							squaresGlassed++;
-						}
-						thermIndex--;
-					}
-					
-					//Information for the rule: row, tile location, and number of squares to mark as empty
-					allFacts.add(new Quadruple('r', i, j, squaresGlassed));
-				}
-					
-			}
-		}
-	
+		LineFacts facts = getLineFacts(board, rowCounts, colCounts, rowTherms, colTherms);
 		
-		
-		
-		//For each column
-		for(int i = 0; i < colTherms.size(); i++)
-		{
-			int filledSquares = 0;
-			
-			//Get the number of filled in squares
-			for(int j = 0; j < grid.get(i).size();j++)
-			{
-				if(grid.get(j).get(i) == 1)
-					filledSquares++;
-			}
-			
-			//Number of squares that still need filled
-			int squaresLeftToFill = colCounts.get(i) - filledSquares;
-			
-			//For each thermometer
-			for(int j = 0; j < colTherms.get(i).size(); j++)
-			{
-				//Get the number of blanks in the thermometer
-				int blanksInTherm = 0;
-				for(int k = 0; k < colTherms.get(i).get(j).size(); k++)
-					if(colTherms.get(i).get(j).get(k).getFillStatus() == 0)
-						blanksInTherm++;
-				
-				//if there are less squares to fill than blanks in the thermometer...
-				if(squaresLeftToFill < blanksInTherm)
-				{
-					//starting at the cap, set tiles to empty (if there are 2 less tiles to fill than blanks in the 
-					// thermometer,  set 2 tiles to empty)
-					int thermIndex = colTherms.get(i).get(j).size() - 1;
-					int squaresGlassed = 0;
-					while(thermIndex >= 0 && colTherms.get(i).get(j).get(thermIndex).getFillStatus() != 1
-								&& squaresGlassed < (blanksInTherm - squaresLeftToFill))
-					{
-						if(colTherms.get(i).get(j).get(thermIndex).getFillStatus() == 0)
-						{
-							squaresGlassed++;
-						}
-						thermIndex--;
-					}
-					
-					//Information for the rule: column, tile location, and number of squares to mark as empty
-					allFacts.add(new Quadruple('c', i, j, squaresGlassed));
-				}
-					
-			}
-		}
-		
-		//Return all applications of the rule
+		//Rows and then columns, as each line's facts are in the order of its thermometers
+		ArrayList<Quadruple> allFacts = new ArrayList<Quadruple>();
+		for(int line = 0; line < facts.thermTooBig.size(); line++)
+			allFacts.addAll(facts.thermTooBig.get(line));
 		return allFacts;
 	}
 	
@@ -429,128 +196,259 @@ public class RuleBasedBoardFacts
 	 *     there must be at least one tile filled in the thermometer to meet the row/column constraint, and
 	 *     thermometers must be filled from the bulb up.
 	 * 
-	 * @param grid  The grid on which to check if the rule applies
+	 * @param board The board on which to check if the rule applies.
 	 * @param rowCounts The number of tiles that should be filled in each row
 	 * @param colCounts The number of tiles that should be filled in each column
 	 * @param rowTherms Data on the thermometers in each row
 	 * @param colTherms Data on the thermometers in each column
 	 * @return
 	 */
-	public static ArrayList<Quadruple>  partiallyFillThermRuleFacts(ArrayList<ArrayList<Integer>> grid,
+	public static ArrayList<Quadruple>  partiallyFillThermRuleFacts(Board board,
 			ArrayList<Integer> rowCounts, ArrayList<Integer> colCounts, ArrayList<ArrayList<ArrayList<ThermometerPiece>>> rowTherms, ArrayList<ArrayList<ArrayList<ThermometerPiece>>> colTherms) 
 	{
+		LineFacts facts = getLineFacts(board, rowCounts, colCounts, rowTherms, colTherms);
+		
+		//Rows and then columns, as each line's facts are in the order of its thermometers
 		ArrayList<Quadruple> allFacts = new ArrayList<Quadruple>();
+		for(int line = 0; line < facts.partiallyFillTherm.size(); line++)
+			allFacts.addAll(facts.partiallyFillTherm.get(line));
+		return allFacts;
+	}
+	
+	/** The facts of the four thermometer rules for each row and column of one board, kept between calls and only worked
+	 *    out again for the lines that have changed (see LineChangeTracker.java).  Each line's facts only depend on the
+	 *    tiles in that line and the thermometers along it, since every thermometer lies along a single line.
+	 *    Lines are numbered as in Board.getLineVersion: rows first, then columns.
+	 */
+	private static class LineFacts
+	{
+		final LineChangeTracker tracker = new LineChangeTracker();
 		
+		//The counts and thermometers the facts were worked out with
+		ArrayList<Integer> rowCounts = null;
+		ArrayList<Integer> colCounts = null;
+		ArrayList<ArrayList<ArrayList<ThermometerPiece>>> rowTherms = null;
+		ArrayList<ArrayList<ArrayList<ThermometerPiece>>> colTherms = null;
 		
-		//For each row
-		for(int i = 0; i < rowTherms.size(); i++)
+		//The facts of each rule, for each line
+		final ArrayList<ArrayList<Triple>> restThermEmpty = new ArrayList<ArrayList<Triple>>();
+		final ArrayList<ArrayList<Triple>> restThermFilled = new ArrayList<ArrayList<Triple>>();
+		final ArrayList<ArrayList<Quadruple>> thermTooBig = new ArrayList<ArrayList<Quadruple>>();
+		final ArrayList<ArrayList<Quadruple>> partiallyFillTherm = new ArrayList<ArrayList<Quadruple>>();
+	}
+	
+	//The line facts for the last board each thread looked at.  Extracting facts for one board after every move
+	//  means only one row and one column need to be looked at again each time.
+	private static final ThreadLocal<LineFacts> lineFacts = new ThreadLocal<LineFacts>()
+	{
+		@Override
+		protected LineFacts initialValue()
 		{
-			int filledSquares = 0;
-			int blankSquares = 0;
-			
-			//Get the number of filled and unknown squares
-			for(int j = 0; j < grid.get(i).size();j++)
-			{
-				if(grid.get(i).get(j) == 1)
-					filledSquares++;
-				if(grid.get(i).get(j) == 0)
-					blankSquares++;
-			}
-			
-			//Number of squares which still need to be filled in the row
-			int squaresLeftToFill = rowCounts.get(i) - filledSquares;
-			
-			//For each thermometer
-			for(int j = 0; j < rowTherms.get(i).size(); j++)
+			return new LineFacts();
+		}
+	};
+	
+	/** Get this thread's line facts for a board, bringing any lines that have changed up to date
+	 * 
+	 * @param board The board
+	 * @param rowCounts The number of tiles that should be filled in each row
+	 * @param colCounts The number of tiles that should be filled in each column
+	 * @param rowTherms The thermometer data for each row
+	 * @param colTherms The thermometer data for each column
+	 * @return The line facts, up to date
+	 */
+	private static LineFacts getLineFacts(Board board,
+			ArrayList<Integer> rowCounts, ArrayList<Integer> colCounts, ArrayList<ArrayList<ArrayList<ThermometerPiece>>> rowTherms, ArrayList<ArrayList<ArrayList<ThermometerPiece>>> colTherms)
+	{
+		LineFacts facts = lineFacts.get();
+		
+		//Different counts or thermometers make every line's facts out of date, even for the same board
+		if(facts.rowCounts != rowCounts || facts.colCounts != colCounts || facts.rowTherms != rowTherms || facts.colTherms != colTherms)
+		{
+			facts.tracker.reset();
+			facts.rowCounts = rowCounts;
+			facts.colCounts = colCounts;
+			facts.rowTherms = rowTherms;
+			facts.colTherms = colTherms;
+		}
+		
+		int size = board.grid.size();
+		if(facts.tracker.track(board))
+			while(facts.restThermEmpty.size() < 2 * size)
 			{
-				//Get the number of blanks in the thermometer
-				int blanksInTherm = 0;
-				for(int k = 0; k < rowTherms.get(i).get(j).size(); k++)
-					if(rowTherms.get(i).get(j).get(k).getFillStatus() == 0)
-						blanksInTherm++;
-				
-				//Get the number of blanks outside the thermometer
-				int blanksNotInTherm = blankSquares - blanksInTherm;
-				
-				//If there aren't enough blanks outside the thermometer to meet the constraint...
-				if(blanksNotInTherm < squaresLeftToFill)
-				{
-					int thermIndex = 0;
-					int squaresFilled= 0;
-					
-					//Fill in the needed number of tiles inside the thermometer, starting at the bulb
-					while(thermIndex < rowTherms.get(i).get(j).size() && rowTherms.get(i).get(j).get(thermIndex).getFillStatus() != -1
-								&& squaresFilled < (squaresLeftToFill - blanksNotInTherm))
-					{
-						if(rowTherms.get(i).get(j).get(thermIndex).getFillStatus() == 0)
-						{
-							squaresFilled++;
-						}
-						thermIndex++;
-					}
-					//Information for the rule: column, tile location, and number of squares to mark as filled
-					allFacts.add(new Quadruple('r',i, j,squaresFilled));
-					
-				}
-					
+				facts.restThermEmpty.add(new ArrayList<Triple>());
+				facts.restThermFilled.add(new ArrayList<Triple>());
+				facts.thermTooBig.add(new ArrayList<Quadruple>());
+				facts.partiallyFillTherm.add(new ArrayList<Quadruple>());
 			}
+		while(facts.restThermEmpty.size() > 2 * size)
+		{
+			facts.restThermEmpty.remove(facts.restThermEmpty.size() - 1);
+			facts.restThermFilled.remove(facts.restThermFilled.size() - 1);
+			facts.thermTooBig.remove(facts.thermTooBig.size() - 1);
+			facts.partiallyFillTherm.remove(facts.partiallyFillTherm.size() - 1);
 		}
+		
+		for(int line = 0; line < 2 * size; line++)
+			if(facts.tracker.checkAndClear(line))
+				updateLine(board, facts, line);
+		return facts;
+	}
 	
-		//For each column
-		for(int i = 0; i < colTherms.size(); i++)
+	/** Work out the facts of the four thermometer rules for one row or column
+	 * 
+	 * @param board The board
+	 * @param facts The line facts to put them in
+	 * @param line The line: rows are lines 0 to size-1, and columns are lines size to 2*size-1
+	 */
+	private static void updateLine(Board board, LineFacts facts, int line)
+	{
+		int size = board.grid.size();
+		boolean isRow = line < size;
+		int i = isRow ? line : line - size;
+		char lineType = isRow ? 'r' : 'c';
+		ArrayList<ArrayList<ThermometerPiece>> therms = isRow ? facts.rowTherms.get(i) : facts.colTherms.get(i);
+		
+		//Get the number of filled and unknown squares, and the number of squares which still need to be filled
+		int filledSquares = isRow ? board.countInRow(i, 1) : board.countInCol(i, 1);
+		int blankSquares = isRow ? board.countInRow(i, 0) : board.countInCol(i, 0);
+		int squaresLeftToFill = (isRow ? facts.rowCounts.get(i) : facts.colCounts.get(i)) - filledSquares;
+		
+		ArrayList<Triple> restThermEmpty = facts.restThermEmpty.get(line);
+		ArrayList<Triple> restThermFilled = facts.restThermFilled.get(line);
+		ArrayList<Quadruple> thermTooBig = facts.thermTooBig.get(line);
+		ArrayList<Quadruple> partiallyFillTherm = facts.partiallyFillTherm.get(line);
+		restThermEmpty.clear();
+		restThermFilled.clear();
+		thermTooBig.clear();
+		partiallyFillTherm.clear();
+		
+		//For each thermometer
+		for(int j = 0; j < therms.size(); j++)
 		{
-			int filledSquares = 0;
-			int blankSquares = 0;
+			ArrayList<ThermometerPiece> therm = therms.get(j);
 			
-			//Get number of filled and blank squares
-			for(int j = 0; j < grid.get(i).size();j++)
-			{
-				if(grid.get(j).get(i) == 1)
-					filledSquares++;
-				if(grid.get(j).get(i) == 0)
-					blankSquares++;
-			}
+			if(restThermEmptyApplies(board, therm))
+				restThermEmpty.add(new Triple(lineType, i, j));
+			
+			if(restThermFilledApplies(board, therm))
+				restThermFilled.add(new Triple(lineType, i, j));
 			
-			//Get number of squares left to fill in the column
-			int squaresLeftToFill = colCounts.get(i) - filledSquares;
+			//Get the number of blanks in the thermometer
+			int blanksInTherm = 0;
+			for(int k = 0; k < therm.size(); k++)
+				if(board.getTile(therm.get(k)) == 0)
+					blanksInTherm++;
 			
-			//For each thermometer
-			for(int j = 0; j < colTherms.get(i).size(); j++)
+			//if there are less squares to fill than blanks in the thermometer...
+			if(squaresLeftToFill < blanksInTherm)
+				thermTooBig.add(new Quadruple(lineType, i, j, tilesToEmpty(board, therm, blanksInTherm, squaresLeftToFill)));
+			
+			//If there aren't enough blanks outside the thermometer to meet the constraint...
+			int blanksNotInTherm = blankSquares - blanksInTherm;
+			if(blanksNotInTherm < squaresLeftToFill)
+				partiallyFillTherm.add(new Quadruple(lineType, i, j, tilesToFill(board, therm, blanksNotInTherm, squaresLeftToFill)));
+		}
+	}
+	
+	/** Check whether the restThermEmpty rule applies to one thermometer
+	 * 
+	 * @param board The board
+	 * @param therm The thermometer, from the bulb to the cap
+	 * @return True if the thermometer has an empty tile
+	 */
+	private static boolean restThermEmptyApplies(Board board, ArrayList<ThermometerPiece> therm)
+	{
+		//While the tile is filled or unknown, move through the thermometer
+		int thermIndex = 0;
+		while(thermIndex < therm.size() && (board.getTile(therm.get(thermIndex)) == 0 || board.getTile(therm.get(thermIndex)) == 1))
+		{
+			thermIndex++;
+		}
+		
+		//If there are still tiles left, we found a -1 tile, so mark the next as  empty as well
+		return thermIndex < therm.size() && board.getTile(therm.get(thermIndex)) == -1;
+	}
+	
+	/** Check whether the restThermFilled rule applies to one thermometer
+	 * 
+	 * @param board The board
+	 * @param therm The thermometer, from the bulb to the cap
+	 * @return True if the rule applies
+	 */
+	private static boolean restThermFilledApplies(Board board, ArrayList<ThermometerPiece> therm)
+	{
+		boolean hasBlank = false;
+		int thermIndex = 0;
+		
+		//Move through the thermometer until we encounter an empty tile or run out of tiles
+		while(thermIndex < therm.size() && (board.getTile(therm.get(thermIndex)) == 0 || board.getTile(therm.get(thermIndex)) == 1))
+		{
+			//Store if we encounter an unknown tile at any point
+			if (board.getTile(therm.get(thermIndex)) == 0)
+				hasBlank = true;
+			thermIndex++;
+		}
+		
+		//If there was a blank that needs filled, fill it by moving backwards
+		if(thermIndex == therm.size() && hasBlank)
+			thermIndex--;
+		else if(thermIndex > 0 && hasBlank && board.getTile(therm.get(thermIndex - 1)) == 1)
+			thermIndex--;
+		
+		//rule applies, fill it with 1s previous to this point
+		return thermIndex < therm.size() && board.getTile(therm.get(thermIndex)) == 1;
+	}
+	
+	/** Work out how many tiles the thermTooBig rule would mark as empty in one thermometer
+	 * 
+	 * @param board The board
+	 * @param therm The thermometer, from the bulb to the cap
+	 * @param blanksInTherm The number of unknown tiles in the thermometer
+	 * @param squaresLeftToFill The number of tiles that still need filled in the line, less than blanksInTherm
+	 * @return The number of tiles to mark as empty
+	 */
+	private static int tilesToEmpty(Board board, ArrayList<ThermometerPiece> therm, int blanksInTherm, int squaresLeftToFill)
+	{
+		//starting at the cap, set tiles to empty (if there are 2 less tiles to fill than blanks in the 
+		// thermometer,  set 2 tiles to empty)
+		int thermIndex = therm.size() - 1;
+		int squaresGlassed = 0;
+		while(thermIndex >= 0 && board.getTile(therm.get(thermIndex)) != 1
+					&& squaresGlassed < (blanksInTherm - squaresLeftToFill))
+		{
+			if(board.getTile(therm.get(thermIndex)) == 0)
 			{
-				//Get the number of blank tiles in the thermometer
-				int blanksInTherm = 0;
-				for(int k = 0; k < colTherms.get(i).get(j).size(); k++)
-					if(colTherms.get(i).get(j).get(k).getFillStatus() == 0)
-						blanksInTherm++;
-				
-				//Get the number of blank tiles not in the thermometer
-				int blanksNotInTherm = blankSquares - blanksInTherm;
-				
-				//If there aren't enough blanks outside the thermometer to meet the constraint...
-				if(blanksNotInTherm < squaresLeftToFill)
-				{
-					int thermIndex = 0;
-					int squaresFilled= 0;
-					
-					//Fill in the needed number of tiles inside the thermometer, starting at the bulb
-					while(thermIndex < colTherms.get(i).get(j).size() && colTherms.get(i).get(j).get(thermIndex).getFillStatus() != -1
-								&& squaresFilled < (squaresLeftToFill - blanksNotInTherm))
-					{
-						if(colTherms.get(i).get(j).get(thermIndex).getFillStatus() == 0)
-						{
-						
-							squaresFilled++;
-						}
-						thermIndex++;
-					}
-					//Information for the rule: column, tile location, and number of squares to mark as filled
-					allFacts.add(new Quadruple('c',i, j,squaresFilled));
-				}
-					
+				squaresGlassed++;
 			}
+			thermIndex--;
 		}
+		return squaresGlassed;
+	}
+	
+	/** Work out how many tiles the partiallyFillTherm rule would mark as filled in one thermometer
+	 * 
+	 * @param board The board
+	 * @param therm The thermometer, from the bulb to the cap
+	 * @param blanksNotInTherm The number of unknown tiles in the line outside the thermometer
+	 * @param squaresLeftToFill The number of tiles that still need filled in the line, more than blanksNotInTherm
+	 * @return The number of tiles to mark as filled
+	 */
+	private static int tilesToFill(Board board, ArrayList<ThermometerPiece> therm, int blanksNotInTherm, int squaresLeftToFill)
+	{
+		int thermIndex = 0;
+		int squaresFilled= 0;
 		
-		//Return all tiles affected by the rule
-		return allFacts;
+		//Fill in the needed number of tiles inside the thermometer, starting at the bulb
+		while(thermIndex < therm.size() && board.getTile(therm.get(thermIndex)) != -1
+					&& squaresFilled < (squaresLeftToFill - blanksNotInTherm))
+		{
+			if(board.getTile(therm.get(thermIndex)) == 0)
+			{
+				squaresFilled++;
+			}
+			thermIndex++;
+		}
+		return squaresFilled;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package Main;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import BoardRepresentation.Board;
+import BoardRepresentation.BoardFileIO;
+import BoardRepresentation.BoardLayout;
+import BoardRepresentation.ComplexThermsBoard;
+import BoardRepresentation.PuzzleIndex;
+import Demonstrators.ComplexThermometersAI;
+
+/** One-time job that builds the index of puzzle facts for one board size (see PuzzleIndex.java).
+ *
+ *    Every puzzle is loaded once and solved by the Complex Thermometers demonstrator, spread over all cores,
+ *    and the results are saved to the default index file, along with a checksum of the puzzles.  After that,
+ *    experiments can pick puzzles by their facts with PuzzleIndex.read and its queries, without going through the
+ *    corpus again.
+ *
+ * @author Skularach
+ */
+public class BuildPuzzleIndex
+{
+	/** Builds and saves the index.
+	 *
+	 * @param args The board size (5 if left out), and optionally the number of puzzles (every puzzle of that size if left out)
+	 * @throws IOException If the index can't be written
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		final int boardSize = args.length > 0 ? Integer.parseInt(args[0]) : Board.DEFAULTBOARDSIZE;
+		int numPuzzles = args.length > 1 ? Integer.parseInt(args[1]) : BoardFileIO.getNumBoards(boardSize);
+
+		long start = System.currentTimeMillis();
+		PuzzleIndex index = buildIndex(boardSize, numPuzzles);
+		File out = PuzzleIndex.defaultFile(boardSize);
+		index.write(out);
+		System.out.println("Indexed " + numPuzzles + " " + boardSize + "x" + boardSize + " puzzles into " + out
+				+ " in " + (System.currentTimeMillis() - start) + "ms");
+	}
+
+	/** Work out the facts for every puzzle of one size
+	 *
+	 * @param boardSize The width/height of the puzzles
+	 * @param numPuzzles How many puzzles to index, starting from puzzle 0
+	 * @return The filled in index
+	 */
+	public static PuzzleIndex buildIndex(final int boardSize, int numPuzzles)
+	{
+		final PuzzleIndex index = new PuzzleIndex(boardSize, numPuzzles);
+
+		//Puzzles are loaded without going through the layout cache, since each one is only needed once
+		IntStream.range(0, numPuzzles).parallel().forEach(new IntConsumer()
+		{
+			@Override
+			public void accept(int puzzleNum)
+			{
+				BoardLayout layout = new BoardLayout(BoardFileIO.loadPieceGridByNumber(boardSize, puzzleNum));
+				index.setEntry(puzzleNum, layout, new ComplexThermometersAI().countMovesToSolve(new ComplexThermsBoard(layout)));
+			}
+		});
+
+		//Record which puzzles these are, so an out of date index is caught when it is read
+		index.setSource(Math.max(numPuzzles, BoardFileIO.getNumBoards(boardSize)), PuzzleIndex.checksumPuzzles(boardSize, numPuzzles));
+		return index;
+	}
+}
@@ -0,0 +1,102 @@
+package Main;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import BoardActions.ApplyMovesToBoard;
+import BoardRepresentation.BoardLayout;
+import BoardRepresentation.PuzzleGenerator;
+import BoardRepresentation.SimpleThermsBoard;
+import Demonstrators.SimpleThermometersAI;
+import Utilities.Triple;
+
+/** Benchmark for how much memory the Simple Thermometers demonstrator allocates per move.
+ *
+ *  For each board size, this plays random puzzles (see PuzzleGenerator) with the Simple demonstrator.  At every board
+ *  state along the way it asks for the same move many times, and uses the JVM's count of bytes allocated by this thread
+ *  to work out the bytes allocated per call of makeAMove, and the time per call.  Moves are applied outside of the
+ *  measured part, so only makeAMove is counted.
+ *
+ *  Needs a JVM that counts allocated bytes per thread (HotSpot and OpenJDK do).
+ *
+ * @author Skularach
+ */
+public class ExampleAllocation
+{
+	//Board sizes to measure
+	static int[] boardSizes = {5, 10, 20, 30};
+
+	//Number of puzzles to play at each size
+	static int numBoards = 20;
+
+	//Number of times makeAMove is called at each board state
+	static int callsPerState = 200;
+
+	//Number of times to run everything before measuring, so the JIT has settled down
+	static int numWarmups = 3;
+
+	/** Test driver.  Runs the benchmark and prints one line per board size.
+	 *
+	 * @param args Not Used
+	 */
+	public static void main(String[] args)
+	{
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if(!threads.isThreadAllocatedMemorySupported())
+		{
+			System.out.println("This JVM doesn't count allocated bytes per thread");
+			return;
+		}
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		for(int i = 0; i < numWarmups; i++)
+			for(int size : boardSizes)
+				measure(threads, size);
+
+		System.out.println("size\tcalls\tbytes/call\tns/call");
+		for(int size : boardSizes)
+		{
+			long[] results = measure(threads, size);
+			System.out.println(size + "\t" + results[2]
+					+ "\t" + String.format("%.2f", results[0] / (double) Math.max(1, results[2]))
+					+ "\t" + Math.round(results[1] / (double) Math.max(1, results[2])));
+		}
+	}
+
+	/** Play numBoards random puzzles of one size with the Simple demonstrator, measuring makeAMove
+	 *
+	 * @param threads The JVM's thread bean, to count allocated bytes with
+	 * @param size The width/height of the boards
+	 * @return {bytes allocated, time (ns), calls}
+	 */
+	static long[] measure(com.sun.management.ThreadMXBean threads, int size)
+	{
+		long[] results = new long[3];
+		long threadId = Thread.currentThread().getId();
+
+		//Same puzzles every run, so sizes can be compared between runs
+		Random rand = new Random(size);
+		SimpleThermometersAI demonstrator = new SimpleThermometersAI();
+		for(int b = 0; b < numBoards; b++)
+		{
+			SimpleThermsBoard board = new SimpleThermsBoard(new BoardLayout(PuzzleGenerator.randomPieceGrid(size, rand)));
+
+			//The Simple demonstrator keeps moving between rows and columns when it is stuck, so it needs a move limit
+			int maxMoves = size * size * 4;
+			for(int numMoves = 0; numMoves < maxMoves && !board.isSolved(); numMoves++)
+			{
+				Triple move = null;
+				long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+				long start = System.nanoTime();
+				for(int call = 0; call < callsPerState; call++)
+					move = demonstrator.makeAMove(board);
+				results[1] += System.nanoTime() - start;
+				results[0] += threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+				results[2] += callsPerState;
+
+				ApplyMovesToBoard.applyMove(board, move);
+			}
+		}
+		return results;
+	}
+}
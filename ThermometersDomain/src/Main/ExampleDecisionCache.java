@@ -0,0 +1,132 @@
+package Main;
+
+import java.util.Random;
+
+import BoardActions.ActionCatalog;
+import BoardActions.ApplyMovesToBoard;
+import BoardRepresentation.Board;
+import BoardRepresentation.BoardLayout;
+import BoardRepresentation.ComplexThermsBoard;
+import BoardRepresentation.PuzzleGenerator;
+import BoardRepresentation.SimpleThermsBoard;
+import Demonstrators.ComplexThermometersAI;
+import Demonstrators.DecisionCache;
+import Demonstrators.SimpleThermometersAI;
+import Utilities.Triple;
+
+/** Benchmark for the demonstrators' decision cache (see DecisionCache.java), in a relabeling run like DAgger's.
+ *
+ *  For each domain and board size, a noisy learner plays random puzzles (see PuzzleGenerator): at each step the
+ *  demonstrator is asked for its move, which is the label, and the learner then makes either that move or, some of
+ *  the time, a random one.  The same episodes are played several times over, as repeated relabeling passes would, once
+ *  without a cache and once with a cache that is kept between passes, printing the time per label and the cache's
+ *  hit rate for every pass.
+ *
+ * @author Skularach
+ */
+public class ExampleDecisionCache
+{
+	//Board sizes to measure
+	static int[] boardSizes = {5, 10, 20};
+
+	//Number of puzzles to play at each size
+	static int numBoards = 50;
+
+	//Number of relabeling passes over the same episodes
+	static int numPasses = 4;
+
+	//Chance that the learner makes a random move instead of the demonstrator's
+	static double randomMoveChance = 0.2;
+
+	/** Test driver.  Runs the benchmark and prints one line per domain, size and pass.
+	 *
+	 * @param args Not Used
+	 */
+	public static void main(String[] args)
+	{
+		//Once through everything first, so the JIT has settled down
+		for(char domain : new char[] {'S', 'C'})
+			for(int size : boardSizes)
+				runPasses(domain, size, false);
+
+		System.out.println("domain\tsize\tpass\tlabels\tno cache ns/label\tcache ns/label\thit rate");
+		for(char domain : new char[] {'S', 'C'})
+			for(int size : boardSizes)
+				runPasses(domain, size, true);
+	}
+
+	/** Play every pass without and with a cache, printing the results if asked
+	 *
+	 * @param domain 'S' for Simple Thermometers, 'C' for Complex Thermometers
+	 * @param size The width/height of the boards
+	 * @param print Whether to print the results
+	 */
+	static void runPasses(char domain, int size, boolean print)
+	{
+		DecisionCache cache = new DecisionCache();
+		for(int pass = 0; pass < numPasses; pass++)
+		{
+			long[] uncached = playEpisodes(domain, size, null);
+			cache.resetCounters();
+			long[] cached = playEpisodes(domain, size, cache);
+
+			if(print)
+				System.out.println(domain + "\t" + size + "\t" + (pass + 1) + "\t" + cached[1]
+						+ "\t" + Math.round(uncached[0] / (double) Math.max(1, uncached[1]))
+						+ "\t" + Math.round(cached[0] / (double) Math.max(1, cached[1]))
+						+ "\t" + String.format("%.3f", cache.getHitRate()));
+		}
+	}
+
+	/** Play numBoards episodes with a noisy learner, asking the demonstrator for a label at every step
+	 *
+	 * @param domain 'S' for Simple Thermometers, 'C' for Complex Thermometers
+	 * @param size The width/height of the boards
+	 * @param cache The cache for the demonstrators to use, or null for none
+	 * @return {time spent getting labels (ns), number of labels}
+	 */
+	static long[] playEpisodes(char domain, int size, DecisionCache cache)
+	{
+		long[] results = new long[2];
+
+		//Same puzzles and random moves every pass
+		Random rand = new Random(size);
+		ActionCatalog catalog = ActionCatalog.getCatalog(domain, size);
+		for(int b = 0; b < numBoards; b++)
+		{
+			BoardLayout layout = new BoardLayout(PuzzleGenerator.randomPieceGrid(size, rand));
+			Board board;
+			SimpleThermometersAI simpleDemonstrator = null;
+			ComplexThermometersAI complexDemonstrator = null;
+			if(domain == 'S')
+			{
+				board = new SimpleThermsBoard(layout);
+				simpleDemonstrator = new SimpleThermometersAI();
+				simpleDemonstrator.setDecisionCache(cache);
+			}
+			else
+			{
+				board = new ComplexThermsBoard(layout);
+				complexDemonstrator = new ComplexThermometersAI();
+				complexDemonstrator.setDecisionCache(cache);
+			}
+
+			int maxMoves = size * size * 4;
+			for(int numMoves = 0; numMoves < maxMoves && !board.isSolved(); numMoves++)
+			{
+				long start = System.nanoTime();
+				Triple label = simpleDemonstrator != null ? simpleDemonstrator.makeAMove((SimpleThermsBoard) board)
+						: complexDemonstrator.makeAMove((ComplexThermsBoard) board);
+				results[0] += System.nanoTime() - start;
+				results[1]++;
+
+				//The learner usually follows the label, but not always
+				Triple move = label;
+				if(move == null || rand.nextDouble() < randomMoveChance)
+					move = catalog.getMove(rand.nextInt(catalog.getNumActions()));
+				ApplyMovesToBoard.applyMove(board, move);
+			}
+		}
+		return results;
+	}
+}
@@ -0,0 +1,114 @@
+package Main;
+
+import java.util.Random;
+
+import BoardActions.ApplyMovesToBoard;
+import BoardActions.MakeLearningInstances;
+import BoardRepresentation.ComplexThermsBoard;
+import BoardRepresentation.PuzzleGenerator;
+import BoardRepresentation.SimpleThermsBoard;
+import Demonstrators.ComplexThermometersAI;
+import Demonstrators.SimpleThermometersAI;
+import Utilities.Triple;
+
+/** Benchmark for how the demonstrators and instance creation scale with board size.
+ *
+ *  For each board size, this generates random puzzles (see PuzzleGenerator), lets both demonstrators
+ *  play them, and turns every board state along the way into a learning instance.  It prints the average
+ *  time per move and per instance, and those times divided by the number of tiles on the board.  If the cost
+ *  of a move grows linearly with the number of tiles, the per-tile columns stay roughly flat as the boards grow.
+ *
+ * @author Skularach
+ */
+public class ExampleScaling
+{
+	//Board sizes to measure
+	static int[] boardSizes = {5, 10, 15, 20, 25, 30};
+
+	//Number of puzzles to play at each size
+	static int numBoards = 20;
+
+	//Number of times to run everything before measuring, so the JIT has settled down
+	static int numWarmups = 2;
+
+	/** Test driver.  Runs the benchmark and prints one line per board size.
+	 *
+	 * @param args Not Used
+	 */
+	public static void main(String[] args)
+	{
+		for(int i = 0; i < numWarmups; i++)
+			for(int size : boardSizes)
+				measure(size);
+
+		System.out.println("size\ttiles\tcomplex ns/move\tper tile\tsimple ns/move\tper tile\tinstance ns\tper tile");
+		for(int size : boardSizes)
+		{
+			long[] results = measure(size);
+			int tiles = size * size;
+			double complexPerMove = results[0] / (double) Math.max(1, results[1]);
+			double simplePerMove = results[2] / (double) Math.max(1, results[3]);
+			double perInstance = results[4] / (double) Math.max(1, results[5]);
+			System.out.println(size + "\t" + tiles
+					+ "\t" + Math.round(complexPerMove) + "\t" + Math.round(complexPerMove / tiles)
+					+ "\t" + Math.round(simplePerMove) + "\t" + Math.round(simplePerMove / tiles)
+					+ "\t" + Math.round(perInstance) + "\t" + Math.round(perInstance / tiles));
+		}
+	}
+
+	/** Play numBoards random puzzles of one size with both demonstrators.
+	 *
+	 * @param size The width/height of the boards
+	 * @return {complex move time (ns), complex moves, simple move time (ns), simple moves, instance time (ns), instances}
+	 */
+	static long[] measure(int size)
+	{
+		long[] results = new long[6];
+
+		//Same puzzles every run, so sizes can be compared between runs
+		Random rand = new Random(size);
+		for(int b = 0; b < numBoards; b++)
+		{
+			String[][] puzzle = PuzzleGenerator.randomPuzzle(size, rand);
+
+			//The Complex demonstrator takes one move per tile on a board it can solve, and stops (returns null)
+			//  when it can't work out anything else
+			ComplexThermsBoard complexBoard = new ComplexThermsBoard(puzzle);
+			ComplexThermometersAI complexDemonstrator = new ComplexThermometersAI();
+			int maxMoves = size * size + 2;
+			for(int numMoves = 0; numMoves < maxMoves && !complexBoard.isSolved(); numMoves++)
+			{
+				long start = System.nanoTime();
+				MakeLearningInstances.getInstance(complexBoard);
+				results[4] += System.nanoTime() - start;
+				results[5]++;
+
+				start = System.nanoTime();
+				Triple move = complexDemonstrator.makeAMove(complexBoard);
+				if(move == null)
+					break;
+				ApplyMovesToBoard.applyMove(complexBoard, move);
+				results[0] += System.nanoTime() - start;
+				results[1]++;
+			}
+
+			//The Simple demonstrator keeps moving between rows and columns when it is stuck, so it needs a move limit
+			SimpleThermsBoard simpleBoard = new SimpleThermsBoard(puzzle);
+			SimpleThermometersAI simpleDemonstrator = new SimpleThermometersAI();
+			maxMoves = size * size * 4;
+			for(int numMoves = 0; numMoves < maxMoves && !simpleBoard.isSolved(); numMoves++)
+			{
+				long start = System.nanoTime();
+				MakeLearningInstances.getInstance(simpleBoard);
+				results[4] += System.nanoTime() - start;
+				results[5]++;
+
+				start = System.nanoTime();
+				ApplyMovesToBoard.applyMove(simpleBoard, simpleDemonstrator.makeAMove(simpleBoard));
+				results[2] += System.nanoTime() - start;
+				results[3]++;
+			}
+		}
+		return results;
+	}
+}
@@ -2,21 +2,23 @@ package Main;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
 
 import Utilities.Printing;
 import Utilities.Triple;
 import WEKA.Classification;
-import WEKA.Conversions;
 import WEKA.InstanceCreation;
+import WEKA.TraceStore;
 import weka.core.Instance;
 import weka.core.Instances;
 import BoardActions.ApplyMovesToBoard;
 import BoardActions.MakeLearningInstances;
 import BoardRepresentation.Board;
 import BoardRepresentation.BoardFileIO;
+import BoardRepresentation.BoardLayout;
 import BoardRepresentation.BoardReward;
+import BoardRepresentation.BoardSupplier;
 import BoardRepresentation.SimpleThermsBoard;
-import Demonstrators.SimpleThermometersAI;
 import BoardRepresentation.ComplexThermsBoard;
 import Demonstrators.ComplexThermometersAI;
 
@@ -40,6 +42,9 @@ public class ExampleSupervisedLearning{
 	//Number of iterations to emulate
 	static int numIterations = 25;
 	
+	//Number of boards for the demonstrator to solve for training data
+	static int numTrainingBoards = 100;
+	
 	static ArrayList<ArrayList<Integer>> allDatabaseSizes = new ArrayList<ArrayList<Integer>>();
 	
 	public static int[] ssSizes = {38,88,138,183,225,266,310,360,404,443,482,528,574,614,663,701,751,797,844,883,925,965,1000,1027,1038};
@@ -63,45 +68,16 @@ public class ExampleSupervisedLearning{
 		//Initialize the list of board numbers to be pulled from later
 		BoardFileIO.getboardNumList();
 		
-		//Have the demonstrator solve boards
-		for(int i = 0; i < 100; i++)
-		{
-			//Get a random training board
-			String[][] stringGrid = BoardFileIO.selectRandomTrainingGrid();
-			SimpleThermsBoard board = new SimpleThermsBoard(stringGrid);
-			
-			//initialize demonstrator
-			SimpleThermometersAI demonstrator = new SimpleThermometersAI();
-			
-			int numMoves = 0; 
-			while(numMoves < Board.MaxTrainingMoves && !board.isSolved())
-			{
-				board.updateThermData();
-				//Get demonstrator move
-				Triple demonstratorMove = demonstrator.makeAMove(board);
-				
-				//Add world and demonstrator's move to database
-				Instance worldInstance = MakeLearningInstances.getInstance(board);
-				
-				String actionLine = Conversions.parseDemonstratorMove(demonstratorMove);
-				InstanceCreation.addInstance(worldInstance, actionLine);
-				
-				
-				//Apply the demonstrator's move to the board
-				ApplyMovesToBoard.applyMove(board, demonstratorMove);
-				numMoves++;
-			}
-			
-			//Single Trace stores all boards
-			//tempInstances stores 1 board
-			//allInstanceDatabases stores all versions of singleTrace over time
-			//   (spot 1 is board 1s data, spot 2 is board 1 and 2s data, etc)
-			Classification.singleTraceInstances.addAll(Classification.tempInstances);
-			//for(int k = 0; k < Classification.tempInstances.size(); k++)
-			//	System.out.println(Classification.tempInstances.get(k));
-			
-			Classification.tempInstances.clear();
-		}
+		//Have the demonstrator solve boards, on all cores.  The board numbers are drawn from levelRand in the same
+		//  order selectRandomTrainingLayout would pick them, and the traces come back in that order whatever the
+		//  number of threads, so the training data is the same as solving the boards one after another.
+		int[] trainingBoardNums = BoardSupplier.drawBoardNums(Board.DEFAULTBOARDSIZE, numTrainingBoards, null);
+		TraceStore traces = TraceGenerator.generate('S', Board.DEFAULTBOARDSIZE, trainingBoardNums, Board.MaxTrainingMoves, ForkJoinPool.commonPool());
+		
+		//Single Trace stores all boards
+		//allInstanceDatabases stores all versions of singleTrace over time
+		//   (spot 1 is board 1s data, spot 2 is board 1 and 2s data, etc)
+		traces.addTo(Classification.singleTraceInstances);
 		
 		Collections.shuffle(Classification.singleTraceInstances, BoardFileIO.levelRand);
 		
@@ -154,11 +130,12 @@ public class ExampleSupervisedLearning{
 	 */
 	private static float[][] getValidationRewards()
 	{			
-		//Pre-emptively load the boards into a list so we don't have to keep reloading
-		ArrayList<String[][]> boardList = new ArrayList<String[][]>();
+		//Pre-emptively load the board layouts into a list so we don't have to keep reloading.
+		//  Every learner gets fresh boards made from these same shared layouts.
+		ArrayList<BoardLayout> boardList = new ArrayList<BoardLayout>();
 		for(int i = BoardFileIO.startingValidationLevel; i < BoardFileIO.startingValidationLevel + numValidationLevels; i++)
     	{
-			boardList.add(BoardFileIO.loadInBoardbyNumber(BoardFileIO.boardNums.get(i)));
+			boardList.add(BoardFileIO.loadLayoutByNumber(BoardFileIO.boardNums.get(i)));
     	}
 		
 		//Initialize learners x validation levels reward array
@@ -200,16 +177,16 @@ public class ExampleSupervisedLearning{
 	
 	/** This method solves a board using the currently trained learner and returns the reward accumulated by doing so.
 	 * 	
-	 * @param fullGrid The grid to solve
+	 * @param layout The layout of the board to solve
 	 * @param maxMoves The maximum number of moves allowed before stopping the attempt to solve the board.
 	 * @return
 	 */
-	public static float solveBoardLearner(String[][] fullGrid, int maxMoves)
+	public static float solveBoardLearner(BoardLayout layout, int maxMoves)
 	{
 		int movesTaken = 0;
 		
 		//Create the board
-		Board board = new SimpleThermsBoard(fullGrid);
+		Board board = new SimpleThermsBoard(layout);
 		
 		//Loop until we either solve the board or run out of moves
 		while(!board.isSolved() && movesTaken < maxMoves)
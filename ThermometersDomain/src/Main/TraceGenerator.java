@@ -0,0 +1,204 @@
+package Main;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import BoardActions.ActionCatalog;
+import BoardActions.ApplyMovesToBoard;
+import BoardActions.MakeLearningInstances;
+import BoardRepresentation.Board;
+import BoardRepresentation.BoardFileIO;
+import BoardRepresentation.BoardLayout;
+import BoardRepresentation.ComplexThermsBoard;
+import BoardRepresentation.SimpleThermsBoard;
+import Demonstrators.ComplexThermometersAI;
+import Demonstrators.SimpleThermometersAI;
+import Utilities.RandomStreams;
+import Utilities.Triple;
+import WEKA.TraceStore;
+
+/** Batch job that has a demonstrator solve many boards, spread over all cores with a fork-join pool, and records
+ *    every step (board number, step number, state features and action id) in a TraceStore.
+ *
+ *    Each episode (one board) is played on its own board with its own demonstrator and written to its own store,
+ *    and the stores are joined in episode order at the end, so the traces are exactly the same whatever the number
+ *    of threads.  Nothing here touches the static WEKA databases in Classification; use TraceStore.addTo to turn
+ *    the traces into instances when they are needed.
+ *
+ *    Which boards to play can be given as board numbers, or drawn at random with one stream per episode (see
+ *    RandomStreams.java), which also gives the same boards whatever the number of threads.
+ *
+ * @author Skularach
+ */
+public class TraceGenerator
+{
+	//Ranges of at most this many episodes are played on one thread instead of being split further
+	private static final int SPLITSIZE = 8;
+
+	/** Plays episodes in one range, splitting it in half and playing both halves in parallel while it is large
+	 */
+	private static class PlayRange extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final char domain;
+		private final int boardSize;
+		private final int[] boardNums;
+		private final int maxMoves;
+		private final TraceStore[] episodes;
+		private final int from;
+		private final int to;
+
+		/** Constructor.
+		 *
+		 * @param domain 'S' for Simple Thermometers, 'C' for Complex Thermometers
+		 * @param boardSize The width/height of the boards
+		 * @param boardNums The board number of every episode
+		 * @param maxMoves The most moves to let the demonstrator make in one episode
+		 * @param episodes Where to put the traces of each episode
+		 * @param from The first episode to play
+		 * @param to One past the last episode to play
+		 */
+		PlayRange(char domain, int boardSize, int[] boardNums, int maxMoves, TraceStore[] episodes, int from, int to)
+		{
+			this.domain = domain;
+			this.boardSize = boardSize;
+			this.boardNums = boardNums;
+			this.maxMoves = maxMoves;
+			this.episodes = episodes;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(to - from <= SPLITSIZE)
+			{
+				for(int i = from; i < to; i++)
+					episodes[i] = playEpisode(domain, boardSize, boardNums[i], maxMoves);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new PlayRange(domain, boardSize, boardNums, maxMoves, episodes, from, middle),
+					new PlayRange(domain, boardSize, boardNums, maxMoves, episodes, middle, to));
+		}
+	}
+
+	/** Generates traces and prints how many steps were recorded and how fast.
+	 *
+	 * @param args The domain ("S" or "C", S if left out), the board size (5 if left out), the number of boards (1000
+	 *             if left out), the number of threads (all cores if left out) and the master seed for picking boards
+	 *             (RandomStreams.DEFAULTSEED if left out)
+	 */
+	public static void main(String[] args)
+	{
+		char domain = args.length > 0 ? args[0].charAt(0) : 'S';
+		int boardSize = args.length > 1 ? Integer.parseInt(args[1]) : Board.DEFAULTBOARDSIZE;
+		int numBoards = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+		int numThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+		long seed = args.length > 4 ? Long.parseLong(args[4]) : RandomStreams.DEFAULTSEED;
+
+		BoardFileIO.getboardNumList();
+		int[] boardNums = drawBoardNums(boardSize, numBoards, new RandomStreams(seed));
+
+		long start = System.nanoTime();
+		TraceStore traces = generate(domain, boardSize, boardNums, Board.MaxTrainingMoves, new ForkJoinPool(numThreads));
+		long elapsed = System.nanoTime() - start;
+
+		System.out.println("Recorded " + traces.getNumRows() + " steps (" + traces.getNumFeatures() + " features each) from "
+				+ numBoards + " " + boardSize + "x" + boardSize + " boards on " + numThreads + " threads");
+		System.out.println("Took " + String.format("%.2f", elapsed / 1e9) + "s (" + Math.round(traces.getNumRows() * 1e9 / Math.max(1, elapsed)) + " steps/s)");
+	}
+
+	/** Pick random training boards of one size, one per episode, each from the episode's own stream
+	 *    (RandomStreams.STREAM_LEVELS with the episode number as the index).
+	 *    BoardFileIO.getboardNumList() must have been called first.
+	 *
+	 * @param boardSize The width/height of the boards
+	 * @param numBoards How many boards to pick
+	 * @param streams The streams to draw from
+	 * @return The board numbers
+	 */
+	public static int[] drawBoardNums(int boardSize, int numBoards, RandomStreams streams)
+	{
+		BoardFileIO.BoardNumbering numbering = BoardFileIO.getBoardNumbering(boardSize);
+		int[] boardNums = new int[numBoards];
+		for(int i = 0; i < numBoards; i++)
+			boardNums[i] = numbering.drawTrainingBoardNum(streams.stream(RandomStreams.STREAM_LEVELS, i));
+		return boardNums;
+	}
+
+	/** Have the demonstrator play one episode on each of the given boards, in parallel
+	 *
+	 * @param domain 'S' for Simple Thermometers, 'C' for Complex Thermometers
+	 * @param boardSize The width/height of the boards
+	 * @param boardNums The boards to play, in the order their traces should be stored
+	 * @param maxMoves The most moves to let the demonstrator make in one episode
+	 * @param pool The pool to play the episodes on
+	 * @return The traces of every episode, one after another
+	 */
+	public static TraceStore generate(char domain, int boardSize, int[] boardNums, int maxMoves, ForkJoinPool pool)
+	{
+		TraceStore[] episodes = new TraceStore[boardNums.length];
+		pool.invoke(new PlayRange(domain, boardSize, boardNums, maxMoves, episodes, 0, boardNums.length));
+
+		//Join the episodes in order, which is what makes the result independent of the number of threads
+		int numRows = 0;
+		for(TraceStore episode : episodes)
+			numRows += episode.getNumRows();
+		TraceStore traces = new TraceStore(domain, boardSize, numRows);
+		for(TraceStore episode : episodes)
+			traces.append(episode);
+		return traces;
+	}
+
+	/** Have the demonstrator play one board, recording every step
+	 *
+	 * @param domain 'S' for Simple Thermometers, 'C' for Complex Thermometers
+	 * @param boardSize The width/height of the board
+	 * @param boardNum The number of the board to play
+	 * @param maxMoves The most moves to let the demonstrator make
+	 * @return The trace of the episode
+	 */
+	public static TraceStore playEpisode(char domain, int boardSize, int boardNum, int maxMoves)
+	{
+		//Boards are loaded without going through the layout cache, since each one is usually only needed once
+		BoardLayout layout = new BoardLayout(BoardFileIO.loadPieceGridByNumber(boardSize, boardNum));
+
+		SimpleThermometersAI simpleDemonstrator = null;
+		ComplexThermometersAI complexDemonstrator = null;
+		Board board;
+		if(domain == 'S')
+		{
+			board = new SimpleThermsBoard(layout);
+			simpleDemonstrator = new SimpleThermometersAI();
+		}
+		else
+		{
+			board = new ComplexThermsBoard(layout);
+			complexDemonstrator = new ComplexThermometersAI();
+		}
+
+		ActionCatalog catalog = ActionCatalog.getCatalog(domain, boardSize);
+		TraceStore trace = new TraceStore(domain, boardSize, Math.min(maxMoves, TraceStore.DEFAULTCAPACITY));
+		double[] values = new double[trace.getSchema().numAttributes()];
+
+		int numMoves = 0;
+		while(numMoves < maxMoves && !board.isSolved())
+		{
+			//Get demonstrator move
+			Triple move = simpleDemonstrator != null ? simpleDemonstrator.makeAMove((SimpleThermsBoard) board)
+					: complexDemonstrator.makeAMove((ComplexThermsBoard) board);
+			if(move == null)
+				break;
+
+			//Record the state and the demonstrator's move, then apply the move to the board
+			MakeLearningInstances.getFeatureValues(board, values);
+			trace.add(boardNum, numMoves, values, catalog.getId(move));
+			ApplyMovesToBoard.applyMove(board, move);
+			numMoves++;
+		}
+		return trace;
+	}
+}
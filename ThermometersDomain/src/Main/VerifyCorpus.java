@@ -0,0 +1,289 @@
+package Main;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import BoardRepresentation.Board;
+import BoardRepresentation.BoardFileIO;
+import BoardRepresentation.BoardLayout;
+import BoardRepresentation.ComplexThermsBoard;
+import BoardRepresentation.PuzzleIndex;
+import BoardRepresentation.PuzzleSolver;
+import BoardRepresentation.TileGrid;
+import Demonstrators.ComplexThermometersAI;
+
+/** Batch job that checks every puzzle in a range of puzzle numbers, spread over all cores with a fork-join pool,
+ *    to re-check a corpus after the puzzles (or the code that reads them) have changed.
+ *
+ *    Each puzzle can be checked two ways:
+ *        CHECK_DEMONSTRATOR: the Complex Thermometers demonstrator must be able to solve it (see
+ *                            ComplexThermometersAI.countMovesToSolve), and its number of moves is recorded
+ *        CHECK_SOLVER: the solver (see PuzzleSolver.java), which only sees the counts and the thermometers,
+ *                      must find exactly one solution, and it must match the solution stored with the puzzle
+ *
+ *    Puzzles that fail are reported one per line, followed by a summary of the move counts and the number of
+ *    boards checked per second.
+ *
+ * @author Skularach
+ */
+public class VerifyCorpus
+{
+	//Which checks to run (CHECK_BOTH is both of the others)
+	public static final int CHECK_DEMONSTRATOR = 1;
+	public static final int CHECK_SOLVER = 2;
+	public static final int CHECK_BOTH = CHECK_DEMONSTRATOR | CHECK_SOLVER;
+
+	//Moves recorded for a puzzle the demonstrator wasn't run on
+	public static final int NOTCHECKED = -2;
+
+	//Ranges of at most this many puzzles are checked on one thread instead of being split further
+	private static final int SPLITSIZE = 256;
+
+	/** The results of checking a range of puzzles.  Entry i of each array is for puzzle firstPuzzle + i.
+	 */
+	public static class Report
+	{
+		public final int boardSize;
+		public final int firstPuzzle;
+		public final int numPuzzles;
+
+		//How many moves the demonstrator took on each puzzle, PuzzleIndex.UNSOLVED if it got stuck,
+		//  or NOTCHECKED if it wasn't run
+		public final int[] moves;
+
+		//Why each puzzle failed, or null for the ones that passed
+		public final String[] failures;
+
+		//How long the checks took, in nanoseconds
+		public long elapsedNanos = 0;
+
+		/** Constructor.
+		 *
+		 * @param boardSize The width/height of the puzzles
+		 * @param firstPuzzle The first puzzle number checked
+		 * @param numPuzzles How many puzzles were checked
+		 */
+		public Report(int boardSize, int firstPuzzle, int numPuzzles)
+		{
+			this.boardSize = boardSize;
+			this.firstPuzzle = firstPuzzle;
+			this.numPuzzles = numPuzzles;
+			moves = new int[numPuzzles];
+			failures = new String[numPuzzles];
+		}
+
+		/** Count the puzzles that failed
+		 *
+		 * @return The number of failed puzzles
+		 */
+		public int getNumFailures()
+		{
+			int numFailures = 0;
+			for(String failure : failures)
+				if(failure != null)
+					numFailures++;
+			return numFailures;
+		}
+
+		/** Work out how fast the puzzles were checked
+		 *
+		 * @return Puzzles checked per second
+		 */
+		public double getBoardsPerSecond()
+		{
+			return elapsedNanos == 0 ? 0 : numPuzzles * 1e9 / elapsedNanos;
+		}
+
+		/** Print every failure, then a summary of the move counts and the speed
+		 */
+		public void print()
+		{
+			int minMoves = Integer.MAX_VALUE;
+			int maxMoves = 0;
+			long totalMoves = 0;
+			int numSolved = 0;
+			for(int i = 0; i < numPuzzles; i++)
+			{
+				if(failures[i] != null)
+					System.out.println("Puzzle " + (firstPuzzle + i) + ": " + failures[i]);
+				if(moves[i] >= 0)
+				{
+					minMoves = Math.min(minMoves, moves[i]);
+					maxMoves = Math.max(maxMoves, moves[i]);
+					totalMoves += moves[i];
+					numSolved++;
+				}
+			}
+
+			System.out.println("Checked " + numPuzzles + " " + boardSize + "x" + boardSize + " puzzles (" + firstPuzzle + " to "
+					+ (firstPuzzle + numPuzzles - 1) + "): " + getNumFailures() + " failed");
+			if(numSolved > 0)
+				System.out.println("Demonstrator moves: min " + minMoves + ", mean " + String.format("%.2f", (double) totalMoves / numSolved)
+						+ ", max " + maxMoves);
+			System.out.println("Took " + String.format("%.2f", elapsedNanos / 1e9) + "s (" + Math.round(getBoardsPerSecond()) + " boards/s)");
+		}
+	}
+
+	/** Checks the puzzles in one range, splitting it in half and checking both halves in parallel while it is large
+	 */
+	private static class CheckRange extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final Report report;
+		private final int checks;
+		private final int from;
+		private final int to;
+
+		/** Constructor.
+		 *
+		 * @param report The report to fill in
+		 * @param checks Which checks to run
+		 * @param from The first index into the report to check
+		 * @param to One past the last index into the report to check
+		 */
+		CheckRange(Report report, int checks, int from, int to)
+		{
+			this.report = report;
+			this.checks = checks;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(to - from <= SPLITSIZE)
+			{
+				for(int i = from; i < to; i++)
+					checkPuzzle(report, checks, i);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new CheckRange(report, checks, from, middle), new CheckRange(report, checks, middle, to));
+		}
+	}
+
+	/** Runs the checks.
+	 *
+	 * @param args The board size (5 if left out), the first puzzle number (0 if left out), the number of puzzles
+	 *             (every puzzle from the first on if left out), which checks to run ("demonstrator", "solver" or
+	 *             "both", both if left out) and the number of threads (all cores if left out)
+	 */
+	public static void main(String[] args)
+	{
+		int boardSize = args.length > 0 ? Integer.parseInt(args[0]) : Board.DEFAULTBOARDSIZE;
+		int firstPuzzle = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+		int numPuzzles = args.length > 2 ? Integer.parseInt(args[2]) : BoardFileIO.getNumBoards(boardSize) - firstPuzzle;
+		int checks = args.length > 3 ? parseChecks(args[3]) : CHECK_BOTH;
+		int numThreads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+		Report report = verify(boardSize, firstPuzzle, numPuzzles, checks, new ForkJoinPool(numThreads));
+		report.print();
+	}
+
+	/** Check a range of puzzles
+	 *
+	 * @param boardSize The width/height of the puzzles
+	 * @param firstPuzzle The first puzzle number to check
+	 * @param numPuzzles How many puzzles to check
+	 * @param checks Which checks to run (CHECK_DEMONSTRATOR, CHECK_SOLVER or CHECK_BOTH)
+	 * @param pool The pool to run the checks on
+	 * @return The results
+	 */
+	public static Report verify(int boardSize, int firstPuzzle, int numPuzzles, int checks, ForkJoinPool pool)
+	{
+		Report report = new Report(boardSize, firstPuzzle, numPuzzles);
+		long start = System.nanoTime();
+		pool.invoke(new CheckRange(report, checks, 0, numPuzzles));
+		report.elapsedNanos = System.nanoTime() - start;
+		return report;
+	}
+
+	/** Check one puzzle, filling in its entries in the report
+	 *
+	 * @param report The report
+	 * @param checks Which checks to run
+	 * @param index The index of the puzzle in the report
+	 */
+	private static void checkPuzzle(Report report, int checks, int index)
+	{
+		report.moves[index] = NOTCHECKED;
+		int puzzleNum = report.firstPuzzle + index;
+
+		BoardLayout layout;
+		try
+		{
+			//Puzzles are loaded without going through the layout cache, since each one is only needed once
+			layout = new BoardLayout(BoardFileIO.loadPieceGridByNumber(report.boardSize, puzzleNum));
+		}
+		catch(RuntimeException e)
+		{
+			report.failures[index] = "could not be loaded (" + e.getMessage() + ")";
+			return;
+		}
+
+		//A crash in one check is reported as that puzzle's failure, so one bad puzzle doesn't stop the whole run
+		String failure = null;
+		try
+		{
+			if((checks & CHECK_SOLVER) != 0)
+				failure = checkWithSolver(layout);
+
+			if((checks & CHECK_DEMONSTRATOR) != 0)
+			{
+				report.moves[index] = new ComplexThermometersAI().countMovesToSolve(new ComplexThermsBoard(layout));
+				if(report.moves[index] == PuzzleIndex.UNSOLVED && failure == null)
+					failure = "the demonstrator got stuck";
+			}
+		}
+		catch(RuntimeException e)
+		{
+			failure = "checking it threw " + e;
+		}
+		report.failures[index] = failure;
+	}
+
+	/** Check that the solver finds exactly one solution for a puzzle, and that it is the stored one
+	 *
+	 * @param layout The layout of the puzzle
+	 * @return Why the puzzle failed, or null if it passed
+	 */
+	private static String checkWithSolver(BoardLayout layout)
+	{
+		PuzzleSolver solver = new PuzzleSolver(layout);
+		int numSolutions = solver.countSolutions(2);
+		if(numSolutions == 0)
+			return "the solver found no solution";
+		if(numSolutions > 1)
+			return "the solver found more than one solution";
+
+		int[][] solution = solver.getSolution();
+		TileGrid stored = layout.getSolutionGrid();
+		for(int i = 0; i < layout.getSize(); i++)
+			for(int j = 0; j < layout.getSize(); j++)
+				if(solution[i][j] != stored.get(i, j))
+					return "the solver's solution differs from the stored one at row " + i + ", column " + j;
+		return null;
+	}
+
+	/** Turn the name of a set of checks into its constant
+	 *
+	 * @param name "demonstrator", "solver" or "both"
+	 * @return The matching CHECK_ constant
+	 */
+	private static int parseChecks(String name)
+	{
+		switch(name)
+		{
+			case "demonstrator":
+				return CHECK_DEMONSTRATOR;
+			case "solver":
+				return CHECK_SOLVER;
+			case "both":
+				return CHECK_BOTH;
+			default:
+				throw new IllegalArgumentException("Unknown checks \"" + name + "\"; expected demonstrator, solver or both");
+		}
+	}
+}
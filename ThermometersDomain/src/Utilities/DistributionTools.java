@@ -20,10 +20,37 @@ public class DistributionTools
 	public static int getIndexGivenProbDist(double[] dist)
 	{
 		//Get a random double and use that to determine the index.
-		double r = distRand.nextDouble();
+		return getIndexGivenDraw(dist, distRand.nextDouble());
+	}
+	
+	/**
+	 * Same as getIndexGivenProbDist(dist), but takes its random number from the given generator instead of the
+	 *   shared distRand, so that separate threads can each sample from their own stream (see RandomStreams.java).
+	 * 
+	 * @param dist The distribution from which to select
+	 * @param rand The generator to use
+	 * @return  The returned index
+	 */
+	public static int getIndexGivenProbDist(double[] dist, SplittableRandom rand)
+	{
+		return getIndexGivenDraw(dist, rand.nextDouble());
+	}
+	
+	/**
+	 * Find the index that a random number between 0 (inclusive) and 1 (exclusive) lands on in a probability
+	 *   distribution: the first index where the running total of the probabilities reaches it.
+	 * 
+	 * @param dist The distribution from which to select
+	 * @param r The random number
+	 * @return  The returned index
+	 */
+	private static int getIndexGivenDraw(double[] dist, double r)
+	{
 	    double a = 0;
 		int idx = -1;
-    	while(r > a)
+		//The running total also has to be above 0, or a draw of exactly 0 would give -1 (or an index with no chance
+		//  of being picked).  If rounding leaves the total just short of r, the last index is used.
+    	while((r > a || a == 0) && idx < dist.length - 1)
     	{	
         	idx = idx + 1;
         	a = a + dist[idx];
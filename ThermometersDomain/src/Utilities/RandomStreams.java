@@ -0,0 +1,153 @@
+package Utilities;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/** Hands out independent random number streams, all worked out from one master seed.
+ *
+ *    Every stream is identified by what it is for (one of the STREAM_ constants) and an index, such as an episode
+ *    or worker number, and the same master seed, purpose and index always give the same stream.  Nothing is shared
+ *    between streams, so threads using different streams never wait on each other, and what a stream produces doesn't
+ *    depend on which thread asks for it or when.  If each episode of a run gets its own stream, the run gives exactly
+ *    the same results whether the episodes are played one at a time or spread over any number of threads.
+ *
+ *    The streams are SplittableRandoms, so a stream can be split further for work inside an episode.  Use asRandom
+ *    for code that needs a java.util.Random, such as Collections.shuffle or PuzzleGenerator.
+ *
+ * @author Skularach
+ *
+ */
+public class RandomStreams
+{
+	//What a stream is for.  Streams for different purposes never overlap, even with the same index.
+	public static final int STREAM_LEVELS = 1;
+	public static final int STREAM_EPISODES = 2;
+	public static final int STREAM_SAMPLING = 3;
+	public static final int STREAM_GENERATOR = 4;
+	public static final int STREAM_WORKERS = 5;
+
+	//Master seed used if none is given (the same seed BoardFileIO.levelRand has always used)
+	public static final long DEFAULTSEED = 12535;
+
+	//Odd constant used to spread purposes and indexes out before mixing (2^64 divided by the golden ratio)
+	private static final long GOLDENGAMMA = 0x9E3779B97F4A7C15L;
+
+	private final long masterSeed;
+
+	/** Constructor.  Uses DEFAULTSEED as the master seed.
+	 *
+	 */
+	public RandomStreams()
+	{
+		this(DEFAULTSEED);
+	}
+
+	/** Constructor.
+	 *
+	 * @param masterSeed The seed every stream is worked out from
+	 */
+	public RandomStreams(long masterSeed)
+	{
+		this.masterSeed = masterSeed;
+	}
+
+	/** Getter for the master seed
+	 *
+	 * @return The seed every stream is worked out from
+	 */
+	public long getMasterSeed() {
+		return masterSeed;
+	}
+
+	/** Get a stream.  Each call returns a new generator at the start of the stream, so asking twice for the same
+	 *    purpose and index gives two generators that produce the same numbers.
+	 *
+	 * @param purpose What the stream is for (one of the STREAM_ constants, or any other int)
+	 * @param index Which stream for that purpose, for example an episode number
+	 * @return A new generator for the stream
+	 */
+	public SplittableRandom stream(int purpose, long index)
+	{
+		return new SplittableRandom(seedFor(purpose, index));
+	}
+
+	/** Same as stream, but as a java.util.Random
+	 *
+	 * @param purpose What the stream is for (one of the STREAM_ constants, or any other int)
+	 * @param index Which stream for that purpose, for example an episode number
+	 * @return A new generator for the stream
+	 */
+	public Random random(int purpose, long index)
+	{
+		return asRandom(stream(purpose, index));
+	}
+
+	/** Work out the seed for a stream
+	 *
+	 * @param purpose What the stream is for
+	 * @param index Which stream for that purpose
+	 * @return The seed for the stream
+	 */
+	public long seedFor(int purpose, long index)
+	{
+		return mix64(mix64(masterSeed + purpose * GOLDENGAMMA) + (index + 1) * GOLDENGAMMA);
+	}
+
+	/** Wrap a SplittableRandom so it can be used where a java.util.Random is needed.  The wrapper takes all of its
+	 *    numbers from the SplittableRandom, so it has none of Random's shared seed to contend on.
+	 *    Like the SplittableRandom, it should only be used by one thread at a time.
+	 *
+	 * @param source The generator to take numbers from
+	 * @return A Random that draws from source
+	 */
+	public static Random asRandom(final SplittableRandom source)
+	{
+		return new Random(0)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected int next(int bits)
+			{
+				return source.nextInt() >>> (32 - bits);
+			}
+
+			@Override
+			public int nextInt(int bound)
+			{
+				return source.nextInt(bound);
+			}
+
+			@Override
+			public long nextLong()
+			{
+				return source.nextLong();
+			}
+
+			@Override
+			public double nextDouble()
+			{
+				return source.nextDouble();
+			}
+
+			@Override
+			public boolean nextBoolean()
+			{
+				return source.nextBoolean();
+			}
+		};
+	}
+
+	/** Scramble the bits of a long (the finishing step of the SplitMix64 generator), so that seeds
+	 *    which are close together give streams that have nothing to do with each other
+	 *
+	 * @param z The value to scramble
+	 * @return The scrambled value
+	 */
+	private static long mix64(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
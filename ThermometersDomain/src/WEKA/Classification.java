@@ -5,7 +5,6 @@ import weka.classifiers.lazy.IBk;
 import weka.classifiers.trees.J48;
 import weka.core.Instance;
 import weka.core.Instances;
-import Utilities.MoveParsing;
 import Utilities.Triple;
 
 
@@ -44,8 +43,9 @@ public class Classification
 	 */
 	public static Triple predictActionWEKAComplexThermometers(Instance worldInstance)
 	{
-		String recordString = getActionStringWeka(worldInstance);
-		return MoveParsing.parseStringToTriple(recordString);
+		//The predicted class index is the action's id, so the move can be looked up without going through its string
+		int actionId = getActionIdWeka(worldInstance);
+		return actionId < 0 ? null : InstanceCreation.getActionCatalog().getMove(actionId);
 	}
 	
 	
@@ -57,8 +57,9 @@ public class Classification
 	 */
 	public static Triple predictActionWEKASimpleThermometers(Instance worldInstance)
 	{
-		String recordString = getActionStringWeka(worldInstance);
-		return MoveParsing.parseStringToCharacterPair(recordString);
+		//The predicted class index is the action's id, so the move can be looked up without going through its string
+		int actionId = getActionIdWeka(worldInstance);
+		return actionId < 0 ? null : InstanceCreation.getActionCatalog().getMove(actionId);
 	}
 	
 	/** Method to train a classifier using all of the data in the globalInstanceDatabase variable
@@ -103,6 +104,19 @@ public class Classification
 	 * @return A string representing the action
 	 */
 	public static String getActionStringWeka(Instance toClassify)
+	{
+		int actionId = getActionIdWeka(toClassify);
+		return actionId < 0 ? null : InstanceCreation.getActionCatalog().getName(actionId);
+	}
+	
+	/** Given a world state, uses WEKA to predict an action for it and returns 
+	 *    the action's id (see ActionCatalog.java), which is the class index WEKA predicted.
+	 * 
+	 * 
+	 * @param toClassify The world instance to predict an action for
+	 * @return The id of the action, or -1 if the prediction was not a valid action
+	 */
+	public static int getActionIdWeka(Instance toClassify)
 	{		
 		//Mark that the world state belongs to the same dataset as globalInstanceDatabase
 		toClassify.setDataset(globalInstanceDatabase);
@@ -126,14 +140,14 @@ public class Classification
 		} catch(Exception e){e.printStackTrace();}
 		
 
-		//Classification actually returns the index of the correct action.  Use that index to extract the string from the WEKA attributes
-		String actionString = null;
+		//Classification actually returns the index of the correct action, which is also the action's id
+		int actionId = -1;
 		try{
-				actionString = InstanceCreation.WEKAattributes.get(InstanceCreation.WEKAattributes.size()-1).value((int) actionIndex);
-		}catch(Exception e)
+				actionId = InstanceCreation.getActionCatalog().getIdForClassIndex(actionIndex);
+		}catch(IllegalArgumentException e)
 		{
 			System.out.println("Action index returned by prediction is invalid");
 		}
-		return actionString;
+		return actionId;
 	}
 }
\ No newline at end of file
@@ -2,7 +2,6 @@ package WEKA;
 
 import Utilities.Triple;
 import weka.core.Instance;
-import BoardRepresentation.SimpleThermsBoard;
 
 /** This class is a library that handles simple conversions, such as a string to a boolean array or a triple to a string.
  * 
@@ -12,16 +11,6 @@ import BoardRepresentation.SimpleThermsBoard;
  */
 public class Conversions
 {
-	// Indices for the complex-thermometers domain
-	// These determine where each subset of features start and end, and are precalculated here for understandability later on
-	int wholeColumnRulesStartIndex = SimpleThermsBoard.BOARDSIZE * SimpleThermsBoard.BOARDSIZE;
-	int complicatedColRulesStartIndex = wholeColumnRulesStartIndex + 2 * SimpleThermsBoard.BOARDSIZE;
-	int remainingColRulesIndex = complicatedColRulesStartIndex + SimpleThermsBoard.BOARDSIZE*SimpleThermsBoard.BOARDSIZE*2;
-	int startingRowIndex = remainingColRulesIndex + SimpleThermsBoard.BOARDSIZE * SimpleThermsBoard.BOARDSIZE * 2;
-	int complicatedRowRulesStartIndex = startingRowIndex + 2 * SimpleThermsBoard.BOARDSIZE;
-	int remainingRowRulesIndex = complicatedRowRulesStartIndex + SimpleThermsBoard.BOARDSIZE*SimpleThermsBoard.BOARDSIZE*2;
-
-	
 	/** This method takes in a WEKA Instance object, and returns that instance
 	 *     as an array of doubles (basically the double values of the instance
 	 *     without all of the other info from the Instance class
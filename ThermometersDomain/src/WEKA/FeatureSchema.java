@@ -0,0 +1,264 @@
+package WEKA;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import BoardActions.ActionCatalog;
+
+import weka.core.Attribute;
+import weka.core.Instances;
+
+/** This class holds the WEKA attributes (features and action) for one domain and one board size,
+ *    along with where each group of features starts.  Boards of different sizes need different features,
+ *    so every board gets the schema for its own size from getSchema rather than relying on a single global one.
+ *    Schemas never change once they are made, and the same schema is handed back for the same domain and size,
+ *    so they are safe to share between threads.
+ *
+ *  Simple Thermometers features (for an n x n board):
+ *    0 to n-1: Whether each tile in the row/column is full, empty, or unknown
+ *    n to 2n-1: The relevant thermometer piece (if any) on each tile
+ *    2n: The number of tiles (total) that should be filled in the row/column
+ *    2n+1 to 2n+3: The current number of filled, empty, and blank tiles, in that order
+ *    2n+4: The action
+ *
+ *  Complex Thermometers features: one blank/not blank feature per tile, followed by the rule based features
+ *    described in RuleBasedBoardFacts.java for the columns and then the rows, followed by the action.
+ *
+ * @author Skularach
+ *
+ */
+public class FeatureSchema
+{
+	//Schemas made so far, keyed by domain and board size
+	private static final HashMap<String, FeatureSchema> schemas = new HashMap<String, FeatureSchema>();
+
+	//'S' for Simple Thermometers, 'C' for Complex Thermometers
+	private final char domain;
+
+	//Width/height of the boards this schema is for
+	private final int boardSize;
+
+	//All of the attributes, with the action last
+	private final ArrayList<Attribute> attributes = new ArrayList<Attribute>();
+
+	//An empty dataset with these attributes and the action as the class, for instances to belong to
+	private final Instances header;
+
+	//Indices for Complex Thermometer features (unused for Simple Thermometers)
+	public final int wholeColumnRulesStartIndex;
+	public final int complicatedColRulesStartIndex;
+	public final int remainingColRulesIndex;
+	public final int startingRowIndex;
+	public final int complicatedRowRulesStartIndex;
+	public final int remainingRowRulesIndex;
+
+	/** Get the schema for a domain and board size, making it the first time it is asked for.
+	 *
+	 * @param domain 'S' for Simple Thermometers, 'C' for Complex Thermometers
+	 * @param boardSize The width/height of the boards
+	 * @return The (shared) schema
+	 */
+	public static synchronized FeatureSchema getSchema(char domain, int boardSize)
+	{
+		String key = domain + "" + boardSize;
+		FeatureSchema schema = schemas.get(key);
+		if(schema == null)
+		{
+			schema = new FeatureSchema(domain, boardSize);
+			schemas.put(key, schema);
+		}
+		return schema;
+	}
+
+	/** Constructor.  Builds all of the attributes for a domain and board size.
+	 *
+	 * @param domainIn 'S' for Simple Thermometers, 'C' for Complex Thermometers
+	 * @param boardSizeIn The width/height of the boards
+	 */
+	private FeatureSchema(char domainIn, int boardSizeIn)
+	{
+		domain = domainIn;
+		boardSize = boardSizeIn;
+
+		if(domain == 'S')
+			addSimpleAttributes();
+		else
+			addComplexAttributes();
+
+		//Precalculate where each group of Complex features starts, for ease of understanding later on
+		wholeColumnRulesStartIndex = boardSize * boardSize;
+		complicatedColRulesStartIndex = wholeColumnRulesStartIndex + 2 * boardSize;
+		remainingColRulesIndex = complicatedColRulesStartIndex + boardSize * boardSize * 2;
+		startingRowIndex = remainingColRulesIndex + boardSize * boardSize * 2;
+		complicatedRowRulesStartIndex = startingRowIndex + 2 * boardSize;
+		remainingRowRulesIndex = complicatedRowRulesStartIndex + boardSize * boardSize * 2;
+
+		header = new Instances((domain == 'S' ? "Simple" : "Complex") + boardSize + "x" + boardSize, attributes, 0);
+		header.setClassIndex(attributes.size() - 1);
+	}
+
+	/** Adds the attributes for the Simple Thermometers domain
+	 *
+	 */
+	private void addSimpleAttributes()
+	{
+		//Possible values for thermometer pieces
+		ArrayList<String> tPieceVals = new ArrayList<String>(6);
+		tPieceVals.add("BR");
+		tPieceVals.add("BL");
+		tPieceVals.add("TH");
+		tPieceVals.add("CR");
+		tPieceVals.add("CL");
+		tPieceVals.add("NO");
+
+		//Possible tile fills
+		ArrayList<String> tileFills = new ArrayList<String>(3);
+		tileFills.add("-1");
+		tileFills.add("0");
+		tileFills.add("1");
+
+		//One tile fill per tile in the row/column, with the possible tile fills defined above
+		for(int i = 0; i < boardSize; i++)
+			attributes.add(new Attribute("tile" + i + "Fill", tileFills));
+
+		//One thermometer piece attribute per tile, with the possible thermometers values defined above
+		for(int i = 0; i < boardSize; i++)
+			attributes.add(new Attribute("tPiece" + i, tPieceVals));
+
+		//Attributes for the required number of filled tiles and the current number of filled, empty, and blank
+		attributes.add(new Attribute("fillCount"));
+		attributes.add(new Attribute("numFilled"));
+		attributes.add(new Attribute("numEmpty"));
+		attributes.add(new Attribute("numBlank"));
+
+		//Create the action attribute and add it as well
+		attributes.add(new Attribute("action", getActionValues()));
+	}
+
+	/** Adds the attributes for the Complex Thermometers domain
+	 *
+	 */
+	private void addComplexAttributes()
+	{
+		//Possible tile fills
+		ArrayList<String> tileFills = new ArrayList<String>(3);
+		tileFills.add("NotBlank");
+		tileFills.add("Blank");
+
+		//Possible rule values
+		ArrayList<String> wholeRuleValues = new ArrayList<String>();
+		wholeRuleValues.add("yes");
+		wholeRuleValues.add("no");
+
+		//Values from -1 to the size of the board.
+		ArrayList<String> negOneToBoardsize = new ArrayList<String>();
+		for(int i = -1; i < boardSize + 1; i++)
+			negOneToBoardsize.add(""+i);
+
+		//get tile fill attributes
+		for(int i = 0; i < boardSize * boardSize; i++)
+			attributes.add(new Attribute("tile" + i,tileFills));
+
+		//get rule based attributes for columns, then for rows
+		addLineRuleAttributes("Col", wholeRuleValues, negOneToBoardsize);
+		addLineRuleAttributes("Row", wholeRuleValues, negOneToBoardsize);
+
+		//add the action attribute (75 possible values for a 5x5 board) to the attribute list
+		attributes.add(new Attribute("action", getActionValues()));
+	}
+
+	/** Gets the possible action values, in the order of the ids in this domain and size's ActionCatalog,
+	 *    so that an action's id is also its class index
+	 *
+	 * @return The action values
+	 */
+	private ArrayList<String> getActionValues()
+	{
+		ActionCatalog catalog = ActionCatalog.getCatalog(domain, boardSize);
+		ArrayList<String> outputClassValues = new ArrayList<String>(catalog.getNumActions());
+		for(int id = 0; id < catalog.getNumActions(); id++)
+			outputClassValues.add(catalog.getName(id));
+		return outputClassValues;
+	}
+
+	/** Adds the rule based attributes for either every column or every row of a Complex Thermometers board
+	 *
+	 * @param line "Col" or "Row"
+	 * @param wholeRuleValues The values for yes/no rules
+	 * @param negOneToBoardsize The values for rules that give a number of tiles (or -1 if they don't apply)
+	 */
+	private void addLineRuleAttributes(String line, ArrayList<String> wholeRuleValues, ArrayList<String> negOneToBoardsize)
+	{
+		//Rules that apply to the whole row/column
+		for(int i = 0; i < boardSize; i++)
+			attributes.add(new Attribute("FillAllIn" + line + i , wholeRuleValues));
+		for(int i = 0; i < boardSize; i++)
+			attributes.add(new Attribute("EmptyRestIn" + line + i, wholeRuleValues));
+
+		//Rules that apply to each thermometer in the row/column
+		for(int i = 0; i < boardSize; i++)
+			for(int j = 0; j < boardSize; j++)
+				attributes.add(new Attribute("ThermTooBig" + line + i + "," +j,negOneToBoardsize));
+
+		for(int i = 0; i < boardSize; i++)
+			for(int j = 0; j < boardSize; j++)
+				attributes.add(new Attribute("ThermFilledRequired" + line + i + "," +j,negOneToBoardsize));
+
+		for(int i = 0; i < boardSize; i++)
+			for(int j = 0; j < boardSize; j++)
+				attributes.add(new Attribute("RestThermFilled" + line + i + "," +j,wholeRuleValues));
+
+		for(int i = 0; i < boardSize; i++)
+			for(int j = 0; j < boardSize; j++)
+				attributes.add(new Attribute("RestThermEmpty" + line + i + "," +j,wholeRuleValues));
+	}
+
+	/** Getter for the domain of this schema
+	 *
+	 * @return 'S' for Simple Thermometers, 'C' for Complex Thermometers
+	 */
+	public char getDomain() {
+		return domain;
+	}
+
+	/** Getter for the board size of this schema
+	 *
+	 * @return The width/height of the boards this schema is for
+	 */
+	public int getBoardSize() {
+		return boardSize;
+	}
+
+	/** Getter for all of the attributes, with the action last
+	 *
+	 * @return The attribute list.  Do not modify.
+	 */
+	public ArrayList<Attribute> getAttributes() {
+		return attributes;
+	}
+
+	/** Getter for a single attribute
+	 *
+	 * @param index The index of the attribute
+	 * @return The attribute
+	 */
+	public Attribute getAttribute(int index) {
+		return attributes.get(index);
+	}
+
+	/** Getter for the number of attributes, including the action
+	 *
+	 * @return The number of attributes
+	 */
+	public int numAttributes() {
+		return attributes.size();
+	}
+
+	/** Getter for an empty dataset with this schema's attributes, with the action set as the class
+	 *
+	 * @return The dataset.  Do not add instances to it.
+	 */
+	public Instances getHeader() {
+		return header;
+	}
+}
@@ -2,7 +2,8 @@ package WEKA;
 
 import java.util.ArrayList;
 
-import BoardRepresentation.ComplexThermsBoard;
+import BoardActions.ActionCatalog;
+import BoardRepresentation.Board;
 import weka.core.Attribute;
 import weka.core.Instance;
 import weka.core.Instances;
@@ -18,6 +19,8 @@ import weka.core.Instances;
 public class InstanceCreation
 {
 	
+	//The feature schema the instance databases below were set up for, and its attributes
+	public static FeatureSchema schema;
 	public static int numWEKAattributes = -1;
 	public static ArrayList<Attribute> WEKAattributes;
 	
@@ -27,249 +30,35 @@ public class InstanceCreation
 		
 	
 		
-	/** This method initializes the WEKA attribute lists and other minor values.
+	/** This method initializes the WEKA attribute lists and other minor values, for boards of the default size.
 	 * 
 	 * 
 	 * @param callingDomain The domain that is calling the function ('S' for Simple Thermometers, 'C' for Complex Thermometers
 	 * @param classifierToUse Which underlying standard supervised learning method to use.  'j' for J48, 'k' for knn. Basically just stores this to a data member
 	 */
 	public static void initializeWeka(char callingDomain, char classifierToUse)
+	{
+		initializeWeka(callingDomain, classifierToUse, Board.DEFAULTBOARDSIZE);
+	}
+	
+	/** This method initializes the WEKA attribute lists and other minor values.
+	 *    The attributes themselves come from the FeatureSchema for the domain and board size.
+	 * 
+	 * 
+	 * @param callingDomain The domain that is calling the function ('S' for Simple Thermometers, 'C' for Complex Thermometers
+	 * @param classifierToUse Which underlying standard supervised learning method to use.  'j' for J48, 'k' for knn. Basically just stores this to a data member
+	 * @param boardSize The width/height of the boards that will be learned from
+	 */
+	public static void initializeWeka(char callingDomain, char classifierToUse, int boardSize)
 	{
 		//Save parameters
 		Classification.classifierToUse = classifierToUse;
 		domain = callingDomain;
 		
-		//Simple Thermometers
-		if(callingDomain == 'S')
-		{
-			//List of all attributes for the domain
-			ArrayList<Attribute> attributes = new ArrayList<Attribute>();
-			
-			//Possible values for thermometer pieces
-			ArrayList<String> tPieceVals = new ArrayList<String>(6);
-			tPieceVals.add("BR");
-			tPieceVals.add("BL");
-			tPieceVals.add("TH");
-			tPieceVals.add("CR");
-			tPieceVals.add("CL");
-			tPieceVals.add("NO");
-			
-			//Possible tile fills
-			ArrayList<String> tileFills = new ArrayList<String>(3);
-			tileFills.add("-1");
-			tileFills.add("0");
-			tileFills.add("1");
-			
-			
-		 
-			//Create 5 tile fills (assuming 5x5 board), with the possible tile fills defined above
-			Attribute tile0Fill = new Attribute("tile0Fill", tileFills);
-			Attribute tile1Fill = new Attribute("tile1Fill", tileFills);
-			Attribute tile2Fill = new Attribute("tile2Fill", tileFills);
-			Attribute tile3Fill = new Attribute("tile3Fill", tileFills);
-			Attribute tile4Fill = new Attribute("tile4Fill", tileFills);
-			
-			
-			//Create 5 thermometer piece attributes (assuming 5x5 board), with the possible thermometers values defined above
-			Attribute tPiece0Shape = new Attribute("tPiece0",tPieceVals);
-			Attribute tPiece1Shape = new Attribute("tPiece1",tPieceVals);
-			Attribute tPiece2Shape = new Attribute("tPiece2",tPieceVals);
-			Attribute tPiece3Shape = new Attribute("tPiece3",tPieceVals);
-			Attribute tPiece4Shape = new Attribute("tPiece4",tPieceVals);
-			
-			//Attributes for the required number of filled tiles and the current number of filled, empty, and blank
-			Attribute fillCount = new Attribute("fillCount");
-			Attribute numFilled = new Attribute("numFilled");
-			Attribute numEmpty = new Attribute("numEmpty");
-			Attribute numBlank =  new Attribute("numBlank");
-			
-			//Add all of the attributes to the attribute list
-			attributes.add(tile0Fill);
-			attributes.add(tile1Fill);
-			attributes.add(tile2Fill);
-			attributes.add(tile3Fill);
-			attributes.add(tile4Fill);
-			
-			attributes.add(tPiece0Shape);
-			attributes.add(tPiece1Shape);
-			attributes.add(tPiece2Shape);
-			attributes.add(tPiece3Shape);
-			attributes.add(tPiece4Shape);
-			
-			attributes.add(fillCount);
-			attributes.add(numFilled);
-			attributes.add(numEmpty);
-			attributes.add(numBlank);
-		
-			
-			//Possible action values
-			ArrayList<String> outputClassValues = new ArrayList<String>();
-			outputClassValues.add("fill(0)");
-			outputClassValues.add("fill(1)");
-			outputClassValues.add("fill(2)");
-			outputClassValues.add("fill(3)");
-			outputClassValues.add("fill(4)");
-			outputClassValues.add("empty(0)");
-			outputClassValues.add("empty(1)");
-			outputClassValues.add("empty(2)");
-			outputClassValues.add("empty(3)");
-			outputClassValues.add("empty(4)");
-			outputClassValues.add("move()");
-			outputClassValues.add("clear()");
-			
-			//Create the action attribute and add it as well
-			Attribute outputClass = new Attribute("action",outputClassValues);
-			attributes.add(outputClass);
-			
-			//Store the number of attributes and attributes themselves 
-			numWEKAattributes = attributes.size();
-			WEKAattributes = attributes;
-		
-			//Set up globalInstanceDatabase to be the training database
-			 Classification.globalInstanceDatabase = new Instances("Training",attributes,0);
-			 Classification.globalInstanceDatabase.setClassIndex(Classification.globalInstanceDatabase.numAttributes()-1);
-		}	 
-		
-		//Complex Thermometers
-		else //if CallingDomain == 'C'
-		{
-			//Possible tile fills
-			ArrayList<String> tileFills = new ArrayList<String>(3);
-			tileFills.add("NotBlank");
-			tileFills.add("Blank");
-			
-			//Possible rule values
-			ArrayList<String> wholeRuleValues = new ArrayList<String>();
-			wholeRuleValues.add("yes");
-			wholeRuleValues.add("no");
-			
-			//Values from 0 to the size of the board, since a 5x5 board could have a column/row constraint
-			// of 0,1,2,3,4, or 5
-			ArrayList<String> zeroToBoardsize = new ArrayList<String>();
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE + 1; i++)
-				zeroToBoardsize.add(""+i);
-			
-			//Values from -1 to the size of the board.
-			ArrayList<String> negOneToBoardsize = new ArrayList<String>();
-			for(int i = -1; i < ComplexThermsBoard.BOARDSIZE + 1; i++)
-				negOneToBoardsize.add(""+i);
-			
-			
-			ArrayList<Attribute> attributes = new ArrayList<Attribute>();
-			
-			//get tile fill attributes
-			ArrayList<Attribute> tiles = new ArrayList<Attribute>();
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE * ComplexThermsBoard.BOARDSIZE; i++)
-				tiles.add(new Attribute("tile" + i,tileFills));
-			
-			
-			
-			//get rule based attributes for columns
-			ArrayList<Attribute> wholeColRules = new ArrayList<Attribute>();
-	
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE; i++)
-				wholeColRules.add(new Attribute("FillAllInCol"+i , wholeRuleValues));
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE; i++)
-				wholeColRules.add(new Attribute("EmptyRestInCol"+i, wholeRuleValues));	
-			
-			//get rule based attributes for column thermometers
-			ArrayList<Attribute> ruleAttributesCol = new ArrayList<Attribute>();
-			
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE; i++)
-				for(int j = 0; j < ComplexThermsBoard.BOARDSIZE; j++)
-				{
-					ruleAttributesCol.add(new Attribute("ThermTooBigCol"+i + "," +j,negOneToBoardsize));
-				}
-			
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE; i++)
-				for(int j = 0; j < ComplexThermsBoard.BOARDSIZE; j++)
-				{
-					ruleAttributesCol.add(new Attribute("ThermFilledRequiredCol"+i + "," +j,negOneToBoardsize));
-				}
-			
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE; i++)
-				for(int j = 0; j < ComplexThermsBoard.BOARDSIZE; j++)
-				{
-					ruleAttributesCol.add(new Attribute("RestThermFilledCol"+i + "," +j,wholeRuleValues));
-				}
-			
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE; i++)
-				for(int j = 0; j < ComplexThermsBoard.BOARDSIZE; j++)
-				{
-					ruleAttributesCol.add(new Attribute("RestThermEmptyCol"+i + "," +j,wholeRuleValues));
-				}
-			
-			
-			//get rule based attributes for rows
-			ArrayList<Attribute> wholeRowRules = new ArrayList<Attribute>();
-			
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE; i++)
-				wholeRowRules.add(new Attribute("FillAllInRow"+i, wholeRuleValues));
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE; i++)
-				wholeRowRules.add(new Attribute("EmptyRestInRow"+i, wholeRuleValues));	
-			
-			//get rule based attributes for row thermometers
-			ArrayList<Attribute> ruleAttributesRow = new ArrayList<Attribute>();
-			
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE; i++)
-				for(int j = 0; j < ComplexThermsBoard.BOARDSIZE; j++)
-				{
-					ruleAttributesRow.add(new Attribute("ThermTooBigRow"+i + "," +j,negOneToBoardsize));
-				}
-			
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE; i++)
-				for(int j = 0; j < ComplexThermsBoard.BOARDSIZE; j++)
-				{
-					ruleAttributesRow.add(new Attribute("ThermFilledRequiredRow"+i + "," +j,negOneToBoardsize));
-				}
-			
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE; i++)
-				for(int j = 0; j < ComplexThermsBoard.BOARDSIZE; j++)
-				{
-					ruleAttributesRow.add(new Attribute("RestThermFilledRow"+i + "," +j,wholeRuleValues));
-				}
-			
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE; i++)
-				for(int j = 0; j < ComplexThermsBoard.BOARDSIZE; j++)
-				{
-					ruleAttributesRow.add(new Attribute("RestThermEmptyRow"+i + "," +j,wholeRuleValues));
-				}
-			
-			//add all of the attribute types to the attribute list
-			attributes.addAll(tiles);
-			attributes.addAll(wholeColRules);
-			attributes.addAll(ruleAttributesCol);
-			attributes.addAll(wholeRowRules);
-			attributes.addAll(ruleAttributesRow);
-			
-			//Get the 75 possible action values
-			ArrayList<String> outputClassValues = new ArrayList<String>();
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE; i++)
-				for(int j = 0; j < ComplexThermsBoard.BOARDSIZE; j++)
-					outputClassValues.add("undo(" + i + "," + j + ")");
-			
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE; i++)
-				for(int j = 0; j < ComplexThermsBoard.BOARDSIZE; j++)
-					outputClassValues.add("markFull(" + i + "," + j + ")");
-			
-			for(int i = 0; i < ComplexThermsBoard.BOARDSIZE; i++)
-				for(int j = 0; j < ComplexThermsBoard.BOARDSIZE; j++)
-					outputClassValues.add("markEmpty(" + i + "," + j + ")");
-			
-		
-			//add the action attribute to the attribute list
-			Attribute outputClass = new Attribute("action",outputClassValues);
-			attributes.add(outputClass);
-			
-			//Store the number of attributes and the attributes themselves 
-			numWEKAattributes = attributes.size();
-			WEKAattributes = attributes;
-			
-			//Initialize globalInstancesDatabase to be the training database
-			Classification.globalInstanceDatabase = new Instances("Training",attributes,0);
-			Classification.globalInstanceDatabase.setClassIndex(Classification.globalInstanceDatabase.numAttributes()-1);
-		}
-	
+		//Store the schema, the number of attributes and the attributes themselves 
+		schema = FeatureSchema.getSchema(callingDomain, boardSize);
+		numWEKAattributes = schema.numAttributes();
+		WEKAattributes = schema.getAttributes();
 		
 		 //Set name, attributes, class index, etc of the various instance-holding databases
     	Classification.globalInstanceDatabase = new Instances("global",InstanceCreation.WEKAattributes,Classification.maxInstances);
@@ -298,6 +87,20 @@ public class InstanceCreation
 		return inputInstance;
 	}
 	
+	/** This method takes a world state without an action, and the id of an action (see ActionCatalog.java), and adds the action
+	 *   to the world state instance.  Ids are class indices, so this sets the value directly without looking up the action's string.
+	 * @param inputInstance  The instance without an action
+	 * @param actionId  The id of the action to be added to the instance
+	 * @return The input instance, only with the inputted action added to it
+	 */
+	public static Instance addOutputClassToInstance(Instance inputInstance, int actionId)
+	{
+		//Set the appropriate value to the action
+		inputInstance.setValue(WEKAattributes.size()-1, getActionCatalog().getClassIndex(actionId));
+		
+		return inputInstance;
+	}
+	
 	/**  Adds an action to an instance, and then adds that to the temporary instance database
 	 * 
 	 * @param instance The instance to add to the database
@@ -315,6 +118,32 @@ public class InstanceCreation
 		return instance;
 	}
 
+	/**  Adds an action, given by its id (see ActionCatalog.java), to an instance, and then adds that to the temporary instance database
+	 * 
+	 * @param instance The instance to add to the database
+	 * @param actionId The id of the action to add to the instance
+	 * @return The instance, with the action added
+	 */
+	public static Instance addInstance(Instance instance, int actionId)
+	{
+		//add action to instance
+		instance = addOutputClassToInstance(instance, actionId);
+		
+		//add instance to database
+		Classification.tempInstances.add(instance);
+		
+		return instance;
+	}
+	
+	/** Gets the action catalog that matches the attributes WEKA was initialized with, so action ids line up with the class indices
+	 * 
+	 * @return The catalog for the initialized domain and board size
+	 */
+	public static ActionCatalog getActionCatalog()
+	{
+		return ActionCatalog.getCatalog(schema.getDomain(), schema.getBoardSize());
+	}
+
 
 
 	
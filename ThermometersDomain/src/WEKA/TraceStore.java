@@ -0,0 +1,252 @@
+package WEKA;
+
+import java.util.Arrays;
+
+import BoardActions.ActionCatalog;
+import Utilities.Triple;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/** Stores demonstrator traces (which board, which step, the state and the action taken) in columns of primitives,
+ *    so millions of steps take a few bytes each instead of a WEKA Instance each.
+ *
+ *    Each row is one step of one episode: the board's number, the step number within the episode, the value of every
+ *    feature of the state (see MakeLearningInstances.getFeatureValues) and the id of the action taken (see
+ *    ActionCatalog.java).  Every column is its own array, and each feature gets its own column too.  Feature values are
+ *    nominal value indices or small counts, so they are stored as bytes.
+ *
+ *    Rows can be turned into WEKA instances with addTo when they are needed for training.
+ *
+ *    A store is not thread safe.  Give each thread its own store and join them with append.
+ *
+ * @author Skularach
+ *
+ */
+public class TraceStore
+{
+	//Number of rows to make room for when none is given
+	public static final int DEFAULTCAPACITY = 1024;
+
+	//The features and actions of the states stored
+	private final FeatureSchema schema;
+	private final ActionCatalog catalog;
+
+	//Number of features per state (all of the schema's attributes except the action)
+	private final int numFeatures;
+
+	//The columns.  Only the first numRows entries of each are used.
+	private int[] boardIds;
+	private int[] steps;
+	private int[] actionIds;
+	private byte[][] features;
+
+	private int numRows = 0;
+
+	/** Constructor.
+	 *
+	 * @param domain 'S' for Simple Thermometers, 'C' for Complex Thermometers
+	 * @param boardSize The width/height of the boards the traces are from
+	 */
+	public TraceStore(char domain, int boardSize)
+	{
+		this(domain, boardSize, DEFAULTCAPACITY);
+	}
+
+	/** Constructor.
+	 *
+	 * @param domain 'S' for Simple Thermometers, 'C' for Complex Thermometers
+	 * @param boardSize The width/height of the boards the traces are from
+	 * @param capacity How many rows to make room for to start with
+	 */
+	public TraceStore(char domain, int boardSize, int capacity)
+	{
+		schema = FeatureSchema.getSchema(domain, boardSize);
+		catalog = ActionCatalog.getCatalog(domain, boardSize);
+		numFeatures = schema.numAttributes() - 1;
+
+		capacity = Math.max(1, capacity);
+		boardIds = new int[capacity];
+		steps = new int[capacity];
+		actionIds = new int[capacity];
+		features = new byte[numFeatures][capacity];
+	}
+
+	/** Add a row
+	 *
+	 * @param boardId The number of the board the step is from
+	 * @param step The number of the step within its episode
+	 * @param values The features of the state, as filled in by MakeLearningInstances.getFeatureValues (any value
+	 *               after the features, such as the missing action, is ignored)
+	 * @param actionId The id of the action taken in the state
+	 * @throws IllegalArgumentException If a feature value doesn't fit in a byte
+	 */
+	public void add(int boardId, int step, double[] values, int actionId)
+	{
+		ensureCapacity(numRows + 1);
+
+		boardIds[numRows] = boardId;
+		steps[numRows] = step;
+		actionIds[numRows] = actionId;
+		for(int f = 0; f < numFeatures; f++)
+		{
+			byte value = (byte) values[f];
+			if(value != values[f])
+				throw new IllegalArgumentException("Feature " + f + " has value " + values[f] + ", which can't be stored as a byte");
+			features[f][numRows] = value;
+		}
+		numRows++;
+	}
+
+	/** Add every row of another store (for the same domain and board size) after the rows of this one
+	 *
+	 * @param other The store to copy the rows of
+	 */
+	public void append(TraceStore other)
+	{
+		if(other.schema != schema)
+			throw new IllegalArgumentException("Can't append traces for a different domain or board size");
+
+		ensureCapacity(numRows + other.numRows);
+		System.arraycopy(other.boardIds, 0, boardIds, numRows, other.numRows);
+		System.arraycopy(other.steps, 0, steps, numRows, other.numRows);
+		System.arraycopy(other.actionIds, 0, actionIds, numRows, other.numRows);
+		for(int f = 0; f < numFeatures; f++)
+			System.arraycopy(other.features[f], 0, features[f], numRows, other.numRows);
+		numRows += other.numRows;
+	}
+
+	/** Make sure there is room for a number of rows, growing every column if there isn't
+	 *
+	 * @param minCapacity The number of rows needed
+	 */
+	private void ensureCapacity(int minCapacity)
+	{
+		if(minCapacity <= boardIds.length)
+			return;
+
+		int capacity = Math.max(minCapacity, boardIds.length * 2);
+		boardIds = Arrays.copyOf(boardIds, capacity);
+		steps = Arrays.copyOf(steps, capacity);
+		actionIds = Arrays.copyOf(actionIds, capacity);
+		for(int f = 0; f < numFeatures; f++)
+			features[f] = Arrays.copyOf(features[f], capacity);
+	}
+
+	/** Turn rows into WEKA instances (with the action as the class) and add them to a dataset
+	 *
+	 * @param dataset The dataset to add to.  It must have this store's schema's attributes.
+	 * @param from The first row to add
+	 * @param to One past the last row to add
+	 */
+	public void addTo(Instances dataset, int from, int to)
+	{
+		for(int row = from; row < to; row++)
+		{
+			double[] values = new double[numFeatures + 1];
+			for(int f = 0; f < numFeatures; f++)
+				values[f] = features[f][row];
+			values[numFeatures] = catalog.getClassIndex(actionIds[row]);
+
+			Instance instance = new DenseInstance(1.0, values);
+			instance.setDataset(dataset);
+			dataset.add(instance);
+		}
+	}
+
+	/** Turn every row into a WEKA instance (with the action as the class) and add them to a dataset
+	 *
+	 * @param dataset The dataset to add to.  It must have this store's schema's attributes.
+	 */
+	public void addTo(Instances dataset)
+	{
+		addTo(dataset, 0, numRows);
+	}
+
+	/** Getter for the number of rows
+	 *
+	 * @return The number of steps stored
+	 */
+	public int getNumRows() {
+		return numRows;
+	}
+
+	/** Getter for the number of features per row
+	 *
+	 * @return The number of features
+	 */
+	public int getNumFeatures() {
+		return numFeatures;
+	}
+
+	/** Getter for the board a row is from
+	 *
+	 * @param row The row
+	 * @return The number of the board
+	 */
+	public int getBoardId(int row) {
+		return boardIds[row];
+	}
+
+	/** Getter for the step a row is
+	 *
+	 * @param row The row
+	 * @return The number of the step within its episode
+	 */
+	public int getStep(int row) {
+		return steps[row];
+	}
+
+	/** Getter for the action taken in a row
+	 *
+	 * @param row The row
+	 * @return The id of the action
+	 */
+	public int getActionId(int row) {
+		return actionIds[row];
+	}
+
+	/** Getter for the action taken in a row, as a move
+	 *
+	 * @param row The row
+	 * @return The move (shared, see ActionCatalog.getMove)
+	 */
+	public Triple getMove(int row) {
+		return catalog.getMove(actionIds[row]);
+	}
+
+	/** Getter for the value of one feature in a row
+	 *
+	 * @param row The row
+	 * @param feature The index of the feature
+	 * @return The value, as WEKA would store it
+	 */
+	public int getFeature(int row, int feature) {
+		return features[feature][row];
+	}
+
+	/** Getter for a whole feature column, for code that works through one feature at a time
+	 *
+	 * @param feature The index of the feature
+	 * @return The column.  Only the first getNumRows() entries are used, and it is replaced when the store grows.  Do not modify.
+	 */
+	public byte[] getFeatureColumn(int feature) {
+		return features[feature];
+	}
+
+	/** Getter for the feature schema of the states
+	 *
+	 * @return The schema
+	 */
+	public FeatureSchema getSchema() {
+		return schema;
+	}
+
+	/** Getter for the action catalog the action ids are from
+	 *
+	 * @return The catalog
+	 */
+	public ActionCatalog getCatalog() {
+		return catalog;
+	}
+}